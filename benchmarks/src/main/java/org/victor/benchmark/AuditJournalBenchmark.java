@@ -0,0 +1,63 @@
+package org.victor.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.victor.audit.AuditEvent;
+import org.victor.audit.AuditJournal;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Journal appends of a typical move event, committing every 256 appends as the async writer does
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AuditJournalBenchmark {
+
+    private static final int BATCH = 256;
+
+    @Param({"NONE", "INTERVAL"})
+    public AuditJournal.FsyncPolicy fsyncPolicy;
+
+    private Path directory;
+    private AuditJournal journal;
+    private AuditEvent event;
+    private int appended;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("audit-journal-bench");
+        journal = new AuditJournal.Builder(directory)
+                .fsyncPolicy(fsyncPolicy)
+                .retainedSegments(2)
+                .build();
+        event = new AuditEvent.Builder(AuditEvent.EventType.ELEVATOR_FLOOR_CHANGE)
+                .elevatorId("bench-elevator")
+                .description("Moved from floor {} to floor {}", 1, 2)
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        journal.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public void append() {
+        journal.append(event);
+        if (++appended % BATCH == 0) {
+            journal.commit();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package org.victor.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.victor.audit.AuditEvent;
+import org.victor.audit.AuditLogger;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Audit logging with the event store already at capacity, which is the steady state
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AuditLoggerBenchmark {
+
+    private static final int PREFILL = 10_000;
+
+    // async mode drops INFO events on overflow so producers measure the enqueue, not the writer
+    @Param({"false", "true"})
+    public boolean async;
+
+    private AuditLogger auditLogger;
+    private AuditEvent event;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        auditLogger = new AuditLogger.Builder()
+                .async(async)
+                .overflowPolicy(AuditLogger.OverflowPolicy.DROP_INFO)
+                .build();
+        event = new AuditEvent.Builder("bench-event", AuditEvent.EventType.ELEVATOR_FLOOR_CHANGE)
+                .elevatorId("bench-elevator")
+                .description("Moved from floor 1 to floor 2")
+                .build();
+        for (int i = 0; i < PREFILL; i++) {
+            auditLogger.logEvent(event);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        auditLogger.stop(1000);
+    }
+
+    @Benchmark
+    public void logEvent() {
+        auditLogger.logEvent(event);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void logEventContended() {
+        auditLogger.logEvent(event);
+    }
+
+    @Benchmark
+    public int queryByElevator() {
+        return auditLogger.getEventsByElevator("bench-elevator").size();
+    }
+}
@@ -0,0 +1,76 @@
+package org.victor.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.victor.Elevator;
+import org.victor.dispatch.ElevatorDispatcher;
+import org.victor.dispatch.ElevatorRequest;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dispatcher hot paths: choosing a car, nearest-car lookup and a full dispatch
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DispatcherBenchmark {
+
+    @Param({"1", "4", "16", "64", "256"})
+    public int fleetSize;
+
+    private ElevatorDispatcher dispatcher;
+    private ElevatorRequest[] requests;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+
+        ElevatorRequest nextRequest(ElevatorRequest[] requests) {
+            return requests[next++ & (Fleets.REQUEST_COUNT - 1)];
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        dispatcher = Fleets.publicFleet(fleetSize);
+        requests = Fleets.publicRequests();
+    }
+
+    @Benchmark
+    public Elevator selectElevator(Cursor cursor) {
+        return dispatcher.selectElevator(cursor.nextRequest(requests));
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Elevator selectElevatorContended(Cursor cursor) {
+        return dispatcher.selectElevator(cursor.nextRequest(requests));
+    }
+
+    @Benchmark
+    public Elevator findNearestElevator(Cursor cursor) {
+        return dispatcher.findNearestElevator(cursor.nextRequest(requests).getTargetFloor());
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Elevator findNearestElevatorContended(Cursor cursor) {
+        return dispatcher.findNearestElevator(cursor.nextRequest(requests).getTargetFloor());
+    }
+
+    @Benchmark
+    public void dispatch(Cursor cursor) {
+        dispatcher.requestElevator(cursor.nextRequest(requests));
+        dispatcher.processRequests();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void dispatchContended(Cursor cursor) {
+        dispatcher.requestElevator(cursor.nextRequest(requests));
+        dispatcher.processRequests();
+    }
+}
@@ -0,0 +1,86 @@
+package org.victor.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.victor.Elevator;
+import org.victor.audit.AuditEvent;
+import org.victor.audit.AuditLogger;
+import org.victor.dispatch.ElevatorDispatcher;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Elevator state changes with audit logging and metrics attached, as after registration.
+ * At both audit thresholds the move and load paths should not allocate: WARNING drops
+ * their info events, INFO writes them straight into the synchronous logger's ring
+ * (check gc.alloc.rate.norm with -prof gc).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ElevatorBenchmark {
+
+    private static final double PASSENGER_KG = 75;
+    // a full lobby door cycle
+    private static final double[] GROUP = {70, 75, 80, 65, 90, 75, 72, 68, 85, 77, 60, 83};
+
+    @Param({"INFO", "WARNING"})
+    public AuditEvent.AuditLevel auditLevel;
+
+    private Elevator car;
+
+    @State(Scope.Thread)
+    public static class FloorCursor {
+        int floor = 1;
+
+        int nextFloor() {
+            floor = floor % (Fleets.TOTAL_FLOORS - 1) + 1;
+            return floor;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        AuditLogger auditLogger = new AuditLogger();
+        auditLogger.setMinimumLevel(auditLevel);
+        ElevatorDispatcher dispatcher = Fleets.publicFleet(1, auditLogger);
+        car = dispatcher.getAllElevators().iterator().next();
+    }
+
+    @Benchmark
+    public void boardAndAlight() {
+        car.addWeight(PASSENGER_KG);
+        car.removeWeight(PASSENGER_KG);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void boardAndAlightContended() {
+        car.addWeight(PASSENGER_KG);
+        car.removeWeight(PASSENGER_KG);
+    }
+
+    @Benchmark
+    public void boardAndAlightGroup() {
+        car.board(GROUP);
+        car.alight(GROUP);
+    }
+
+    @Benchmark
+    public void goToFloor(FloorCursor cursor) {
+        car.goToFloor(cursor.nextFloor());
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void goToFloorContended(FloorCursor cursor) {
+        car.goToFloor(cursor.nextFloor());
+    }
+
+    @Benchmark
+    public int readFloor() {
+        return car.getCurrentFloor();
+    }
+}
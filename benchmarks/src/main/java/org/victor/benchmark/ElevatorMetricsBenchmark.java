@@ -0,0 +1,55 @@
+package org.victor.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.victor.monitoring.ElevatorMetrics;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Metric recording from one thread and from several threads sharing the same metrics,
+ * as when a monitor aggregates a group of elevators
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ElevatorMetricsBenchmark {
+
+    private ElevatorMetrics metrics;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        metrics = new ElevatorMetrics("bench-elevator");
+    }
+
+    @Benchmark
+    public void recordWeight() {
+        metrics.recordWeightAdded(80);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void recordWeightContended() {
+        metrics.recordWeightAdded(80);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void recordMoveContended() {
+        metrics.recordMove();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void boardAndAlightContended() {
+        metrics.addPassengers(2);
+        metrics.removePassengers(2);
+    }
+
+    @Benchmark
+    public ElevatorMetrics.Snapshot snapshot() {
+        return metrics.snapshot();
+    }
+}
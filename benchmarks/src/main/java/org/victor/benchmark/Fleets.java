@@ -0,0 +1,54 @@
+package org.victor.benchmark;
+
+import org.victor.PublicElevator;
+import org.victor.audit.AuditLogger;
+import org.victor.dispatch.ElevatorDispatcher;
+import org.victor.dispatch.ElevatorRequest;
+import org.victor.monitoring.SystemMonitor;
+import org.victor.security.UserManager;
+
+import java.util.Random;
+
+/**
+ * Shared fixtures for the benchmarks
+ */
+final class Fleets {
+
+    static final int TOTAL_FLOORS = 50;
+    // power of two so request cursors can wrap with a mask
+    static final int REQUEST_COUNT = 1024;
+
+    private Fleets() {
+    }
+
+    /**
+     * dispatcher with {@code size} public cars spread over the building
+     */
+    static ElevatorDispatcher publicFleet(int size) {
+        return publicFleet(size, new AuditLogger());
+    }
+
+    static ElevatorDispatcher publicFleet(int size, AuditLogger auditLogger) {
+        ElevatorDispatcher dispatcher = new ElevatorDispatcher(auditLogger, new SystemMonitor(),
+                new UserManager());
+        for (int i = 0; i < size; i++) {
+            PublicElevator car = new PublicElevator(TOTAL_FLOORS);
+            dispatcher.registerElevator(car);
+            car.goToFloor(1 + i % (TOTAL_FLOORS - 1));
+        }
+        return dispatcher;
+    }
+
+    /**
+     * car calls to unrestricted floors, generated with a fixed seed
+     */
+    static ElevatorRequest[] publicRequests() {
+        Random random = new Random(42);
+        ElevatorRequest[] requests = new ElevatorRequest[REQUEST_COUNT];
+        for (int i = 0; i < requests.length; i++) {
+            requests[i] = new ElevatorRequest("bench-user", 1 + random.nextInt(TOTAL_FLOORS - 1),
+                    ElevatorRequest.ElevatorType.PUBLIC, false);
+        }
+        return requests;
+    }
+}
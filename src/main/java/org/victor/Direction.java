@@ -0,0 +1,11 @@
+package org.victor;
+
+/**
+ * Direction of travel, as requested at a hall call button or as a car is moving.
+ * IDLE only applies to cars with no pending stops.
+ */
+public enum Direction {
+    UP,
+    DOWN,
+    IDLE
+}
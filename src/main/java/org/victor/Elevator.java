@@ -1,5 +1,6 @@
 package org.victor;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.victor.audit.AuditEvent;
@@ -8,7 +9,13 @@ import org.victor.exception.*;
 import org.victor.monitoring.ElevatorMetrics;
 import org.victor.monitoring.SystemMonitor;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.OptionalInt;
+import java.util.TreeSet;
 import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
@@ -21,9 +28,21 @@ public abstract class Elevator {
     protected final double maxWeight;
     protected final int totalFloors;
 
-    protected double currentWeight;
-    protected int currentFloor;
-    protected boolean operational;
+    // floor, load and operational flag, read without locking
+    @Getter(AccessLevel.NONE)
+    protected final PackedElevatorState state;
+
+    // pending stops served in LOOK order, guarded by lock
+    @Getter(AccessLevel.NONE)
+    protected final NavigableSet<Integer> stops = new TreeSet<>();
+    protected volatile Direction direction = Direction.IDLE;
+
+    // pending stop count and turnaround stop, republished under the write lock whenever the
+    // stop queue or direction changes so dispatch strategies can read them without locking
+    @Getter(AccessLevel.NONE)
+    private volatile long stopSummary;
+    private static final int TURNAROUND_SHIFT = 32;
+    private static final long TURNAROUND_BIT = 1L << 48;
 
     // thread-safe synchronization
     protected final ReadWriteLock lock = new ReentrantReadWriteLock();
@@ -33,14 +52,41 @@ public abstract class Elevator {
     protected ElevatorMetrics metrics;
     protected SystemMonitor systemMonitor;
 
+    // state change listeners (e.g. dispatcher floor index)
+    protected final List<StateListener> stateListeners = new CopyOnWriteArrayList<>();
+
     public Elevator(String name, double maxWeight, int totalFloors) {
         this.elevatorId = UUID.randomUUID().toString();
         this.name = name;
         this.maxWeight = maxWeight;
         this.totalFloors = totalFloors;
-        this.currentFloor = 1;
-        this.currentWeight = 0;
-        this.operational = true;
+        if (maxWeight > PackedElevatorState.MAX_WEIGHT_KG || totalFloors > PackedElevatorState.MAX_FLOOR) {
+            throw new IllegalArgumentException("Elevator limits out of range: " + maxWeight + " kg, "
+                    + totalFloors + " floors");
+        }
+        this.state = new PackedElevatorState(1, 0, true);
+    }
+
+    public int getCurrentFloor() {
+        return PackedElevatorState.floor(state.snapshot());
+    }
+
+    public double getCurrentWeight() {
+        return PackedElevatorState.weight(state.snapshot());
+    }
+
+    public boolean isOperational() {
+        return PackedElevatorState.operational(state.snapshot());
+    }
+
+    // lowest floor served, override for cars with basements below 0; floors run up to totalFloors
+    public int getMinFloor() {
+        return 0;
+    }
+
+    // floor, load and operational flag from a single consistent read, decode with PackedElevatorState
+    public long getStateSnapshot() {
+        return state.snapshot();
     }
 
     // inject audit logger
@@ -58,79 +104,140 @@ public abstract class Elevator {
         this.systemMonitor = systemMonitor;
     }
 
-    // add weight with validation and synchronization
+    // subscribe to floor changes and shutdowns
+    public void addStateListener(StateListener listener) {
+        stateListeners.add(listener);
+    }
+
+    public void removeStateListener(StateListener listener) {
+        stateListeners.remove(listener);
+    }
+
+    // add weight with a single CAS on the packed state
     public void addWeight(double weight) {
         if (weight < 0) {
             log.warn("Negative weight ignored: {}", weight);
             return;
         }
 
-        lock.writeLock().lock();
-        try {
-            if (!operational) {
-                logAuditEvent(AuditEvent.EventType.ELEVATOR_SHUTDOWN,
-                        "Cannot add weight to non-operational elevator");
-                throw new ElevatorNotOperationalException(name);
-            }
+        double newWeight = addLoad(weight);
 
-            double newWeight = currentWeight + weight;
-            if (newWeight > maxWeight) {
-                logAuditEvent(AuditEvent.EventType.OVERLOAD_DETECTED,
-                        String.format("Overload: %.0f kg exceeds limit of %.0f kg",
-                                newWeight, maxWeight),
-                        AuditEvent.AuditLevel.CRITICAL);
+        if (metrics != null) {
+            metrics.recordWeightAdded((long) weight);
+        }
 
-                if (metrics != null) {
-                    metrics.recordOverload();
-                }
-                if (systemMonitor != null) {
-                    systemMonitor.recordAlert(elevatorId,
-                            SystemMonitor.AlertSeverity.CRITICAL,
-                            "Overload detected");
-                }
+        logAuditEvent(AuditEvent.EventType.WEIGHT_ADDED,
+                "Weight added: {} kg, total: {} kg", Math.round(weight), Math.round(newWeight));
+    }
 
-                triggerAlarm(newWeight);
-                throw new ElevatorOverloadException(name, newWeight, maxWeight);
-            }
+    // board a group in one door cycle: one CAS, one audit event, and the whole
+    // group is rejected if it would overload the car
+    public void board(double... loads) {
+        double total = totalLoad(loads);
+        if (loads.length == 0) {
+            return;
+        }
 
-            currentWeight = newWeight;
+        double newWeight = addLoad(total);
 
-            if (metrics != null) {
-                metrics.recordWeightAdded((long) weight);
-            }
+        if (metrics != null) {
+            metrics.recordWeightAdded((long) total);
+            metrics.addPassengers(loads.length);
+        }
 
-            logAuditEvent(AuditEvent.EventType.WEIGHT_ADDED,
-                    String.format("Weight added: %.0f kg, total: %.0f kg", weight, currentWeight));
+        logAuditEvent(AuditEvent.EventType.WEIGHT_ADDED,
+                "Boarded {} passengers, total: {} kg", loads.length, Math.round(newWeight));
+    }
 
-        } finally {
-            lock.writeLock().unlock();
+    // remove weight with a single CAS on the packed state
+    public void removeWeight(double weight) {
+        if (weight < 0) {
+            log.warn("Negative weight ignored: {}", weight);
+            return;
         }
+
+        double newWeight = removeLoad(weight);
+
+        if (metrics != null) {
+            metrics.recordWeightRemoved((long) weight);
+        }
+
+        logAuditEvent(AuditEvent.EventType.WEIGHT_REMOVED,
+                "Weight removed: {} kg, total: {} kg", Math.round(weight), Math.round(newWeight));
     }
 
-    // remove weight with synchronization
-    public void removeWeight(double weight) {
-        lock.writeLock().lock();
-        try {
-            double newWeight = Math.max(0, currentWeight - weight);
-            currentWeight = newWeight;
+    // alight a group in one door cycle with a single CAS and audit event
+    public void alight(double... loads) {
+        double total = totalLoad(loads);
+        if (loads.length == 0) {
+            return;
+        }
 
-            if (metrics != null) {
-                metrics.recordWeightRemoved((long) weight);
+        double newWeight = removeLoad(total);
+
+        if (metrics != null) {
+            metrics.recordWeightRemoved((long) total);
+            metrics.removePassengers(loads.length);
+        }
+
+        logAuditEvent(AuditEvent.EventType.WEIGHT_REMOVED,
+                "Alighted {} passengers, total: {} kg", loads.length, Math.round(newWeight));
+    }
+
+    // validated sum of a group of loads
+    private static double totalLoad(double[] loads) {
+        double total = 0;
+        for (double load : loads) {
+            if (!(load >= 0) || Double.isInfinite(load)) {
+                throw new IllegalArgumentException("Invalid load: " + load);
             }
+            total += load;
+        }
+        return total;
+    }
+
+    // adds load with the overload policy applied, returns the new weight
+    private double addLoad(double weight) {
+        long previous = state.board(weight, maxWeight);
+        if (!PackedElevatorState.operational(previous)) {
+            logAuditEvent(AuditEvent.EventType.ELEVATOR_SHUTDOWN,
+                    "Cannot add weight to non-operational elevator");
+            throw new ElevatorNotOperationalException(name);
+        }
 
-            logAuditEvent(AuditEvent.EventType.WEIGHT_REMOVED,
-                    String.format("Weight removed: %.0f kg, total: %.0f kg", weight, currentWeight));
+        double newWeight = PackedElevatorState.weight(previous) + weight;
+        if (!PackedElevatorState.canBoard(previous, weight, maxWeight)) {
+            logAuditEvent(AuditEvent.EventType.OVERLOAD_DETECTED,
+                    String.format("Overload: %.0f kg exceeds limit of %.0f kg",
+                            newWeight, maxWeight),
+                    AuditEvent.AuditLevel.CRITICAL);
 
-        } finally {
-            lock.writeLock().unlock();
+            if (metrics != null) {
+                metrics.recordOverload();
+            }
+            if (systemMonitor != null) {
+                systemMonitor.recordAlert(elevatorId,
+                        SystemMonitor.AlertSeverity.CRITICAL,
+                        "Overload detected");
+            }
+
+            triggerAlarm(newWeight);
+            throw new ElevatorOverloadException(name, newWeight, maxWeight);
         }
+        return newWeight;
+    }
+
+    // removes load, never below zero, returns the new weight
+    private double removeLoad(double weight) {
+        long previous = state.alight(weight);
+        return Math.max(0, PackedElevatorState.weight(previous) - weight);
     }
 
     // move to specified floor with validation and synchronization
     public void goToFloor(int floor) {
         lock.writeLock().lock();
         try {
-            if (!operational) {
+            if (!isOperational()) {
                 logAuditEvent(AuditEvent.EventType.ELEVATOR_SHUTDOWN,
                         "Cannot move non-operational elevator");
                 throw new ElevatorNotOperationalException(name);
@@ -140,28 +247,210 @@ public abstract class Elevator {
                 logAuditEvent(AuditEvent.EventType.ACCESS_DENIED,
                         String.format("Invalid floor requested: %d", floor),
                         AuditEvent.AuditLevel.WARNING);
-                throw new InvalidFloorException(floor, 0, totalFloors);
+                throw new InvalidFloorException(floor, getMinFloor(), totalFloors);
             }
 
-            int previousFloor = currentFloor;
-            currentFloor = floor;
+            // shutdown also takes the write lock, so the CAS only races with load changes
+            int previousFloor = PackedElevatorState.floor(state.moveTo(floor));
+
+            // a direct move serves any stop on the destination floor
+            if (!stops.isEmpty()) {
+                stops.remove(floor);
+            }
+            updateDirection();
+            publishStops();
 
             if (metrics != null) {
                 metrics.recordMove();
             }
 
-            log.info("{} moved from floor {} to floor {}", name, previousFloor, currentFloor);
+            for (StateListener listener : stateListeners) {
+                listener.onFloorChanged(this, previousFloor, floor);
+            }
+
+            // guarded so the varargs array is not built when info is off
+            if (log.isInfoEnabled()) {
+                log.info("{} moved from floor {} to floor {}", name, previousFloor, floor);
+            }
             logAuditEvent(AuditEvent.EventType.ELEVATOR_FLOOR_CHANGE,
-                    String.format("Moved from floor %d to floor %d", previousFloor, floor));
+                    "Moved from floor {} to floor {}", previousFloor, floor);
+
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // fail the way addStop would for the floor, without queuing it
+    public void checkStop(int floor) {
+        lock.readLock().lock();
+        try {
+            validateStop(floor);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // queue a stop, served in direction of travel by serveNextStop
+    public void addStop(int floor) {
+        lock.writeLock().lock();
+        try {
+            validateStop(floor);
+
+            int here = getCurrentFloor();
+            if (floor == here || !stops.add(floor)) {
+                return;
+            }
+
+            if (direction == Direction.IDLE) {
+                direction = floor > here ? Direction.UP : Direction.DOWN;
+            }
+            publishStops();
+
+            logAuditEvent(AuditEvent.EventType.ELEVATOR_CALL, "Stop requested at floor {}", floor);
+
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // caller holds the lock
+    private void validateStop(int floor) {
+        if (!isOperational()) {
+            logAuditEvent(AuditEvent.EventType.ELEVATOR_SHUTDOWN,
+                    "Cannot add stop to non-operational elevator");
+            throw new ElevatorNotOperationalException(name);
+        }
+
+        if (!isValidFloor(floor)) {
+            logAuditEvent(AuditEvent.EventType.ACCESS_DENIED,
+                    String.format("Invalid floor requested: %d", floor),
+                    AuditEvent.AuditLevel.WARNING);
+            throw new InvalidFloorException(floor, getMinFloor(), totalFloors);
+        }
+    }
+
+    // next stop under LOOK: keep going while stops remain ahead, then reverse
+    public OptionalInt nextStop() {
+        lock.readLock().lock();
+        try {
+            Integer next = lookAhead();
+            return next == null ? OptionalInt.empty() : OptionalInt.of(next);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // move to the next stop in LOOK order, returns the floor served
+    public OptionalInt serveNextStop() {
+        lock.writeLock().lock();
+        try {
+            Integer next = lookAhead();
+            if (next == null) {
+                direction = Direction.IDLE;
+                publishStops();
+                return OptionalInt.empty();
+            }
+
+            goToFloor(next);
+            return OptionalInt.of(next);
 
         } finally {
             lock.writeLock().unlock();
         }
     }
 
+    // pending stops in ascending order
+    public List<Integer> getPendingStops() {
+        lock.readLock().lock();
+        try {
+            return new ArrayList<>(stops);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean hasPendingStop(int floor) {
+        lock.readLock().lock();
+        try {
+            return stops.contains(floor);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // read from the published summary, without locking
+    public int getPendingStopCount() {
+        return (int) stopSummary;
+    }
+
+    // last stop before the car reverses (highest when going up, lowest when going down),
+    // read from the published summary without locking
+    public OptionalInt getTurnaroundStop() {
+        long summary = stopSummary;
+        if ((summary & TURNAROUND_BIT) == 0) {
+            return OptionalInt.empty();
+        }
+        return OptionalInt.of((short) (summary >>> TURNAROUND_SHIFT));
+    }
+
+    // bits 0..31 stop count, 32..47 turnaround floor (signed), 48 turnaround present.
+    // must be called holding the write lock
+    private void publishStops() {
+        long summary = stops.size();
+        if (!stops.isEmpty() && direction != Direction.IDLE) {
+            int turnaround = direction == Direction.UP ? stops.last() : stops.first();
+            summary |= ((turnaround & 0xFFFFL) << TURNAROUND_SHIFT) | TURNAROUND_BIT;
+        }
+        stopSummary = summary;
+    }
+
+    // LOOK: keep the direction while stops remain ahead, otherwise reverse or go idle.
+    // must be called holding the write lock
+    private void updateDirection() {
+        int currentFloor = getCurrentFloor();
+        if (stops.isEmpty()) {
+            direction = Direction.IDLE;
+        } else if (direction == Direction.UP && stops.ceiling(currentFloor) == null) {
+            direction = Direction.DOWN;
+        } else if (direction == Direction.DOWN && stops.floor(currentFloor) == null) {
+            direction = Direction.UP;
+        } else if (direction == Direction.IDLE) {
+            direction = lookAhead() > currentFloor ? Direction.UP : Direction.DOWN;
+        }
+    }
+
+    // must be called holding the lock
+    private Integer lookAhead() {
+        if (stops.isEmpty()) {
+            return null;
+        }
+        int currentFloor = getCurrentFloor();
+        switch (direction) {
+            case UP: {
+                Integer ahead = stops.ceiling(currentFloor);
+                return ahead != null ? ahead : stops.floor(currentFloor);
+            }
+            case DOWN: {
+                Integer ahead = stops.floor(currentFloor);
+                return ahead != null ? ahead : stops.ceiling(currentFloor);
+            }
+            default: {
+                Integer below = stops.floor(currentFloor);
+                Integer above = stops.ceiling(currentFloor);
+                if (below == null) {
+                    return above;
+                }
+                if (above == null) {
+                    return below;
+                }
+                return currentFloor - below <= above - currentFloor ? below : above;
+            }
+        }
+    }
+
     // if is a valid floor
     protected boolean isValidFloor(int floor) {
-        return floor >= 0 && floor <= totalFloors;
+        return floor >= getMinFloor() && floor <= totalFloors;
     }
 
     // trigger alarm
@@ -191,13 +480,20 @@ public abstract class Elevator {
     protected void shutdown() {
         lock.writeLock().lock();
         try {
-            operational = false;
+            state.shutdown();
+            stops.clear();
+            direction = Direction.IDLE;
+            publishStops();
             log.warn("{} has been shut down for safety.", name);
 
             if (metrics != null) {
                 metrics.recordShutdown();
             }
 
+            for (StateListener listener : stateListeners) {
+                listener.onShutdown(this);
+            }
+
             logAuditEvent(AuditEvent.EventType.ELEVATOR_SHUTDOWN,
                     "Elevator emergency shutdown",
                     AuditEvent.AuditLevel.CRITICAL);
@@ -215,24 +511,46 @@ public abstract class Elevator {
     // log level audit event
     protected void logAuditEvent(AuditEvent.EventType eventType, String description,
             AuditEvent.AuditLevel level) {
-        if (auditLogger != null) {
-            AuditEvent event = new AuditEvent.Builder(UUID.randomUUID().toString(), eventType)
+        AuditLogger logger = auditLogger;
+        if (logger != null && logger.isRecording(level)) {
+            AuditEvent event = new AuditEvent.Builder(eventType)
                     .elevatorId(elevatorId)
                     .description(description)
                     .level(level)
                     .build();
-            auditLogger.logEvent(event);
+            logger.logEvent(event);
+        }
+    }
+
+    // structured info event for the hot paths: nothing is allocated unless info events are
+    // recorded, and the description is only rendered when read
+    protected void logAuditEvent(AuditEvent.EventType eventType, String pattern, long arg0, long arg1) {
+        AuditLogger logger = auditLogger;
+        if (logger != null) {
+            logger.logEvent(eventType, elevatorId, pattern, arg0, arg1);
         }
     }
 
+    // structured info event with a single {} placeholder
+    protected void logAuditEvent(AuditEvent.EventType eventType, String pattern, long arg0) {
+        logAuditEvent(eventType, pattern, arg0, 0);
+    }
+
+    /**
+     * Notified while the elevator still holds its write lock, so implementations
+     * must be fast and must not call back into the elevator.
+     */
+    public interface StateListener {
+        void onFloorChanged(Elevator elevator, int previousFloor, int newFloor);
+
+        void onShutdown(Elevator elevator);
+    }
+
     @Override
     public String toString() {
-        lock.readLock().lock();
-        try {
-            return String.format("Elevator{id='%s', name='%s', floor=%d, weight=%.0f/%.0f, operational=%s}",
-                    elevatorId, name, currentFloor, currentWeight, maxWeight, operational);
-        } finally {
-            lock.readLock().unlock();
-        }
+        long snapshot = state.snapshot();
+        return String.format("Elevator{id='%s', name='%s', floor=%d, weight=%.0f/%.0f, operational=%s}",
+                elevatorId, name, PackedElevatorState.floor(snapshot), PackedElevatorState.weight(snapshot),
+                maxWeight, PackedElevatorState.operational(snapshot));
     }
 }
@@ -13,13 +13,10 @@ public class FreightElevator extends Elevator {
 
     @Override
     public String toString() {
-        lock.readLock().lock();
-        try {
-            return String.format(
-                    "FreightElevator{id='%s', floor=%d, weight=%.0f/%d, operational=%s}",
-                    elevatorId, currentFloor, currentWeight, MAX_WEIGHT, operational);
-        } finally {
-            lock.readLock().unlock();
-        }
+        long snapshot = state.snapshot();
+        return String.format(
+                "FreightElevator{id='%s', floor=%d, weight=%.0f/%d, operational=%s}",
+                elevatorId, PackedElevatorState.floor(snapshot), PackedElevatorState.weight(snapshot),
+                MAX_WEIGHT, PackedElevatorState.operational(snapshot));
     }
 }
@@ -0,0 +1,155 @@
+package org.victor;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Elevator floor, load and operational flag packed into one atomically updated word.
+ * Reads are a single volatile load and every decoded value comes from the same
+ * consistent snapshot. Transitions are CAS loops that return the word they were
+ * applied to (or rejected on), so callers can tell what happened without a lock.
+ *
+ * <pre>
+ * bits  0..31  load in grams (unsigned)
+ * bits 32..47  floor (signed, so basements below 0 fit)
+ * bit  48      operational
+ * </pre>
+ */
+public final class PackedElevatorState {
+
+    public static final int MIN_FLOOR = Short.MIN_VALUE;
+    public static final int MAX_FLOOR = Short.MAX_VALUE;
+    public static final double MAX_WEIGHT_KG = 0xFFFFFFFFL / 1000.0;
+
+    private static final long WEIGHT_MASK = 0xFFFFFFFFL;
+    private static final int FLOOR_SHIFT = 32;
+    private static final long FLOOR_MASK = 0xFFFFL << FLOOR_SHIFT;
+    private static final long OPERATIONAL_BIT = 1L << 48;
+
+    private final AtomicLong word;
+
+    public PackedElevatorState(int floor, double weightKg, boolean operational) {
+        this.word = new AtomicLong(pack(floor, toGrams(weightKg), operational));
+    }
+
+    /**
+     * current state word, decode it with the static accessors
+     */
+    public long snapshot() {
+        return word.get();
+    }
+
+    public static int floor(long state) {
+        return (short) (state >>> FLOOR_SHIFT);
+    }
+
+    public static double weight(long state) {
+        return (state & WEIGHT_MASK) / 1000.0;
+    }
+
+    public static boolean operational(long state) {
+        return (state & OPERATIONAL_BIT) != 0;
+    }
+
+    /**
+     * whether boarding {@code kg} onto the given state stays within {@code maxKg}
+     */
+    public static boolean canBoard(long state, double kg, double maxKg) {
+        return (state & WEIGHT_MASK) + loadGrams(kg) <= toGrams(maxKg);
+    }
+
+    /**
+     * add load if the car is operational and stays within the limit
+     */
+    public long board(double kg, double maxKg) {
+        long grams = loadGrams(kg);
+        while (true) {
+            long previous = word.get();
+            if (!operational(previous) || !canBoard(previous, kg, maxKg)) {
+                return previous;
+            }
+            if (word.compareAndSet(previous, previous + grams)) {
+                return previous;
+            }
+        }
+    }
+
+    /**
+     * remove load, never going below zero
+     */
+    public long alight(double kg) {
+        long grams = loadGrams(kg);
+        while (true) {
+            long previous = word.get();
+            long remaining = Math.max(0, (previous & WEIGHT_MASK) - grams);
+            if (word.compareAndSet(previous, (previous & ~WEIGHT_MASK) | remaining)) {
+                return previous;
+            }
+        }
+    }
+
+    /**
+     * move to a floor if the car is operational
+     */
+    public long moveTo(int floor) {
+        checkFloor(floor);
+        while (true) {
+            long previous = word.get();
+            if (!operational(previous)) {
+                return previous;
+            }
+            long next = (previous & ~FLOOR_MASK) | floorBits(floor);
+            if (word.compareAndSet(previous, next)) {
+                return previous;
+            }
+        }
+    }
+
+    /**
+     * clear the operational flag
+     */
+    public long shutdown() {
+        while (true) {
+            long previous = word.get();
+            if (word.compareAndSet(previous, previous & ~OPERATIONAL_BIT)) {
+                return previous;
+            }
+        }
+    }
+
+    private static long pack(int floor, long grams, boolean operational) {
+        checkFloor(floor);
+        if (grams < 0 || grams > WEIGHT_MASK) {
+            throw new IllegalArgumentException("Weight out of range: " + grams / 1000.0 + " kg");
+        }
+        return grams | floorBits(floor) | (operational ? OPERATIONAL_BIT : 0);
+    }
+
+    private static long floorBits(int floor) {
+        return (floor & 0xFFFFL) << FLOOR_SHIFT;
+    }
+
+    private static void checkFloor(int floor) {
+        if (floor < MIN_FLOOR || floor > MAX_FLOOR) {
+            throw new IllegalArgumentException("Floor out of range: " + floor);
+        }
+    }
+
+    // a load change in grams, capped at the field width so sums cannot overflow
+    private static long loadGrams(double kg) {
+        if (!(kg >= 0)) {
+            throw new IllegalArgumentException("Invalid load: " + kg + " kg");
+        }
+        return Math.min(toGrams(kg), WEIGHT_MASK);
+    }
+
+    private static long toGrams(double kg) {
+        return Math.round(kg * 1000);
+    }
+
+    @Override
+    public String toString() {
+        long state = snapshot();
+        return String.format("PackedElevatorState{floor=%d, weight=%.3f, operational=%s}",
+                floor(state), weight(state), operational(state));
+    }
+}
@@ -16,6 +16,23 @@ public class PublicElevator extends Elevator {
 
     // move elevator to restricted floor requiring keycard
     public void goToFloor(int floor, boolean hasKeycard) {
+        checkAccess(floor, hasKeycard);
+        super.goToFloor(floor);
+    }
+
+    // queue a stop on a restricted floor requiring keycard
+    public void addStop(int floor, boolean hasKeycard) {
+        checkAccess(floor, hasKeycard);
+        super.addStop(floor);
+    }
+
+    // fail the way addStop would for the floor, without queuing it
+    public void checkStop(int floor, boolean hasKeycard) {
+        checkAccess(floor, hasKeycard);
+        super.checkStop(floor);
+    }
+
+    private void checkAccess(int floor, boolean hasKeycard) {
         lock.readLock().lock();
         try {
             if ((floor == 0 || floor == MAX_FLOOR) && !hasKeycard) {
@@ -31,19 +48,14 @@ public class PublicElevator extends Elevator {
         } finally {
             lock.readLock().unlock();
         }
-
-        super.goToFloor(floor);
     }
 
     @Override
     public String toString() {
-        lock.readLock().lock();
-        try {
-            return String.format(
-                    "PublicElevator{id='%s', floor=%d, weight=%.0f/%d, operational=%s, maxFloor=%d}",
-                    elevatorId, currentFloor, currentWeight, MAX_WEIGHT, operational, MAX_FLOOR);
-        } finally {
-            lock.readLock().unlock();
-        }
+        long snapshot = state.snapshot();
+        return String.format(
+                "PublicElevator{id='%s', floor=%d, weight=%.0f/%d, operational=%s, maxFloor=%d}",
+                elevatorId, PackedElevatorState.floor(snapshot), PackedElevatorState.weight(snapshot),
+                MAX_WEIGHT, PackedElevatorState.operational(snapshot), MAX_FLOOR);
     }
 }
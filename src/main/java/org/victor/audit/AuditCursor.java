@@ -0,0 +1,83 @@
+package org.victor.audit;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Lazily walks the audit events stamped within a time range, in append order, without
+ * copying the range into a list. The scan starts at the block found by binary search
+ * in the {@link TimeIndex}, skips blocks with no event in range and stops once no later
+ * event can fall in range, taking out-of-order timestamps into account. Events appended
+ * after the cursor was created are not returned, and events overwritten while it is
+ * open are skipped.
+ */
+public final class AuditCursor implements Iterator<AuditEvent> {
+
+    private final AuditRingBuffer events;
+    private final TimeIndex timeIndex;
+    private final long from;
+    private final long to;
+    private final Predicate<AuditEvent> filter;
+    private final long end;
+    private long next;
+    private long checkedBlock = -1;
+    private AuditEvent pending;
+
+    AuditCursor(AuditRingBuffer events, TimeIndex timeIndex, long from, long to, Predicate<AuditEvent> filter) {
+        this.events = events;
+        this.timeIndex = timeIndex;
+        this.from = from;
+        this.to = to;
+        this.filter = filter;
+        this.end = events.nextSequence();
+        this.next = timeIndex.seek(from, events.firstSequence(), end);
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (pending == null && next < end) {
+            long block = next / TimeIndex.BLOCK_SIZE;
+            if (block != checkedBlock) {
+                checkedBlock = block;
+                if (timeIndex.rangeEndsBefore(next, to)) {
+                    next = end;
+                    break;
+                }
+                if (timeIndex.blockMisses(next, from, to)) {
+                    next = (block + 1) * TimeIndex.BLOCK_SIZE;
+                    continue;
+                }
+            }
+            next = Math.max(next, events.firstSequence());
+            AuditEvent event = events.get(next++);
+            if (event != null && event.getTimestamp() >= from && event.getTimestamp() <= to
+                    && filter.test(event)) {
+                pending = event;
+            }
+        }
+        return pending != null;
+    }
+
+    @Override
+    public AuditEvent next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        AuditEvent event = pending;
+        pending = null;
+        return event;
+    }
+
+    /**
+     * the remaining events as a sequential stream
+     */
+    public Stream<AuditEvent> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this,
+                Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+}
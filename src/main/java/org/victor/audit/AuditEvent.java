@@ -1,24 +1,43 @@
 package org.victor.audit;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.ToString;
 import java.time.Instant;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * Audit event in the elevator system
+ * Audit event in the elevator system. Events built without an explicit id get a
+ * monotonic sequence number, and structured descriptions (a pattern with numeric
+ * arguments) are only rendered when read.
  */
 @Getter
 @ToString
 public class AuditEvent {
-    
-    private final String eventId;
+
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    private String eventId;
+    @Getter(AccessLevel.NONE)
+    @ToString.Exclude
+    private final boolean explicitId;
+    private final long sequence;
     private final EventType eventType;
     private final long timestamp;
     private final String userId;
     private final String elevatorId;
-    private final String description;
+    private String description;
+    @Getter(AccessLevel.NONE)
+    @ToString.Exclude
+    private final String descriptionPattern;
+    @Getter(AccessLevel.NONE)
+    @ToString.Exclude
+    private final long arg0;
+    @Getter(AccessLevel.NONE)
+    @ToString.Exclude
+    private final long arg1;
     private final Map<String, Object> metadata;
     private final AuditLevel level;
 
@@ -48,23 +67,105 @@ public class AuditEvent {
 
     private AuditEvent(Builder builder) {
         this.eventId = builder.eventId;
+        this.explicitId = builder.eventId != null;
+        this.sequence = builder.sequence != 0 ? builder.sequence : SEQUENCE.incrementAndGet();
         this.eventType = builder.eventType;
         this.timestamp = builder.timestamp;
         this.userId = builder.userId;
         this.elevatorId = builder.elevatorId;
         this.description = builder.description;
-        this.metadata = builder.metadata;
+        this.descriptionPattern = builder.descriptionPattern;
+        this.arg0 = builder.arg0;
+        this.arg1 = builder.arg1;
+        this.metadata = builder.metadata == null ? Map.of() : builder.metadata;
         this.level = builder.level;
     }
 
+    /**
+     * explicit id, or the sequence number when the event was built without one
+     */
+    public String getEventId() {
+        String id = eventId;
+        if (id == null) {
+            id = Long.toString(sequence);
+            eventId = id;
+        }
+        return id;
+    }
+
+    /**
+     * description, rendered from the pattern on first read for structured events
+     */
+    public String getDescription() {
+        String text = description;
+        if (text == null && descriptionPattern != null) {
+            text = render(descriptionPattern, arg0, arg1);
+            description = text;
+        }
+        return text;
+    }
+
+    // pattern and arguments of a structured description, null pattern for plain text
+    String descriptionPattern() {
+        return descriptionPattern;
+    }
+
+    long descriptionArg0() {
+        return arg0;
+    }
+
+    long descriptionArg1() {
+        return arg1;
+    }
+
+    // whether the id was given explicitly rather than taken from the sequence
+    boolean hasExplicitId() {
+        return explicitId;
+    }
+
+    /**
+     * take the next sequence number, for events stored without being built
+     */
+    static long nextSequence() {
+        return SEQUENCE.incrementAndGet();
+    }
+
+    /**
+     * make sure later events are numbered after {@code sequence}, used when restoring events
+     */
+    static void advanceSequence(long sequence) {
+        SEQUENCE.accumulateAndGet(sequence, Math::max);
+    }
+
+    /**
+     * replaces the first two {@code {}} placeholders with the arguments
+     */
+    static String render(String pattern, long arg0, long arg1) {
+        StringBuilder text = new StringBuilder(pattern.length() + 16);
+        int argument = 0;
+        int from = 0;
+        int at;
+        while (argument < 2 && (at = pattern.indexOf("{}", from)) >= 0) {
+            text.append(pattern, from, at).append(argument == 0 ? arg0 : arg1);
+            from = at + 2;
+            argument++;
+        }
+        return text.append(pattern, from, pattern.length()).toString();
+    }
+
     public static class Builder {
         private final String eventId;
+        // taken from SEQUENCE on build unless restored, sequences start at 1
+        private long sequence;
         private final EventType eventType;
         private long timestamp = System.currentTimeMillis();
         private String userId;
         private String elevatorId;
         private String description;
-        private final Map<String, Object> metadata = new HashMap<>();
+        private String descriptionPattern;
+        private long arg0;
+        private long arg1;
+        private Map<String, Object> metadata;
         private AuditLevel level = AuditLevel.INFO;
 
         public Builder(String eventId, EventType eventType) {
@@ -72,6 +173,17 @@ public class AuditEvent {
             this.eventType = eventType;
         }
 
+        // id taken from the event sequence
+        public Builder(EventType eventType) {
+            this(null, eventType);
+        }
+
+        // restores the sequence of a decoded event
+        Builder sequence(long sequence) {
+            this.sequence = sequence;
+            return this;
+        }
+
         public Builder timestamp(long timestamp) {
             this.timestamp = timestamp;
             return this;
@@ -92,7 +204,18 @@ public class AuditEvent {
             return this;
         }
 
+        // description rendered on first read, {} placeholders take the arguments
+        public Builder description(String pattern, long arg0, long arg1) {
+            this.descriptionPattern = pattern;
+            this.arg0 = arg0;
+            this.arg1 = arg1;
+            return this;
+        }
+
         public Builder addMetadata(String key, Object value) {
+            if (this.metadata == null) {
+                this.metadata = new HashMap<>();
+            }
             this.metadata.put(key, value);
             return this;
         }
@@ -0,0 +1,243 @@
+package org.victor.audit;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary encoding of audit events for a stream of records (a journal segment,
+ * a network message). Fixed fields come first, then a flags byte saying which optional
+ * fields follow; enums are stored as ordinals, numbers as varints, and structured
+ * descriptions as pattern plus arguments so they stay unrendered.
+ *
+ * Elevator and user ids are replaced by handles from a dictionary shared by the whole
+ * stream: the first record that uses an id carries its text right after the new
+ * handle, later records only the handle. A decoder must therefore see the records in
+ * the order they were encoded, starting after the same {@link #reset()}; decoded
+ * events share one String instance per id.
+ *
+ * <pre>
+ * varint sequence | long timestamp | byte type | byte level | byte flags
+ * [string eventId] [handle userId] [handle elevatorId] [string description]
+ * [string pattern, zigzag arg0, zigzag arg1] [varint count, (string key, string value)*]
+ *
+ * handle = varint h, followed by a string when h is the next unused handle
+ * string = varint byte length, UTF-8 bytes
+ * </pre>
+ *
+ * Metadata values are stored as their string form. Not thread-safe.
+ */
+public final class AuditEventCodec {
+
+    private static final int EXPLICIT_ID = 1;
+    private static final int USER = 1 << 1;
+    private static final int ELEVATOR = 1 << 2;
+    private static final int DESCRIPTION = 1 << 3;
+    private static final int PATTERN = 1 << 4;
+    private static final int METADATA = 1 << 5;
+
+    private static final AuditEvent.EventType[] TYPES = AuditEvent.EventType.values();
+    private static final AuditEvent.AuditLevel[] LEVELS = AuditEvent.AuditLevel.values();
+
+    private final Map<String, Integer> handles = new HashMap<>();
+    private final List<String> values = new ArrayList<>();
+
+    /**
+     * start a new stream: forget every handle
+     */
+    public void reset() {
+        handles.clear();
+        values.clear();
+    }
+
+    // ids in the handle dictionary
+    public int getHandleCount() {
+        return values.size();
+    }
+
+    /**
+     * write the event at the buffer's position. On overflow the buffer position is
+     * undefined but the dictionary is unchanged, so the event can be encoded again
+     * into a larger buffer.
+     *
+     * @throws BufferOverflowException if the buffer has no room for it
+     */
+    public void encode(AuditEvent event, ByteBuffer buffer) {
+        String pattern = event.descriptionPattern();
+        Map<String, Object> metadata = event.getMetadata();
+        String userId = event.getUserId();
+        String elevatorId = event.getElevatorId();
+
+        int flags = 0;
+        if (event.hasExplicitId()) {
+            flags |= EXPLICIT_ID;
+        }
+        if (userId != null) {
+            flags |= USER;
+        }
+        if (elevatorId != null) {
+            flags |= ELEVATOR;
+        }
+        if (pattern != null) {
+            flags |= PATTERN;
+        } else if (event.getDescription() != null) {
+            flags |= DESCRIPTION;
+        }
+        if (!metadata.isEmpty()) {
+            flags |= METADATA;
+        }
+
+        putVarLong(buffer, event.getSequence());
+        buffer.putLong(event.getTimestamp());
+        buffer.put((byte) event.getEventType().ordinal());
+        buffer.put((byte) event.getLevel().ordinal());
+        buffer.put((byte) flags);
+
+        if ((flags & EXPLICIT_ID) != 0) {
+            putString(buffer, event.getEventId());
+        }
+        // new handles are only registered once the whole record fits
+        int next = values.size();
+        int userHandle = -1;
+        if ((flags & USER) != 0) {
+            userHandle = handles.getOrDefault(userId, next);
+            putHandle(buffer, userHandle, next, userId);
+            if (userHandle == next) {
+                next++;
+            }
+        }
+        int elevatorHandle = -1;
+        if ((flags & ELEVATOR) != 0) {
+            elevatorHandle = elevatorId.equals(userId) ? userHandle : handles.getOrDefault(elevatorId, next);
+            putHandle(buffer, elevatorHandle, next, elevatorId);
+        }
+        if ((flags & DESCRIPTION) != 0) {
+            putString(buffer, event.getDescription());
+        }
+        if ((flags & PATTERN) != 0) {
+            putString(buffer, pattern);
+            putVarLong(buffer, zigZag(event.descriptionArg0()));
+            putVarLong(buffer, zigZag(event.descriptionArg1()));
+        }
+        if ((flags & METADATA) != 0) {
+            putVarLong(buffer, metadata.size());
+            for (Map.Entry<String, Object> entry : metadata.entrySet()) {
+                putString(buffer, entry.getKey());
+                putString(buffer, String.valueOf(entry.getValue()));
+            }
+        }
+
+        if (userHandle == values.size()) {
+            register(userId);
+        }
+        if (elevatorHandle == values.size()) {
+            register(elevatorId);
+        }
+    }
+
+    /**
+     * read the event at the buffer's position
+     */
+    public AuditEvent decode(ByteBuffer buffer) {
+        long sequence = getVarLong(buffer);
+        long timestamp = buffer.getLong();
+        AuditEvent.EventType type = TYPES[buffer.get()];
+        AuditEvent.AuditLevel level = LEVELS[buffer.get()];
+        int flags = buffer.get();
+
+        String eventId = (flags & EXPLICIT_ID) != 0 ? getString(buffer) : null;
+        AuditEvent.Builder builder = new AuditEvent.Builder(eventId, type)
+                .sequence(sequence)
+                .timestamp(timestamp)
+                .level(level);
+        if ((flags & USER) != 0) {
+            builder.userId(getHandle(buffer));
+        }
+        if ((flags & ELEVATOR) != 0) {
+            builder.elevatorId(getHandle(buffer));
+        }
+        if ((flags & DESCRIPTION) != 0) {
+            builder.description(getString(buffer));
+        }
+        if ((flags & PATTERN) != 0) {
+            String pattern = getString(buffer);
+            long arg0 = unZigZag(getVarLong(buffer));
+            long arg1 = unZigZag(getVarLong(buffer));
+            builder.description(pattern, arg0, arg1);
+        }
+        if ((flags & METADATA) != 0) {
+            long count = getVarLong(buffer);
+            for (long i = 0; i < count; i++) {
+                builder.addMetadata(getString(buffer), getString(buffer));
+            }
+        }
+        return builder.build();
+    }
+
+    private void register(String value) {
+        handles.put(value, values.size());
+        values.add(value);
+    }
+
+    // a handle not registered yet is followed by its text
+    private static void putHandle(ByteBuffer buffer, int handle, int next, String value) {
+        putVarLong(buffer, handle);
+        if (handle == next) {
+            putString(buffer, value);
+        }
+    }
+
+    private String getHandle(ByteBuffer buffer) {
+        int handle = (int) getVarLong(buffer);
+        if (handle == values.size()) {
+            register(getString(buffer));
+        } else if (handle > values.size()) {
+            throw new IllegalArgumentException("Audit record refers to unknown handle " + handle);
+        }
+        return values.get(handle);
+    }
+
+    private static void putString(ByteBuffer buffer, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        putVarLong(buffer, bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        byte[] bytes = new byte[(int) getVarLong(buffer)];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void putVarLong(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private static long getVarLong(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; shift < Long.SIZE; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint in audit record");
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,88 @@
+package org.victor.audit;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Dictionary of the user and elevator ids seen by an audit logger. Each id gets a
+ * small integer handle the first time it is seen, so the ring stores ints instead
+ * of references and the indexes find an id's sequences without allocating. Ids
+ * are kept for the logger's lifetime; their sequence lists are trimmed with the
+ * other indexes.
+ */
+final class AuditIds {
+
+    static final int NONE = -1;
+
+    private final Map<String, Entry> byId = new ConcurrentHashMap<>();
+    // grown and republished under the lock, read without it
+    private volatile Entry[] byHandle = new Entry[16];
+    private int count;
+
+    static final class Entry {
+        final int handle;
+        final String id;
+        // sequences of the events with this id as user, and as elevator
+        final SequenceList asUser = new SequenceList();
+        final SequenceList asElevator = new SequenceList();
+
+        private Entry(int handle, String id) {
+            this.handle = handle;
+            this.id = id;
+        }
+    }
+
+    /**
+     * handle of the id, registering it if new; {@link #NONE} for null
+     */
+    int handle(String id) {
+        if (id == null) {
+            return NONE;
+        }
+        Entry entry = byId.get(id);
+        return entry != null ? entry.handle : register(id).handle;
+    }
+
+    /**
+     * id behind a handle, null for {@link #NONE}
+     */
+    String id(int handle) {
+        return handle == NONE ? null : byHandle[handle].id;
+    }
+
+    Entry entry(int handle) {
+        return byHandle[handle];
+    }
+
+    /**
+     * entry of a known id, or null if it was never seen
+     */
+    Entry entry(String id) {
+        return byId.get(id);
+    }
+
+    /**
+     * entries registered so far, the array may have trailing nulls
+     */
+    Entry[] entries() {
+        return byHandle;
+    }
+
+    private synchronized Entry register(String id) {
+        Entry entry = byId.get(id);
+        if (entry != null) {
+            return entry;
+        }
+        Entry[] entries = byHandle;
+        if (count == entries.length) {
+            entries = Arrays.copyOf(entries, count * 2);
+        }
+        entry = new Entry(count, id);
+        entries[count++] = entry;
+        // the handle array is published before the id can be looked up
+        byHandle = entries;
+        byId.put(id, entry);
+        return entry;
+    }
+}
@@ -0,0 +1,95 @@
+package org.victor.audit;
+
+/**
+ * Secondary indexes over the audit ring buffer: for each event type, level, user and
+ * elevator the sequences of the matching events. User and elevator lists live on
+ * their {@link AuditIds} entries, so indexing an event never allocates. Entries for
+ * evicted events are dropped lazily when a list is written, and all lists are swept
+ * once per buffer lap so idle keys do not keep stale entries.
+ */
+final class AuditIndex {
+
+    private final SequenceList[] byType = lists(AuditEvent.EventType.values().length);
+    private final SequenceList[] byLevel = lists(AuditEvent.AuditLevel.values().length);
+    private final AuditIds ids;
+    private final int sweepInterval;
+
+    AuditIndex(AuditIds ids, int sweepInterval) {
+        this.ids = ids;
+        this.sweepInterval = sweepInterval;
+    }
+
+    /**
+     * index an event stored under the given sequence, users and elevators by handle
+     */
+    void add(AuditEvent.EventType type, AuditEvent.AuditLevel level, int user, int elevator,
+            long sequence, long firstSequence) {
+        add(byType[type.ordinal()], sequence, firstSequence);
+        add(byLevel[level.ordinal()], sequence, firstSequence);
+        if (user != AuditIds.NONE) {
+            add(ids.entry(user).asUser, sequence, firstSequence);
+        }
+        if (elevator != AuditIds.NONE) {
+            add(ids.entry(elevator).asElevator, sequence, firstSequence);
+        }
+        if (sequence % sweepInterval == 0) {
+            sweep(firstSequence);
+        }
+    }
+
+    SequenceList type(AuditEvent.EventType type) {
+        return byType[type.ordinal()];
+    }
+
+    SequenceList level(AuditEvent.AuditLevel level) {
+        return byLevel[level.ordinal()];
+    }
+
+    /**
+     * sequences of the user's events, or null if the user was never seen
+     */
+    SequenceList user(String userId) {
+        AuditIds.Entry entry = ids.entry(userId);
+        return entry == null ? null : entry.asUser;
+    }
+
+    /**
+     * sequences of the elevator's events, or null if the elevator was never seen
+     */
+    SequenceList elevator(String elevatorId) {
+        AuditIds.Entry entry = ids.entry(elevatorId);
+        return entry == null ? null : entry.asElevator;
+    }
+
+    /**
+     * drop entries below {@code firstSequence} everywhere
+     */
+    void sweep(long firstSequence) {
+        for (SequenceList list : byType) {
+            list.trimBelow(firstSequence);
+        }
+        for (SequenceList list : byLevel) {
+            list.trimBelow(firstSequence);
+        }
+        for (AuditIds.Entry entry : ids.entries()) {
+            if (entry == null) {
+                break;
+            }
+            entry.asUser.trimBelow(firstSequence);
+            entry.asElevator.trimBelow(firstSequence);
+        }
+    }
+
+    private static void add(SequenceList list, long sequence, long firstSequence) {
+        list.trimBelow(firstSequence);
+        list.add(sequence);
+    }
+
+    private static SequenceList[] lists(int count) {
+        SequenceList[] lists = new SequenceList[count];
+        for (int i = 0; i < count; i++) {
+            lists[i] = new SequenceList();
+        }
+        return lists;
+    }
+}
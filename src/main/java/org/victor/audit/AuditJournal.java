@@ -0,0 +1,401 @@
+package org.victor.audit;
+
+import lombok.extern.slf4j.Slf4j;
+import org.victor.exception.AuditJournalException;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only audit journal on memory-mapped segment files.
+ *
+ * Each segment is a file of fixed size, numbered in creation order. Records are an
+ * int length, the CRC32 of the payload and the {@link AuditEventCodec} encoding; a zero
+ * length marks the end of the segment. Mapped pages reach the disk in no particular
+ * order, so after a crash a record may be only partly written: a record whose checksum
+ * does not match or that cannot be decoded ends the log, and reopening truncates the
+ * segment there. Each segment starts a new codec handle dictionary,
+ * so segments can be read (and deleted) independently. When a record does not fit
+ * the journal rolls to a new segment and deletes the oldest ones beyond the retention.
+ *
+ * Appends only copy into the mapped buffer; when the pages reach the disk is decided
+ * by the {@link FsyncPolicy}, applied at {@link #commit()}. Used by one writer at a
+ * time (the audit writer thread in async mode), appends are synchronized.
+ */
+@Slf4j
+public class AuditJournal implements AutoCloseable {
+
+    static final String SEGMENT_PREFIX = "audit-";
+    static final String SEGMENT_SUFFIX = ".seg";
+
+    private static final int LENGTH_BYTES = Integer.BYTES;
+    private static final int HEADER_BYTES = LENGTH_BYTES + Integer.BYTES;
+    private static final int ZERO_CHUNK = 4096;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final FsyncPolicy fsyncPolicy;
+    private final long fsyncIntervalMs;
+    private final int retainedSegments;
+
+    private final ByteBuffer scratch;
+    private final AuditEventCodec codec = new AuditEventCodec();
+    private final CRC32 crc = new CRC32();
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+    private Path segmentPath;
+    private boolean dirty;
+    private long lastSyncMs = System.currentTimeMillis();
+    private long appendedCount;
+    private boolean closed;
+
+    /**
+     * when appended records are forced to disk
+     */
+    public enum FsyncPolicy {
+        // leave it to the operating system
+        NONE,
+        // on every commit, i.e. after each write batch
+        EVERY_COMMIT,
+        // on commit, at most once per interval
+        INTERVAL
+    }
+
+    private AuditJournal(Builder builder) {
+        this.directory = builder.directory;
+        this.segmentSize = builder.segmentSize;
+        this.fsyncPolicy = builder.fsyncPolicy;
+        this.fsyncIntervalMs = builder.fsyncIntervalMs;
+        this.retainedSegments = builder.retainedSegments;
+        this.scratch = ByteBuffer.allocate(Math.min(segmentSize, 64 * 1024));
+        try {
+            Files.createDirectories(directory);
+            List<Path> segments = segments();
+            if (segments.isEmpty()) {
+                roll();
+            } else {
+                reopen(segments.get(segments.size() - 1));
+            }
+        } catch (IOException e) {
+            throw new AuditJournalException("Cannot open audit journal in " + directory, e);
+        }
+        log.info("AuditJournal opened in {} ({} byte segments, fsync {})", directory, segmentSize, fsyncPolicy);
+    }
+
+    /**
+     * append an event; it is durable once a later {@link #commit()} or {@link #sync()} forces it
+     */
+    public synchronized void append(AuditEvent event) {
+        if (closed) {
+            throw new AuditJournalException("Audit journal is closed");
+        }
+        ByteBuffer record = encode(event);
+        try {
+            if (segment.remaining() < HEADER_BYTES + record.remaining() + LENGTH_BYTES) {
+                roll();
+                // the new segment starts a new dictionary
+                record = encode(event);
+            }
+            int start = segment.position();
+            int length = record.remaining();
+            crc.reset();
+            crc.update(record);
+            record.position(0);
+            segment.position(start + HEADER_BYTES);
+            segment.put(record);
+            segment.putInt(start + LENGTH_BYTES, (int) crc.getValue());
+            segment.putInt(start, length);
+            dirty = true;
+            appendedCount++;
+        } catch (IOException e) {
+            throw new AuditJournalException("Cannot roll audit journal segment", e);
+        }
+    }
+
+    /**
+     * apply the fsync policy to what was appended so far
+     */
+    public synchronized void commit() {
+        if (!dirty || closed) {
+            return;
+        }
+        switch (fsyncPolicy) {
+            case EVERY_COMMIT:
+                sync();
+                break;
+            case INTERVAL:
+                if (System.currentTimeMillis() - lastSyncMs >= fsyncIntervalMs) {
+                    sync();
+                }
+                break;
+            case NONE:
+                break;
+        }
+    }
+
+    /**
+     * force appended records to disk
+     */
+    public synchronized void sync() {
+        if (closed) {
+            return;
+        }
+        segment.force();
+        dirty = false;
+        lastSyncMs = System.currentTimeMillis();
+    }
+
+    /**
+     * read back every retained event in append order
+     */
+    public synchronized void replay(Consumer<AuditEvent> consumer) {
+        try {
+            for (Path path : segments()) {
+                ByteBuffer records = path.equals(segmentPath) ? segment.duplicate().position(0) : map(path);
+                if (!readSegment(records, new AuditEventCodec(), consumer)) {
+                    log.warn("Audit journal segment {} is corrupt after byte {}, skipping the rest of it",
+                            path, records.position());
+                }
+            }
+        } catch (IOException e) {
+            throw new AuditJournalException("Cannot replay audit journal in " + directory, e);
+        }
+    }
+
+    /**
+     * decode records from the buffer's position up to the end of the log, leaving the
+     * position there; returns false if the log ends at a corrupt record rather than
+     * at the end marker
+     */
+    private static boolean readSegment(ByteBuffer records, AuditEventCodec decoder, Consumer<AuditEvent> consumer) {
+        CRC32 crc = new CRC32();
+        while (records.remaining() >= LENGTH_BYTES) {
+            int start = records.position();
+            int length = records.getInt();
+            if (length == 0) {
+                records.position(start);
+                return true;
+            }
+            if (length < 0 || records.remaining() < Integer.BYTES || length > records.remaining() - Integer.BYTES) {
+                records.position(start);
+                return false;
+            }
+            int checksum = records.getInt();
+            ByteBuffer payload = records.slice(records.position(), length);
+            crc.reset();
+            crc.update(payload);
+            if ((int) crc.getValue() != checksum) {
+                records.position(start);
+                return false;
+            }
+            AuditEvent event;
+            try {
+                event = decoder.decode(payload.position(0));
+            } catch (RuntimeException e) {
+                records.position(start);
+                return false;
+            }
+            records.position(records.position() + length);
+            if (consumer != null) {
+                consumer.accept(event);
+            }
+        }
+        return true;
+    }
+
+    // events appended since the journal was opened
+    public synchronized long getAppendedCount() {
+        return appendedCount;
+    }
+
+    public synchronized int getSegmentCount() {
+        try {
+            return segments().size();
+        } catch (IOException e) {
+            throw new AuditJournalException("Cannot list audit journal segments", e);
+        }
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        if (fsyncPolicy != FsyncPolicy.NONE) {
+            sync();
+        }
+        closed = true;
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new AuditJournalException("Cannot close audit journal", e);
+        }
+    }
+
+    private ByteBuffer encode(AuditEvent event) {
+        ByteBuffer buffer = scratch.clear();
+        try {
+            codec.encode(event, buffer);
+        } catch (BufferOverflowException e) {
+            // rare oversized event (long descriptions or metadata)
+            buffer = ByteBuffer.allocate(segmentSize - HEADER_BYTES - LENGTH_BYTES);
+            try {
+                codec.encode(event, buffer);
+            } catch (BufferOverflowException tooLarge) {
+                throw new IllegalArgumentException("Audit event larger than a journal segment: "
+                        + event.getEventId());
+            }
+        }
+        return buffer.flip();
+    }
+
+    /**
+     * close the current segment and start the next one
+     */
+    private void roll() throws IOException {
+        if (channel != null) {
+            if (fsyncPolicy != FsyncPolicy.NONE) {
+                segment.force();
+            }
+            channel.close();
+        }
+        Path path = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX,
+                lastSegmentNumber() + 1, SEGMENT_SUFFIX));
+        open(path, 0);
+        codec.reset();
+        dirty = false;
+        enforceRetention();
+    }
+
+    /**
+     * continue the last segment after its final valid record, rebuilding its handle
+     * dictionary; a corrupt tail is zeroed so it cannot be mistaken for records later
+     */
+    private void reopen(Path path) throws IOException {
+        open(path, 0);
+        codec.reset();
+        if (readSegment(segment, codec, null)) {
+            return;
+        }
+        int end = segment.position();
+        log.warn("Audit journal segment {} is corrupt after byte {}, truncating it there", path, end);
+        // a record that failed to decode may have left handles in the dictionary
+        codec.reset();
+        readSegment(segment.duplicate().position(0).limit(end), codec, null);
+        byte[] zeros = new byte[ZERO_CHUNK];
+        while (segment.hasRemaining()) {
+            segment.put(zeros, 0, Math.min(zeros.length, segment.remaining()));
+        }
+        segment.force();
+        segment.position(end);
+    }
+
+    private void open(Path path, int position) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        segment.position(position);
+        segmentPath = path;
+    }
+
+    private static ByteBuffer map(Path path) throws IOException {
+        try (FileChannel readChannel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return readChannel.map(FileChannel.MapMode.READ_ONLY, 0, readChannel.size());
+        }
+    }
+
+    private void enforceRetention() throws IOException {
+        List<Path> segments = segments();
+        for (int i = 0; i < segments.size() - retainedSegments; i++) {
+            Files.deleteIfExists(segments.get(i));
+            log.debug("Audit journal segment deleted: {}", segments.get(i));
+        }
+    }
+
+    private long lastSegmentNumber() throws IOException {
+        List<Path> segments = segments();
+        if (segments.isEmpty()) {
+            return -1;
+        }
+        String name = segments.get(segments.size() - 1).getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    /**
+     * segment files, oldest first (numbers are zero padded so names sort in creation order)
+     */
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> segments = new ArrayList<>();
+            files.filter(path -> {
+                String name = path.getFileName().toString();
+                return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+            }).sorted().forEach(segments::add);
+            return segments;
+        }
+    }
+
+    /**
+     * Builder for the audit journal
+     */
+    public static class Builder {
+        private final Path directory;
+        private int segmentSize = 64 * 1024 * 1024;
+        private FsyncPolicy fsyncPolicy = FsyncPolicy.INTERVAL;
+        private long fsyncIntervalMs = 1000;
+        private int retainedSegments = 16;
+
+        public Builder(Path directory) {
+            this.directory = Objects.requireNonNull(directory, "directory");
+        }
+
+        public Builder segmentSize(int segmentSize) {
+            if (segmentSize < 1024) {
+                throw new IllegalArgumentException("Segment size must be at least 1024 bytes: " + segmentSize);
+            }
+            this.segmentSize = segmentSize;
+            return this;
+        }
+
+        public Builder fsyncPolicy(FsyncPolicy fsyncPolicy) {
+            this.fsyncPolicy = Objects.requireNonNull(fsyncPolicy, "fsyncPolicy");
+            return this;
+        }
+
+        public Builder fsyncIntervalMs(long fsyncIntervalMs) {
+            if (fsyncIntervalMs < 0) {
+                throw new IllegalArgumentException("Fsync interval must not be negative: " + fsyncIntervalMs);
+            }
+            this.fsyncIntervalMs = fsyncIntervalMs;
+            return this;
+        }
+
+        public Builder retainedSegments(int retainedSegments) {
+            if (retainedSegments <= 0) {
+                throw new IllegalArgumentException("Retained segments must be positive: " + retainedSegments);
+            }
+            this.retainedSegments = retainedSegments;
+            return this;
+        }
+
+        public AuditJournal build() {
+            return new AuditJournal(this);
+        }
+    }
+}
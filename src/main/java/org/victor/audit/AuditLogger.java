@@ -2,30 +2,242 @@ package org.victor.audit;
 
 import lombok.extern.slf4j.Slf4j;
 import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * Centralized audit logger for the elevator system
+ * Centralized audit logger for the elevator system.
+ *
+ * By default events are stored and logged on the caller's thread.
+ * In async mode (see {@link Builder#async}) callers only enqueue the event and a writer
+ * thread drains the queue in batches, so elevator operations never wait on audit work;
+ * the {@link OverflowPolicy} decides what happens when the queue is full.
+ *
+ * Listeners never run on the recording thread: each {@link AuditSubscription} has its
+ * own bounded queue and delivery thread. Subscriptions with a drop policy (DROP_OLDEST by
+ * default) cannot stall the others or the elevators; an opt-in BLOCK subscription waits
+ * for a full queue and so back-pressures whoever records, the elevator thread included.
+ *
+ * With a {@link AuditJournal} (which implies async mode) every recorded event is also
+ * appended to the journal by the writer thread, and the journal is replayed at
+ * construction to rebuild the in-memory store.
  */
 @Slf4j
 public class AuditLogger {
 
-    private final List<AuditEvent> events = new CopyOnWriteArrayList<>();
-    private final List<AuditListener> listeners = new CopyOnWriteArrayList<>();
-    private static final int MAX_EVENTS = 10000; // Límit
+    public static final int DEFAULT_CAPACITY = 10000; // Límit
+
+    private static final long WRITER_POLL_MS = 100;
+
+    private final AuditIds ids = new AuditIds();
+    private final AuditRingBuffer events;
+    private final AuditIndex index;
+    private final TimeIndex timeIndex;
+    private final AuditJournal journal;
+    private final List<AuditSubscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    // events below this level are dropped before anything is allocated for them
+    private volatile AuditEvent.AuditLevel minimumLevel;
+
+    // async pipeline, null queue in synchronous mode
+    private final BlockingQueue<AuditEvent> queue;
+    private final OverflowPolicy overflowPolicy;
+    private final int batchSize;
+    private final int sampleRate;
+    private final Thread writer;
+    private volatile boolean running;
+    private final Object flushMonitor = new Object();
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong overflows = new AtomicLong();
+
+    public AuditLogger() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    // keeps the latest {@code capacity} events, older ones are overwritten
+    public AuditLogger(int capacity) {
+        this(new Builder().capacity(capacity));
+    }
+
+    private AuditLogger(Builder builder) {
+        this.events = new AuditRingBuffer(builder.capacity, ids);
+        this.index = new AuditIndex(ids, builder.capacity);
+        this.timeIndex = new TimeIndex(builder.capacity);
+        this.journal = builder.journal;
+        if (journal != null) {
+            journal.replay(this::restore);
+            log.info("AuditLogger restored {} events from {}", events.size(), journal.getDirectory());
+        }
+        this.minimumLevel = builder.minimumLevel;
+        this.overflowPolicy = builder.overflowPolicy;
+        this.batchSize = builder.batchSize;
+        this.sampleRate = builder.sampleRate;
+        if (builder.async) {
+            this.queue = new ArrayBlockingQueue<>(builder.queueCapacity);
+            this.running = true;
+            this.writer = builder.threadFactory.newThread(this::runWriter);
+            this.writer.start();
+            log.info("AuditLogger started in async mode, queue capacity {}, policy {}",
+                    builder.queueCapacity, overflowPolicy);
+        } else {
+            this.queue = null;
+            this.writer = null;
+        }
+    }
+
+    public AuditEvent.AuditLevel getMinimumLevel() {
+        return minimumLevel;
+    }
+
+    public void setMinimumLevel(AuditEvent.AuditLevel minimumLevel) {
+        this.minimumLevel = Objects.requireNonNull(minimumLevel, "minimumLevel");
+    }
+
+    /**
+     * whether events of this level are recorded, checked by callers before building an event
+     */
+    public boolean isRecording(AuditEvent.AuditLevel level) {
+        return level.compareTo(minimumLevel) >= 0;
+    }
 
     public void logEvent(AuditEvent event) {
-        events.add(event);
+        if (!isRecording(event.getLevel())) {
+            return;
+        }
+
+        if (running) {
+            publish(event);
+        } else {
+            record(event);
+            commitJournal();
+        }
+    }
 
-        if (events.size() > MAX_EVENTS) {
-            events.remove(0);
+    /**
+     * Record a structured info event for an elevator without building it when nothing
+     * needs the event object: in synchronous mode with no journal and no subscriptions
+     * the fields go straight into a ring slot. Otherwise (async hand-off, journaling,
+     * listeners) an event is built and logged as usual.
+     */
+    public void logEvent(AuditEvent.EventType type, String elevatorId, String pattern, long arg0, long arg1) {
+        if (!isRecording(AuditEvent.AuditLevel.INFO)) {
+            return;
+        }
+        if (running || journal != null || !subscriptions.isEmpty()) {
+            logEvent(new AuditEvent.Builder(type)
+                    .elevatorId(elevatorId)
+                    .description(pattern, arg0, arg1)
+                    .build());
+            return;
+        }
+
+        long timestamp = System.currentTimeMillis();
+        int elevator = ids.handle(elevatorId);
+        long sequence = events.append(AuditEvent.nextSequence(), timestamp, type, elevator, pattern, arg0, arg1);
+        index.add(type, AuditEvent.AuditLevel.INFO, AuditIds.NONE, elevator, sequence, events.firstSequence());
+        timeIndex.add(sequence, timestamp);
+        if (log.isInfoEnabled()) {
+            log.info("AUDIT [{}] - User: {}, Elevator: {}, Description: {}",
+                    type, null, elevatorId, AuditEvent.render(pattern, arg0, arg1));
+        }
+    }
+
+    /**
+     * hand the event to the writer thread, applying the overflow policy when the queue is full
+     */
+    private void publish(AuditEvent event) {
+        if (queue.offer(event)) {
+            enqueued();
+            return;
+        }
+
+        if (event.getLevel() == AuditEvent.AuditLevel.INFO) {
+            long overflow = overflows.incrementAndGet();
+            if (overflowPolicy == OverflowPolicy.DROP_INFO
+                    || (overflowPolicy == OverflowPolicy.SAMPLE && overflow % sampleRate != 0)) {
+                dropped.incrementAndGet();
+                return;
+            }
+        }
+
+        try {
+            queue.put(event);
+            enqueued();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            dropped.incrementAndGet();
+        }
+    }
+
+    private void enqueued() {
+        published.incrementAndGet();
+        if (!running) {
+            // raced with stop(), which may already have drained the queue
+            drainLeftovers();
+        }
+    }
+
+    private void runWriter() {
+        List<AuditEvent> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                AuditEvent first = queue.poll(WRITER_POLL_MS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                writeBatch(batch);
+            } catch (InterruptedException e) {
+                break;
+            }
+        }
+        // whatever was queued while the last batch was written
+        drainLeftovers();
+    }
+
+    private void writeBatch(List<AuditEvent> batch) {
+        try {
+            for (AuditEvent event : batch) {
+                record(event);
+            }
+            commitJournal();
+        } finally {
+            written.addAndGet(batch.size());
+            batch.clear();
+            synchronized (flushMonitor) {
+                flushMonitor.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * store, log and notify listeners
+     */
+    private void record(AuditEvent event) {
+        store(event);
+        if (journal != null) {
+            try {
+                journal.append(event);
+            } catch (RuntimeException e) {
+                log.error("Cannot journal audit event {}", event.getEventId(), e);
+            }
         }
 
         switch (event.getLevel()) {
             case INFO:
-                log.info("AUDIT [{}] - User: {}, Elevator: {}, Description: {}",
-                        event.getEventType(), event.getUserId(), event.getElevatorId(),
-                        event.getDescription());
+                // guarded so the description is not rendered unless it is printed
+                if (log.isInfoEnabled()) {
+                    log.info("AUDIT [{}] - User: {}, Elevator: {}, Description: {}",
+                            event.getEventType(), event.getUserId(), event.getElevatorId(),
+                            event.getDescription());
+                }
                 break;
             case WARNING:
                 log.warn("AUDIT [{}] - User: {}, Elevator: {}, Description: {}",
@@ -56,57 +268,246 @@ public class AuditLogger {
     }
 
     public List<AuditEvent> getEventsByType(AuditEvent.EventType type) {
-        return new ArrayList<>(events.stream()
-                .filter(e -> e.getEventType() == type)
-                .toList());
+        return query().type(type).list();
     }
 
     public List<AuditEvent> getEventsByUser(String userId) {
-        return new ArrayList<>(events.stream()
-                .filter(e -> userId.equals(e.getUserId()))
-                .toList());
+        return query().user(userId).list();
     }
 
     public List<AuditEvent> getEventsByElevator(String elevatorId) {
-        return new ArrayList<>(events.stream()
-                .filter(e -> elevatorId.equals(e.getElevatorId()))
-                .toList());
+        return query().elevator(elevatorId).list();
     }
 
     public List<AuditEvent> getCriticalEvents() {
-        return new ArrayList<>(events.stream()
-                .filter(e -> e.getLevel() == AuditEvent.AuditLevel.CRITICAL)
-                .toList());
+        return query().level(AuditEvent.AuditLevel.CRITICAL).list();
+    }
+
+    /**
+     * events stamped between the two timestamps (inclusive), oldest first
+     */
+    public List<AuditEvent> getEventsBetween(long fromMs, long toMs) {
+        return query().between(fromMs, toMs).list();
+    }
+
+    /**
+     * combined query over the indexes, e.g. {@code query().level(CRITICAL).elevator(id).list()}
+     */
+    public Query query() {
+        return new Query();
+    }
+
+    /**
+     * walks the smallest index matching the query, so the cost follows the result
+     * size rather than the number of stored events
+     */
+    private List<AuditEvent> select(Query query) {
+        if (query.timed) {
+            List<AuditEvent> result = new ArrayList<>();
+            query.cursor().forEachRemaining(result::add);
+            return result;
+        }
+
+        long first = events.firstSequence();
+        SequenceList candidates = null;
+        if (query.type != null) {
+            candidates = smaller(candidates, index.type(query.type));
+        }
+        if (query.level != null) {
+            candidates = smaller(candidates, index.level(query.level));
+        }
+        if (query.userId != null) {
+            SequenceList byUser = index.user(query.userId);
+            if (byUser == null) {
+                return new ArrayList<>();
+            }
+            candidates = smaller(candidates, byUser);
+        }
+        if (query.elevatorId != null) {
+            SequenceList byElevator = index.elevator(query.elevatorId);
+            if (byElevator == null) {
+                return new ArrayList<>();
+            }
+            candidates = smaller(candidates, byElevator);
+        }
+        if (candidates == null) {
+            return events.snapshot();
+        }
+
+        long[] sequences = candidates.from(first);
+        List<AuditEvent> result = new ArrayList<>(sequences.length);
+        for (long sequence : sequences) {
+            AuditEvent event = events.get(sequence);
+            if (event != null && query.matches(event)) {
+                result.add(event);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * store a replayed event without logging, notifying or journaling it again
+     */
+    private void restore(AuditEvent event) {
+        store(event);
+        AuditEvent.advanceSequence(event.getSequence());
+    }
+
+    // ring, indexes and time index
+    private void store(AuditEvent event) {
+        int user = ids.handle(event.getUserId());
+        int elevator = ids.handle(event.getElevatorId());
+        long sequence = events.append(event, user, elevator);
+        index.add(event.getEventType(), event.getLevel(), user, elevator, sequence, events.firstSequence());
+        timeIndex.add(sequence, event.getTimestamp());
+    }
+
+    private void commitJournal() {
+        if (journal != null) {
+            try {
+                journal.commit();
+            } catch (RuntimeException e) {
+                log.error("Cannot commit audit journal", e);
+            }
+        }
+    }
+
+    private static SequenceList smaller(SequenceList current, SequenceList candidate) {
+        return current == null || candidate.size() < current.size() ? candidate : current;
     }
 
     public List<AuditEvent> getAllEvents() {
-        return new ArrayList<>(events);
+        return events.snapshot();
     }
 
     public int getEventCount() {
         return events.size();
     }
 
-    public void subscribe(AuditListener listener) {
-        listeners.add(listener);
+    public int getCapacity() {
+        return events.capacity();
+    }
+
+    // events stored since construction, including those restored from the journal
+    public long getRecordedCount() {
+        return events.nextSequence();
     }
 
+    /**
+     * deliver every event to the listener with the default subscription settings
+     */
+    public AuditSubscription subscribe(AuditListener listener) {
+        return subscribe(new AuditSubscription.Builder(listener));
+    }
+
+    public AuditSubscription subscribe(AuditSubscription.Builder builder) {
+        AuditSubscription subscription = builder.start();
+        subscriptions.add(subscription);
+        return subscription;
+    }
+
+    // closes every subscription of the listener
     public void unsubscribe(AuditListener listener) {
-        listeners.remove(listener);
+        for (AuditSubscription subscription : subscriptions) {
+            if (subscription.getListener() == listener) {
+                unsubscribe(subscription);
+            }
+        }
+    }
+
+    public void unsubscribe(AuditSubscription subscription) {
+        subscriptions.remove(subscription);
+        subscription.close();
+    }
+
+    public List<AuditSubscription> getSubscriptions() {
+        return List.copyOf(subscriptions);
     }
 
     private void notifyListeners(AuditEvent event) {
-        for (AuditListener listener : listeners) {
-            try {
-                listener.onAuditEvent(event);
-            } catch (Exception e) {
-                log.error("Error notifying audit listener", e);
+        for (AuditSubscription subscription : subscriptions) {
+            subscription.offer(event);
+        }
+    }
+
+    /**
+     * wait until every event logged before this call has been written and handed to
+     * the listeners
+     */
+    public void flush() throws InterruptedException {
+        long target = published.get();
+        synchronized (flushMonitor) {
+            while (written.get() < target && running) {
+                flushMonitor.wait(WRITER_POLL_MS);
+            }
+        }
+        for (AuditSubscription subscription : subscriptions) {
+            subscription.flush();
+        }
+    }
+
+    /**
+     * Stop the writer thread after it drains the queue for up to the given time, then
+     * close the subscriptions once they delivered what they hold (within the same time).
+     * The writer is not interrupted, since it may be inside journal I/O: it sees the flag
+     * within one poll, writes what is still queued and exits. Later events are recorded
+     * synchronously, and producers that enqueue while stopping write their own leftovers.
+     */
+    public void stop(long timeoutMs) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        if (writer != null && running) {
+            stopWriter(deadline, timeoutMs);
+        }
+        for (AuditSubscription subscription : subscriptions) {
+            subscription.flush(Math.max(0, deadline - System.currentTimeMillis()));
+            unsubscribe(subscription);
+        }
+    }
+
+    private void stopWriter(long deadline, long timeoutMs) throws InterruptedException {
+        synchronized (flushMonitor) {
+            long target = published.get();
+            while (written.get() < target && System.currentTimeMillis() < deadline) {
+                flushMonitor.wait(Math.max(1, deadline - System.currentTimeMillis()));
             }
         }
+        running = false;
+        writer.join(Math.max(deadline - System.currentTimeMillis(), 0) + 2 * WRITER_POLL_MS);
+        if (writer.isAlive()) {
+            log.warn("AuditLogger writer still busy after {} ms, it writes the remaining events on exit",
+                    timeoutMs);
+            return;
+        }
+
+        drainLeftovers();
+        log.info("AuditLogger writer stopped");
+    }
+
+    private void drainLeftovers() {
+        List<AuditEvent> leftovers = new ArrayList<>();
+        queue.drainTo(leftovers);
+        if (!leftovers.isEmpty()) {
+            writeBatch(leftovers);
+        }
+    }
+
+    public boolean isAsync() {
+        return queue != null;
+    }
+
+    // events waiting for the writer thread
+    public int getQueueDepth() {
+        return queue == null ? 0 : queue.size();
+    }
+
+    // events discarded by the overflow policy
+    public long getDroppedCount() {
+        return dropped.get();
     }
 
     public void clearEvents() {
         events.clear();
+        index.sweep(events.firstSequence());
         log.info("Audit log cleared");
     }
 
@@ -114,4 +515,174 @@ public class AuditLogger {
     public interface AuditListener {
         void onAuditEvent(AuditEvent event);
     }
+
+    /**
+     * Audit query; unset criteria match everything. Queries with a time range scan the
+     * range through the time index, the others walk the smallest matching index.
+     */
+    public class Query {
+        private AuditEvent.EventType type;
+        private AuditEvent.AuditLevel level;
+        private String userId;
+        private String elevatorId;
+        private boolean timed;
+        private long fromMs;
+        private long toMs;
+
+        private Query() {
+        }
+
+        public Query type(AuditEvent.EventType type) {
+            this.type = type;
+            return this;
+        }
+
+        public Query level(AuditEvent.AuditLevel level) {
+            this.level = level;
+            return this;
+        }
+
+        public Query user(String userId) {
+            this.userId = userId;
+            return this;
+        }
+
+        public Query elevator(String elevatorId) {
+            this.elevatorId = elevatorId;
+            return this;
+        }
+
+        // events stamped between the two timestamps, inclusive
+        public Query between(long fromMs, long toMs) {
+            if (fromMs > toMs) {
+                throw new IllegalArgumentException("Invalid time range: " + fromMs + " > " + toMs);
+            }
+            this.timed = true;
+            this.fromMs = fromMs;
+            this.toMs = toMs;
+            return this;
+        }
+
+        private boolean matches(AuditEvent event) {
+            return (type == null || event.getEventType() == type)
+                    && (level == null || event.getLevel() == level)
+                    && (userId == null || userId.equals(event.getUserId()))
+                    && (elevatorId == null || elevatorId.equals(event.getElevatorId()));
+        }
+
+        /**
+         * matching events, oldest first
+         */
+        public List<AuditEvent> list() {
+            return select(this);
+        }
+
+        /**
+         * matching events walked lazily, oldest first; without a time range it covers all stored events
+         */
+        public AuditCursor cursor() {
+            long from = timed ? fromMs : Long.MIN_VALUE;
+            long to = timed ? toMs : Long.MAX_VALUE;
+            return new AuditCursor(events, timeIndex, from, to, this::matches);
+        }
+    }
+
+    /**
+     * what a producer does when the async queue is full
+     */
+    public enum OverflowPolicy {
+        // wait for room
+        BLOCK,
+        // discard INFO events, wait for room for the rest
+        DROP_INFO,
+        // keep one INFO event out of every sample rate, wait for room for the rest
+        SAMPLE
+    }
+
+    /**
+     * Builder for the audit logger. On Java 21+ pass {@code Thread.ofVirtual().factory()}
+     * as thread factory to run the writer on a virtual thread.
+     */
+    public static class Builder {
+        private int capacity = DEFAULT_CAPACITY;
+        private AuditEvent.AuditLevel minimumLevel = AuditEvent.AuditLevel.INFO;
+        private boolean async;
+        private int queueCapacity = 8192;
+        private int batchSize = 256;
+        private OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+        private int sampleRate = 10;
+        private AuditJournal journal;
+        private ThreadFactory threadFactory = r -> {
+            Thread thread = new Thread(r, "audit-writer");
+            thread.setDaemon(true);
+            return thread;
+        };
+
+        public Builder capacity(int capacity) {
+            if (capacity <= 0) {
+                throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+            }
+            this.capacity = capacity;
+            return this;
+        }
+
+        public Builder minimumLevel(AuditEvent.AuditLevel minimumLevel) {
+            this.minimumLevel = Objects.requireNonNull(minimumLevel, "minimumLevel");
+            return this;
+        }
+
+        public Builder async(boolean async) {
+            this.async = async;
+            return this;
+        }
+
+        public Builder queueCapacity(int queueCapacity) {
+            if (queueCapacity <= 0) {
+                throw new IllegalArgumentException("Queue capacity must be positive: " + queueCapacity);
+            }
+            this.queueCapacity = queueCapacity;
+            return this;
+        }
+
+        public Builder batchSize(int batchSize) {
+            if (batchSize <= 0) {
+                throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+            }
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        public Builder overflowPolicy(OverflowPolicy overflowPolicy) {
+            this.overflowPolicy = Objects.requireNonNull(overflowPolicy, "overflowPolicy");
+            return this;
+        }
+
+        public Builder sampleRate(int sampleRate) {
+            if (sampleRate <= 0) {
+                throw new IllegalArgumentException("Sample rate must be positive: " + sampleRate);
+            }
+            this.sampleRate = sampleRate;
+            return this;
+        }
+
+        public Builder threadFactory(ThreadFactory threadFactory) {
+            this.threadFactory = Objects.requireNonNull(threadFactory, "threadFactory");
+            return this;
+        }
+
+        // persist events to the journal and restore the store from it; implies async mode
+        // so journal writes and fsyncs never run on the elevator threads
+        public Builder journal(AuditJournal journal) {
+            this.journal = Objects.requireNonNull(journal, "journal");
+            this.async = true;
+            return this;
+        }
+
+        public AuditLogger build() {
+            if (journal != null && !async) {
+                throw new IllegalArgumentException("A journaled audit logger must be async");
+            }
+            return new AuditLogger(this);
+        }
+    }
 }
@@ -0,0 +1,232 @@
+package org.victor.audit;
+
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Predicate;
+
+/**
+ * Fixed-capacity multi-producer ring of audit events. Appends claim a sequence number
+ * and write one slot, so they are O(1) whatever the fill level; once full the oldest
+ * event is overwritten.
+ *
+ * Slots are columns of primitives rather than event objects: sequence, timestamp,
+ * type and level, user and elevator handles from {@link AuditIds}, the description
+ * text or pattern and its two arguments. An event is built from its slot when read.
+ * Only events carrying an explicit id or metadata are kept whole, since those fields
+ * have no column.
+ *
+ * Each slot records the ring sequence it holds. A writer claims the slot by CAS before
+ * writing the columns and publishes the sequence afterwards; a writer that was lapped
+ * (the slot already holds a newer sequence) drops its event, which would have been
+ * evicted anyway. Readers copy the columns between two reads of the slot sequence and
+ * only accept the copy if both are the expected sequence, so snapshots are in append
+ * order without torn or duplicated entries; events still being written when the
+ * snapshot is taken are left out.
+ */
+final class AuditRingBuffer {
+
+    private static final long WRITING = -1;
+    private static final long EMPTY = -2;
+
+    private static final int LEVEL_SHIFT = 8;
+    private static final int BYTE_MASK = 0xFF;
+    private static final int PATTERN = 1 << 16;
+
+    private static final AuditEvent.EventType[] TYPES = AuditEvent.EventType.values();
+    private static final AuditEvent.AuditLevel[] LEVELS = AuditEvent.AuditLevel.values();
+
+    private final int capacity;
+    private final AuditIds ids;
+    private final AtomicLongArray sequences;
+    private final AtomicLong head = new AtomicLong();
+    // sequences below this were cleared
+    private volatile long floor;
+
+    // slot columns, written between claim and publish
+    private final long[] eventSequences;
+    private final long[] timestamps;
+    private final int[] kinds;
+    private final int[] users;
+    private final int[] elevators;
+    private final String[] texts;
+    private final long[] args0;
+    private final long[] args1;
+    private final AuditEvent[] whole;
+
+    AuditRingBuffer(int capacity, AuditIds ids) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.ids = ids;
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, EMPTY);
+        }
+        this.eventSequences = new long[capacity];
+        this.timestamps = new long[capacity];
+        this.kinds = new int[capacity];
+        this.users = new int[capacity];
+        this.elevators = new int[capacity];
+        this.texts = new String[capacity];
+        this.args0 = new long[capacity];
+        this.args1 = new long[capacity];
+        this.whole = new AuditEvent[capacity];
+    }
+
+    /**
+     * append an event whose user and elevator handles were already resolved,
+     * overwriting the oldest one when full; returns its ring sequence
+     */
+    long append(AuditEvent event, int user, int elevator) {
+        String pattern = event.descriptionPattern();
+        boolean keepWhole = event.hasExplicitId() || !event.getMetadata().isEmpty();
+        return append(event.getSequence(), event.getTimestamp(), event.getEventType(), event.getLevel(),
+                user, elevator, pattern != null ? pattern : event.getDescription(), pattern != null,
+                event.descriptionArg0(), event.descriptionArg1(), keepWhole ? event : null);
+    }
+
+    /**
+     * append a structured info event of an elevator from its fields, nothing is allocated
+     */
+    long append(long eventSequence, long timestamp, AuditEvent.EventType type, int elevator,
+            String pattern, long arg0, long arg1) {
+        return append(eventSequence, timestamp, type, AuditEvent.AuditLevel.INFO, AuditIds.NONE, elevator,
+                pattern, true, arg0, arg1, null);
+    }
+
+    private long append(long eventSequence, long timestamp, AuditEvent.EventType type,
+            AuditEvent.AuditLevel level, int user, int elevator, String text, boolean pattern,
+            long arg0, long arg1, AuditEvent event) {
+        long sequence = head.getAndIncrement();
+        int slot = (int) (sequence % capacity);
+        while (true) {
+            long current = sequences.get(slot);
+            if (current == WRITING) {
+                // another writer is between claim and publish
+                Thread.onSpinWait();
+                continue;
+            }
+            if (current > sequence) {
+                return sequence;
+            }
+            if (sequences.compareAndSet(slot, current, WRITING)) {
+                break;
+            }
+        }
+        eventSequences[slot] = eventSequence;
+        timestamps[slot] = timestamp;
+        kinds[slot] = type.ordinal() | level.ordinal() << LEVEL_SHIFT | (pattern ? PATTERN : 0);
+        users[slot] = user;
+        elevators[slot] = elevator;
+        texts[slot] = text;
+        args0[slot] = arg0;
+        args1[slot] = arg1;
+        whole[slot] = event;
+        sequences.set(slot, sequence);
+        return sequence;
+    }
+
+    /**
+     * event stored under a sequence, or null if it was overwritten, cleared or is still being written
+     */
+    AuditEvent get(long sequence) {
+        if (sequence < floor) {
+            return null;
+        }
+        int slot = (int) (sequence % capacity);
+        if (sequences.get(slot) != sequence) {
+            return null;
+        }
+        long eventSequence = eventSequences[slot];
+        long timestamp = timestamps[slot];
+        int kind = kinds[slot];
+        int user = users[slot];
+        int elevator = elevators[slot];
+        String text = texts[slot];
+        long arg0 = args0[slot];
+        long arg1 = args1[slot];
+        AuditEvent event = whole[slot];
+        // the column reads above must not move past the re-check
+        VarHandle.acquireFence();
+        if (sequences.get(slot) != sequence) {
+            return null;
+        }
+        if (event != null) {
+            return event;
+        }
+
+        AuditEvent.Builder builder = new AuditEvent.Builder(TYPES[kind & BYTE_MASK])
+                .sequence(eventSequence)
+                .timestamp(timestamp)
+                .level(LEVELS[(kind >>> LEVEL_SHIFT) & BYTE_MASK])
+                .userId(ids.id(user))
+                .elevatorId(ids.id(elevator));
+        if ((kind & PATTERN) != 0) {
+            builder.description(text, arg0, arg1);
+        } else {
+            builder.description(text);
+        }
+        return builder.build();
+    }
+
+    /**
+     * events currently held, oldest first
+     */
+    List<AuditEvent> snapshot() {
+        return snapshot(null);
+    }
+
+    /**
+     * events currently held that match the filter, oldest first
+     */
+    List<AuditEvent> snapshot(Predicate<AuditEvent> filter) {
+        long end = head.get();
+        long start = firstSequence(end);
+        List<AuditEvent> result = new ArrayList<>(filter == null ? (int) (end - start) : 16);
+        for (long sequence = start; sequence < end; sequence++) {
+            AuditEvent event = get(sequence);
+            if (event != null && (filter == null || filter.test(event))) {
+                result.add(event);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * oldest sequence still retained
+     */
+    long firstSequence() {
+        return firstSequence(head.get());
+    }
+
+    private long firstSequence(long end) {
+        return Math.max(floor, end - capacity);
+    }
+
+    /**
+     * sequence the next append will get
+     */
+    long nextSequence() {
+        return head.get();
+    }
+
+    int size() {
+        long end = head.get();
+        return (int) (end - firstSequence(end));
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    /**
+     * forget everything appended so far; the slots are reused by later appends
+     */
+    void clear() {
+        floor = head.get();
+    }
+}
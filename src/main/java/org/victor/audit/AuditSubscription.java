@@ -0,0 +1,282 @@
+package org.victor.audit;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.EnumSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A listener's subscription to the audit log. Events are handed over through the
+ * subscription's own bounded queue and delivered on its own thread; when the queue is
+ * full the {@link SlowConsumerPolicy} applies. The default, DROP_OLDEST, keeps a slow
+ * listener from delaying anything else at the cost of its own oldest events; drops are
+ * counted and the first one is logged as a warning. BLOCK never loses events but is
+ * opt-in: it makes the recording thread wait, and with a synchronous logger that is the
+ * elevator thread, holding the car's lock.
+ * Created with {@link AuditLogger#subscribe(Builder)}.
+ */
+@Slf4j
+public class AuditSubscription implements AutoCloseable {
+
+    private static final long POLL_MS = 100;
+
+    private final AuditLogger.AuditListener listener;
+    private final Set<AuditEvent.EventType> types;
+    private final BlockingQueue<AuditEvent> queue;
+    private final SlowConsumerPolicy policy;
+    private final Thread deliveryThread;
+    private volatile boolean running = true;
+
+    private final Object flushMonitor = new Object();
+    private final AtomicLong offered = new AtomicLong();
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile long lastLagMs;
+    private final AtomicLong maxLagMs = new AtomicLong();
+
+    /**
+     * what the audit writer does when this subscription's queue is full
+     */
+    public enum SlowConsumerPolicy {
+        // discard the event being offered
+        DROP_NEWEST,
+        // discard the oldest queued event to make room
+        DROP_OLDEST,
+        // wait for room; back-pressures the recording thread, which for a synchronous
+        // logger is the elevator thread moving the car
+        BLOCK
+    }
+
+    private AuditSubscription(Builder builder) {
+        this.listener = builder.listener;
+        this.types = builder.types;
+        this.queue = new ArrayBlockingQueue<>(builder.queueCapacity);
+        this.policy = builder.policy;
+        this.deliveryThread = builder.threadFactory.newThread(this::runDelivery);
+        this.deliveryThread.start();
+    }
+
+    /**
+     * queue an event for the listener if it passes the type filter
+     */
+    void offer(AuditEvent event) {
+        if (!running || (types != null && !types.contains(event.getEventType()))) {
+            return;
+        }
+        offered.incrementAndGet();
+        if (queue.offer(event)) {
+            discardIfClosed();
+            return;
+        }
+        switch (policy) {
+            case DROP_NEWEST:
+                dropped();
+                break;
+            case DROP_OLDEST:
+                while (!queue.offer(event)) {
+                    if (queue.poll() != null) {
+                        dropped();
+                    }
+                }
+                break;
+            case BLOCK:
+                try {
+                    queue.put(event);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    dropped();
+                }
+                break;
+        }
+        discardIfClosed();
+    }
+
+    private void dropped() {
+        if (dropped.incrementAndGet() == 1) {
+            log.warn("Audit listener {} is too slow, dropping events ({})", listener, policy);
+        }
+        signal();
+    }
+
+    // an offer that raced with close() must not leave its event queued
+    private void discardIfClosed() {
+        if (!running) {
+            discard();
+        }
+    }
+
+    private void discard() {
+        while (queue.poll() != null) {
+            dropped.incrementAndGet();
+        }
+        signal();
+    }
+
+    private void runDelivery() {
+        while (running) {
+            AuditEvent event;
+            try {
+                event = queue.poll(POLL_MS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                break;
+            }
+            if (event == null || !running) {
+                if (event != null) {
+                    dropped.incrementAndGet();
+                    signal();
+                }
+                continue;
+            }
+            try {
+                listener.onAuditEvent(event);
+            } catch (Exception e) {
+                log.error("Error notifying audit listener", e);
+            } finally {
+                long lag = Math.max(0, System.currentTimeMillis() - event.getTimestamp());
+                lastLagMs = lag;
+                maxLagMs.accumulateAndGet(lag, Math::max);
+                delivered.incrementAndGet();
+                signal();
+            }
+        }
+    }
+
+    private void signal() {
+        synchronized (flushMonitor) {
+            flushMonitor.notifyAll();
+        }
+    }
+
+    /**
+     * wait until every event offered before this call was delivered or dropped
+     */
+    public void flush() throws InterruptedException {
+        flush(Long.MAX_VALUE);
+    }
+
+    /**
+     * like {@link #flush()} but gives up after the timeout; returns whether it caught up
+     */
+    public boolean flush(long timeoutMs) throws InterruptedException {
+        long target = offered.get();
+        long deadline = timeoutMs == Long.MAX_VALUE ? Long.MAX_VALUE : System.currentTimeMillis() + timeoutMs;
+        synchronized (flushMonitor) {
+            while (running && delivered.get() + dropped.get() < target) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    return false;
+                }
+                flushMonitor.wait(Math.min(remaining, POLL_MS));
+            }
+        }
+        return delivered.get() + dropped.get() >= target;
+    }
+
+    /**
+     * stop delivering; events still queued are dropped. The delivery thread is not
+     * interrupted, it finishes the event it may be delivering and exits within a poll.
+     */
+    @Override
+    public void close() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        discard();
+    }
+
+    public AuditLogger.AuditListener getListener() {
+        return listener;
+    }
+
+    public boolean isActive() {
+        return running;
+    }
+
+    // events waiting for the listener
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    public long getDeliveredCount() {
+        return delivered.get();
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    // time from an event being stamped to its delivery, for the latest event
+    public long getLastLagMs() {
+        return lastLagMs;
+    }
+
+    public long getMaxLagMs() {
+        return maxLagMs.get();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("AuditSubscription{types=%s, policy=%s, queued=%d, delivered=%d, dropped=%d, "
+                        + "lastLagMs=%d}",
+                types == null ? "ALL" : types, policy, getQueueDepth(), getDeliveredCount(), getDroppedCount(),
+                lastLagMs);
+    }
+
+    /**
+     * Builder for a subscription. On Java 21+ pass {@code Thread.ofVirtual().factory()}
+     * as thread factory to deliver on a virtual thread.
+     */
+    public static class Builder {
+        private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+        private final AuditLogger.AuditListener listener;
+        private Set<AuditEvent.EventType> types;
+        private int queueCapacity = 1024;
+        private SlowConsumerPolicy policy = SlowConsumerPolicy.DROP_OLDEST;
+        private ThreadFactory threadFactory = r -> {
+            Thread thread = new Thread(r, "audit-listener-" + THREAD_COUNTER.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+
+        public Builder(AuditLogger.AuditListener listener) {
+            this.listener = Objects.requireNonNull(listener, "listener");
+        }
+
+        // only deliver events of these types
+        public Builder types(AuditEvent.EventType first, AuditEvent.EventType... rest) {
+            this.types = EnumSet.of(first, rest);
+            return this;
+        }
+
+        public Builder queueCapacity(int queueCapacity) {
+            if (queueCapacity <= 0) {
+                throw new IllegalArgumentException("Queue capacity must be positive: " + queueCapacity);
+            }
+            this.queueCapacity = queueCapacity;
+            return this;
+        }
+
+        public Builder policy(SlowConsumerPolicy policy) {
+            this.policy = Objects.requireNonNull(policy, "policy");
+            return this;
+        }
+
+        public Builder threadFactory(ThreadFactory threadFactory) {
+            this.threadFactory = Objects.requireNonNull(threadFactory, "threadFactory");
+            return this;
+        }
+
+        AuditSubscription start() {
+            return new AuditSubscription(this);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package org.victor.audit;
+
+/**
+ * Ascending list of event sequence numbers for one index key, stored as a growable
+ * ring of longs so that evicted sequences can be dropped from the front in O(1).
+ */
+final class SequenceList {
+
+    private long[] ring = new long[8];
+    private int head;
+    private int size;
+
+    /**
+     * add a sequence, keeping the list ascending; producers racing on append can
+     * arrive slightly out of order, so this shifts from the tail when needed
+     */
+    synchronized void add(long sequence) {
+        if (size == ring.length) {
+            grow();
+        }
+        int at = size;
+        while (at > 0 && sequenceAt(at - 1) > sequence) {
+            ring[slot(at)] = sequenceAt(at - 1);
+            at--;
+        }
+        ring[slot(at)] = sequence;
+        size++;
+    }
+
+    /**
+     * drop sequences below {@code min}
+     */
+    synchronized void trimBelow(long min) {
+        while (size > 0 && ring[head] < min) {
+            head = (head + 1) % ring.length;
+            size--;
+        }
+    }
+
+    /**
+     * sequences at or above {@code min}, ascending
+     */
+    synchronized long[] from(long min) {
+        trimBelow(min);
+        long[] copy = new long[size];
+        for (int i = 0; i < size; i++) {
+            copy[i] = sequenceAt(i);
+        }
+        return copy;
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    synchronized boolean isEmpty() {
+        return size == 0;
+    }
+
+    private long sequenceAt(int index) {
+        return ring[slot(index)];
+    }
+
+    private int slot(int index) {
+        return (head + index) % ring.length;
+    }
+
+    private void grow() {
+        long[] larger = new long[ring.length * 2];
+        for (int i = 0; i < size; i++) {
+            larger[i] = sequenceAt(i);
+        }
+        ring = larger;
+        head = 0;
+    }
+}
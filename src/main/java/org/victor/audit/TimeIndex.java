@@ -0,0 +1,107 @@
+package org.victor.audit;
+
+import java.util.Arrays;
+
+/**
+ * Timestamp summary of the audit ring buffer in blocks of {@link #BLOCK_SIZE} sequences:
+ * the lowest and highest timestamp in each block, plus the highest timestamp seen up to
+ * that block, which only grows from block to block and can be binary searched.
+ *
+ * Events are appended in near timestamp order (they are stamped when built, just
+ * before being logged), so a range scan can start at the first block whose running
+ * maximum reaches the start of the range. Timestamps may still go backwards (racing
+ * producers, restored or explicitly stamped events), so the index also tracks the
+ * largest lateness seen, how far an event was stamped before the running maximum at
+ * its append; a scan stops early only when that bound rules out every later event.
+ */
+final class TimeIndex {
+
+    static final int BLOCK_SIZE = 256;
+
+    private final int blocks;
+    private final long[] blockIds;
+    private final long[] minTimestamps;
+    private final long[] maxTimestamps;
+    private final long[] runningMax;
+    private long maxTimestamp = Long.MIN_VALUE;
+    private long maxLateness;
+
+    TimeIndex(int capacity) {
+        // one extra block for the partially overwritten oldest one, one for the current
+        this.blocks = capacity / BLOCK_SIZE + 2;
+        this.blockIds = new long[blocks];
+        this.minTimestamps = new long[blocks];
+        this.maxTimestamps = new long[blocks];
+        this.runningMax = new long[blocks];
+        Arrays.fill(blockIds, -1);
+    }
+
+    synchronized void add(long sequence, long timestamp) {
+        long block = sequence / BLOCK_SIZE;
+        int slot = slot(block);
+        if (blockIds[slot] != block) {
+            blockIds[slot] = block;
+            minTimestamps[slot] = Long.MAX_VALUE;
+            maxTimestamps[slot] = Long.MIN_VALUE;
+            runningMax[slot] = Long.MIN_VALUE;
+        }
+        minTimestamps[slot] = Math.min(minTimestamps[slot], timestamp);
+        maxTimestamps[slot] = Math.max(maxTimestamps[slot], timestamp);
+        maxTimestamp = Math.max(maxTimestamp, timestamp);
+        maxLateness = Math.max(maxLateness, maxTimestamp - timestamp);
+        runningMax[slot] = Math.max(runningMax[slot], maxTimestamp);
+    }
+
+    /**
+     * first sequence in {@code [first, end)} that can hold an event at or after {@code from}
+     */
+    synchronized long seek(long from, long first, long end) {
+        if (end <= first) {
+            return end;
+        }
+        long low = first / BLOCK_SIZE;
+        long high = (end - 1) / BLOCK_SIZE;
+        // first block whose running maximum reaches the start of the range
+        long found = high + 1;
+        while (low <= high) {
+            long mid = (low + high) >>> 1;
+            if (runningMax(mid) >= from) {
+                found = mid;
+                high = mid - 1;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return Math.max(first, Math.min(end, found * BLOCK_SIZE));
+    }
+
+    /**
+     * whether every event from the sequence's block on is stamped after {@code to}: the
+     * block's own events are, and later ones cannot be late enough to fall in range
+     */
+    synchronized boolean rangeEndsBefore(long sequence, long to) {
+        long block = sequence / BLOCK_SIZE;
+        int slot = slot(block);
+        return blockIds[slot] == block && minTimestamps[slot] > to
+                && runningMax[slot] - maxLateness > to;
+    }
+
+    /**
+     * whether the block holding the sequence has no event in {@code [from, to]}
+     */
+    synchronized boolean blockMisses(long sequence, long from, long to) {
+        long block = sequence / BLOCK_SIZE;
+        int slot = slot(block);
+        return blockIds[slot] == block && (maxTimestamps[slot] < from || minTimestamps[slot] > to);
+    }
+
+    // blocks no longer summarised (overwritten) are treated as before any range
+    private long runningMax(long block) {
+        int slot = slot(block);
+        return blockIds[slot] == block ? runningMax[slot] : Long.MIN_VALUE;
+    }
+
+    private int slot(long block) {
+        return (int) (block % blocks);
+    }
+}
@@ -0,0 +1,296 @@
+package org.victor.dispatch;
+
+import lombok.extern.slf4j.Slf4j;
+import org.victor.Elevator;
+import org.victor.exception.DispatchRejectedException;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Destination dispatch mode. Passengers enter their target floor at the origin floor
+ * panel; requests arriving within a short window are batched, passengers travelling
+ * from the same floor in the same direction to the same or nearby floors are grouped
+ * into one car, and each caller is told which car to take. Requests made after
+ * {@link #stop()} fail at once.
+ */
+@Slf4j
+public class DestinationDispatcher {
+
+    private final ElevatorDispatcher dispatcher;
+    private final long windowMs;
+    private final int maxFloorSpread;
+    private final int maxGroupSize;
+
+    private final List<Pending> batch = new ArrayList<>();
+    // guarded by batch, so no request is added after the final flush
+    private boolean stopped;
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong groups = new AtomicLong();
+    private final AtomicLong passengers = new AtomicLong();
+    private ScheduledExecutorService scheduler;
+
+    private DestinationDispatcher(Builder builder) {
+        this.dispatcher = builder.dispatcher;
+        this.windowMs = builder.windowMs;
+        this.maxFloorSpread = builder.maxFloorSpread;
+        this.maxGroupSize = builder.maxGroupSize;
+    }
+
+    /**
+     * start flushing the batch every window
+     */
+    public synchronized void start() {
+        if (scheduler != null) {
+            throw new IllegalStateException("Destination dispatcher already running");
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "destination-dispatch");
+            thread.setDaemon(true);
+            return thread;
+        });
+        synchronized (batch) {
+            stopped = false;
+        }
+        scheduler.scheduleAtFixedRate(this::flushSafely, windowMs, windowMs, TimeUnit.MILLISECONDS);
+        log.info("DestinationDispatcher started with {} ms window", windowMs);
+    }
+
+    /**
+     * stop the window timer and assign whatever is still batched; later requests are rejected
+     */
+    public synchronized void stop() throws InterruptedException {
+        if (scheduler == null) {
+            return;
+        }
+        synchronized (batch) {
+            stopped = true;
+        }
+        scheduler.shutdown();
+        scheduler.awaitTermination(windowMs * 2, TimeUnit.MILLISECONDS);
+        scheduler = null;
+        flush();
+    }
+
+    /**
+     * register a passenger at the origin floor panel; completes with the assigned car once
+     * it has picked the passenger up
+     */
+    public CompletableFuture<Elevator> request(ElevatorRequest request) {
+        if (!request.hasOrigin()) {
+            throw new IllegalArgumentException("Destination dispatch needs the origin floor: "
+                    + request.getRequestId());
+        }
+        Pending pending = new Pending(request);
+        synchronized (batch) {
+            if (!stopped) {
+                batch.add(pending);
+                return pending.future;
+            }
+        }
+        pending.future.completeExceptionally(new DispatchRejectedException("Destination dispatcher stopped"));
+        return pending.future;
+    }
+
+    /**
+     * group and assign every batched request now
+     */
+    public void flush() {
+        List<Pending> current;
+        synchronized (batch) {
+            if (batch.isEmpty()) {
+                return;
+            }
+            current = new ArrayList<>(batch);
+            batch.clear();
+        }
+        batches.incrementAndGet();
+
+        Set<Elevator> assigned = new HashSet<>();
+        for (List<Pending> group : group(current)) {
+            assign(group, assigned);
+        }
+    }
+
+    public int getBatchedCount() {
+        synchronized (batch) {
+            return batch.size();
+        }
+    }
+
+    public long getBatchCount() {
+        return batches.get();
+    }
+
+    public long getGroupCount() {
+        return groups.get();
+    }
+
+    public long getPassengerCount() {
+        return passengers.get();
+    }
+
+    /**
+     * split a batch into groups sharing elevator type, origin floor and direction of
+     * travel whose destinations lie within the allowed floor spread
+     */
+    private List<List<Pending>> group(List<Pending> requests) {
+        Map<String, List<Pending>> byOrigin = new LinkedHashMap<>();
+        for (Pending pending : requests) {
+            ElevatorRequest request = pending.request;
+            int direction = Integer.signum(request.getTargetFloor() - request.getOriginFloor());
+            byOrigin.computeIfAbsent(request.getElevatorType() + "@" + request.getOriginFloor() + "/" + direction,
+                    k -> new ArrayList<>()).add(pending);
+        }
+
+        List<List<Pending>> result = new ArrayList<>();
+        for (List<Pending> sameOrigin : byOrigin.values()) {
+            // nearest destinations first, whichever way the group travels
+            sameOrigin.sort(Comparator.comparingInt(DestinationDispatcher::distance));
+            List<Pending> group = new ArrayList<>();
+            int groupStart = 0;
+            for (Pending pending : sameOrigin) {
+                int distance = distance(pending);
+                if (!group.isEmpty() && (distance - groupStart > maxFloorSpread || group.size() >= maxGroupSize)) {
+                    result.add(group);
+                    group = new ArrayList<>();
+                }
+                if (group.isEmpty()) {
+                    groupStart = distance;
+                }
+                group.add(pending);
+            }
+            result.add(group);
+        }
+        return result;
+    }
+
+    private static int distance(Pending pending) {
+        return Math.abs(pending.request.getTargetFloor() - pending.request.getOriginFloor());
+    }
+
+    private void assign(List<Pending> group, Set<Elevator> assigned) {
+        ElevatorRequest first = group.get(0).request;
+        Elevator car;
+        try {
+            // cars already taken in this batch are avoided so groups do not share a car
+            car = dispatcher.selectElevator(new ElevatorRequest(first.getUserId(), first.getOriginFloor(),
+                    first.getElevatorType(), first.hasKeycard()), assigned);
+        } catch (RuntimeException e) {
+            group.forEach(p -> p.future.completeExceptionally(e));
+            return;
+        }
+        assigned.add(car);
+        groups.incrementAndGet();
+
+        // both floors are checked before the car moves, so a refused passenger leaves no stop behind
+        List<Pending> boarding = new ArrayList<>();
+        for (Pending pending : group) {
+            ElevatorRequest request = pending.request;
+            try {
+                ElevatorDispatcher.checkStop(car, request.getOriginFloor(), request.hasKeycard());
+                ElevatorDispatcher.checkStop(car, request.getTargetFloor(), request.hasKeycard());
+                boarding.add(pending);
+            } catch (RuntimeException e) {
+                pending.future.completeExceptionally(e);
+            }
+        }
+        if (boarding.isEmpty()) {
+            return;
+        }
+
+        try {
+            ElevatorDispatcher.driveTo(car, first.getOriginFloor(), boarding.get(0).request.hasKeycard());
+        } catch (RuntimeException e) {
+            boarding.forEach(p -> p.future.completeExceptionally(e));
+            return;
+        }
+        log.info("Destination group of {} from floor {} boarded elevator {}",
+                boarding.size(), first.getOriginFloor(), car.getElevatorId());
+
+        // destinations are queued only once everyone is on board, so LOOK cannot drop off before picking up
+        List<Pending> riding = new ArrayList<>();
+        for (Pending pending : boarding) {
+            ElevatorRequest request = pending.request;
+            try {
+                ElevatorDispatcher.addStop(car, request.getTargetFloor(), request.hasKeycard());
+                passengers.incrementAndGet();
+                pending.future.complete(car);
+                riding.add(pending);
+            } catch (RuntimeException e) {
+                pending.future.completeExceptionally(e);
+            }
+        }
+        try {
+            // nearest destination first, the order LOOK serves them in
+            for (Pending pending : riding) {
+                ElevatorDispatcher.driveTo(car, pending.request.getTargetFloor(), pending.request.hasKeycard());
+            }
+        } catch (RuntimeException e) {
+            log.error("Elevator {} stopped before dropping off its destination group", car.getElevatorId(), e);
+        }
+    }
+
+    private void flushSafely() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.error("Error flushing destination batch", e);
+        }
+    }
+
+    private static final class Pending {
+        private final ElevatorRequest request;
+        private final CompletableFuture<Elevator> future = new CompletableFuture<>();
+
+        private Pending(ElevatorRequest request) {
+            this.request = request;
+        }
+    }
+
+    /**
+     * Builder for the destination dispatcher
+     */
+    public static class Builder {
+        private final ElevatorDispatcher dispatcher;
+        private long windowMs = 500;
+        private int maxFloorSpread = 3;
+        private int maxGroupSize = 8;
+
+        public Builder(ElevatorDispatcher dispatcher) {
+            this.dispatcher = Objects.requireNonNull(dispatcher, "dispatcher");
+        }
+
+        // how long requests are collected before grouping
+        public Builder windowMs(long windowMs) {
+            if (windowMs <= 0) {
+                throw new IllegalArgumentException("Window must be positive: " + windowMs);
+            }
+            this.windowMs = windowMs;
+            return this;
+        }
+
+        // largest distance between destinations sharing a car
+        public Builder maxFloorSpread(int maxFloorSpread) {
+            if (maxFloorSpread < 0) {
+                throw new IllegalArgumentException("Floor spread cannot be negative: " + maxFloorSpread);
+            }
+            this.maxFloorSpread = maxFloorSpread;
+            return this;
+        }
+
+        // passengers per car, usually car capacity divided by passenger weight
+        public Builder maxGroupSize(int maxGroupSize) {
+            if (maxGroupSize <= 0) {
+                throw new IllegalArgumentException("Group size must be positive: " + maxGroupSize);
+            }
+            this.maxGroupSize = maxGroupSize;
+            return this;
+        }
+
+        public DestinationDispatcher build() {
+            return new DestinationDispatcher(this);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package org.victor.dispatch;
+
+import org.victor.monitoring.LatencyHistogram;
+
+/**
+ * Dispatch latencies in microseconds, kept in one {@link LatencyHistogram} per stage,
+ * elevator type and floor band. Every histogram is created up front, so recording
+ * never allocates or locks.
+ */
+public class DispatchLatency {
+
+    public static final int DEFAULT_FLOORS_PER_BAND = 10;
+    public static final int DEFAULT_BANDS = 8;
+
+    private static final ElevatorRequest.ElevatorType[] TYPES = ElevatorRequest.ElevatorType.values();
+
+    // [stage][type][band]
+    private final LatencyHistogram[][][] histograms;
+    private final int floorsPerBand;
+    private final int bands;
+
+    public enum Stage {
+        // request creation until a dispatcher starts handling it
+        QUEUE_WAIT,
+        // choosing the elevator
+        DECISION,
+        // request creation until the elevator reaches the target floor; requests whose
+        // car never arrives are not recorded
+        END_TO_END
+    }
+
+    public DispatchLatency() {
+        this(DEFAULT_FLOORS_PER_BAND, DEFAULT_BANDS);
+    }
+
+    // floors at or above floorsPerBand * bands all fall in the last band
+    public DispatchLatency(int floorsPerBand, int bands) {
+        if (floorsPerBand <= 0 || bands <= 0) {
+            throw new IllegalArgumentException("Floors per band and bands must be positive");
+        }
+        this.floorsPerBand = floorsPerBand;
+        this.bands = bands;
+        this.histograms = new LatencyHistogram[Stage.values().length][TYPES.length][bands];
+        for (LatencyHistogram[][] byType : histograms) {
+            for (LatencyHistogram[] byBand : byType) {
+                for (int band = 0; band < bands; band++) {
+                    byBand[band] = new LatencyHistogram();
+                }
+            }
+        }
+    }
+
+    public void record(Stage stage, ElevatorRequest.ElevatorType type, int floor, long micros) {
+        histograms[stage.ordinal()][type.ordinal()][band(floor)].record(micros);
+    }
+
+    public int band(int floor) {
+        return Math.min(bands - 1, Math.max(0, floor) / floorsPerBand);
+    }
+
+    public int getBands() {
+        return bands;
+    }
+
+    public int getFloorsPerBand() {
+        return floorsPerBand;
+    }
+
+    public LatencyHistogram get(Stage stage, ElevatorRequest.ElevatorType type, int band) {
+        return histograms[stage.ordinal()][type.ordinal()][band];
+    }
+
+    /**
+     * percentile for an elevator type over every floor band
+     */
+    public long percentile(Stage stage, ElevatorRequest.ElevatorType type, double percentile) {
+        return LatencyHistogram.percentile(histograms[stage.ordinal()][type.ordinal()], percentile);
+    }
+
+    /**
+     * percentile over every elevator type and floor band
+     */
+    public long percentile(Stage stage, double percentile) {
+        LatencyHistogram[] all = new LatencyHistogram[TYPES.length * bands];
+        for (int type = 0; type < TYPES.length; type++) {
+            System.arraycopy(histograms[stage.ordinal()][type], 0, all, type * bands, bands);
+        }
+        return LatencyHistogram.percentile(all, percentile);
+    }
+
+    public long getCount(Stage stage) {
+        long count = 0;
+        for (LatencyHistogram[] byBand : histograms[stage.ordinal()]) {
+            for (LatencyHistogram histogram : byBand) {
+                count += histogram.getCount();
+            }
+        }
+        return count;
+    }
+
+    public void reset() {
+        for (LatencyHistogram[][] byType : histograms) {
+            for (LatencyHistogram[] byBand : byType) {
+                for (LatencyHistogram histogram : byBand) {
+                    histogram.reset();
+                }
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("DispatchLatency{");
+        for (Stage stage : Stage.values()) {
+            sb.append(String.format("%s[n=%d, p50=%dus, p95=%dus, p99=%dus] ", stage, getCount(stage),
+                    percentile(stage, 50), percentile(stage, 95), percentile(stage, 99)));
+        }
+        sb.setLength(sb.length() - 1);
+        return sb.append('}').toString();
+    }
+}
@@ -0,0 +1,300 @@
+package org.victor.dispatch;
+
+import lombok.extern.slf4j.Slf4j;
+import org.victor.Elevator;
+import org.victor.exception.DispatchRejectedException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Long-running dispatch service that drains a bounded request queue with a pool
+ * of worker threads, so call buttons are served as soon as they are pressed.
+ * When the queue is full the configured {@link RejectionPolicy} applies.
+ */
+@Slf4j
+public class DispatchService {
+
+    public enum RejectionPolicy {
+        // fail the new request immediately
+        REJECT,
+        // wait up to the offer timeout for room in the queue, then fail
+        BLOCK,
+        // fail the oldest queued request to make room for the new one
+        DROP_OLDEST,
+        // dispatch the request on the submitting thread
+        CALLER_RUNS
+    }
+
+    private static final long POLL_INTERVAL_MS = 100;
+
+    private final ElevatorDispatcher dispatcher;
+    private final BlockingQueue<Task> queue;
+    private final int workerCount;
+    private final ThreadFactory threadFactory;
+    private final RejectionPolicy rejectionPolicy;
+    private final long offerTimeoutMs;
+    private final List<Thread> workers = new ArrayList<>();
+
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong dispatched = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    private volatile boolean running;
+
+    private DispatchService(Builder builder) {
+        this.dispatcher = builder.dispatcher;
+        this.queue = new ArrayBlockingQueue<>(builder.queueCapacity);
+        this.workerCount = builder.workerCount;
+        this.threadFactory = builder.threadFactory;
+        this.rejectionPolicy = builder.rejectionPolicy;
+        this.offerTimeoutMs = builder.offerTimeoutMs;
+    }
+
+    /**
+     * start the worker threads
+     */
+    public synchronized void start() {
+        if (running) {
+            throw new IllegalStateException("Dispatch service already running");
+        }
+        running = true;
+        workers.clear();
+        for (int i = 0; i < workerCount; i++) {
+            Thread worker = threadFactory.newThread(this::runWorker);
+            workers.add(worker);
+            worker.start();
+        }
+        log.info("DispatchService started with {} workers, queue capacity {}, policy {}",
+                workerCount, queue.remainingCapacity() + queue.size(), rejectionPolicy);
+    }
+
+    /**
+     * stop accepting requests, let workers drain the queue for up to the given
+     * time and fail whatever is still queued afterwards
+     */
+    public synchronized void stop(long timeoutMs) throws InterruptedException {
+        if (!running) {
+            return;
+        }
+        running = false;
+
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        for (Thread worker : workers) {
+            worker.join(Math.max(1, deadline - System.currentTimeMillis()));
+        }
+        for (Thread worker : workers) {
+            worker.interrupt();
+        }
+
+        List<Task> leftovers = new ArrayList<>();
+        queue.drainTo(leftovers);
+        for (Task task : leftovers) {
+            reject(task, "Dispatch service stopped");
+        }
+        log.info("DispatchService stopped, {} queued requests abandoned", leftovers.size());
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * queue a request; the returned future completes with the assigned elevator
+     */
+    public CompletableFuture<Elevator> submit(ElevatorRequest request) {
+        Objects.requireNonNull(request, "request");
+        Task task;
+
+        if (request.isHallCall()) {
+            // repeated presses share the pending call instead of taking a queue slot
+            HallCallBoard.PendingCall call = dispatcher.joinHallCall(request);
+            if (!call.isOwner(request)) {
+                coalesced.incrementAndGet();
+                return call.getFuture();
+            }
+            task = new Task(request, call.getFuture());
+        } else {
+            task = new Task(request, new CompletableFuture<>());
+        }
+
+        if (!running) {
+            return reject(task, "Dispatch service is not running");
+        }
+        submitted.incrementAndGet();
+
+        if (queue.offer(task)) {
+            return enqueued(task);
+        }
+
+        switch (rejectionPolicy) {
+            case BLOCK:
+                try {
+                    if (queue.offer(task, offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+                        return enqueued(task);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return reject(task, "Dispatch queue full after waiting " + offerTimeoutMs + " ms");
+            case DROP_OLDEST:
+                while (!queue.offer(task)) {
+                    Task oldest = queue.poll();
+                    if (oldest != null) {
+                        reject(oldest, "Dropped to make room for newer request");
+                    }
+                }
+                return enqueued(task);
+            case CALLER_RUNS:
+                execute(task);
+                return task.future;
+            case REJECT:
+            default:
+                return reject(task, "Dispatch queue full");
+        }
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    public long getSubmittedCount() {
+        return submitted.get();
+    }
+
+    public long getDispatchedCount() {
+        return dispatched.get();
+    }
+
+    public long getFailedCount() {
+        return failed.get();
+    }
+
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    public long getCoalescedCount() {
+        return coalesced.get();
+    }
+
+    private void runWorker() {
+        while (running || !queue.isEmpty()) {
+            try {
+                Task task = queue.poll(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                if (task != null) {
+                    execute(task);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    // running is checked before queueing, so a request can land after stop() drained
+    // the queue; take it back out and fail it rather than leave its future pending
+    private CompletableFuture<Elevator> enqueued(Task task) {
+        if (!running && queue.remove(task)) {
+            return reject(task, "Dispatch service stopped");
+        }
+        return task.future;
+    }
+
+    private void execute(Task task) {
+        try {
+            Elevator elevator = dispatcher.dispatch(task.request);
+            dispatched.incrementAndGet();
+            task.future.complete(elevator);
+        } catch (Exception e) {
+            failed.incrementAndGet();
+            log.error("Error processing request: {}", task.request, e);
+            task.future.completeExceptionally(e);
+        }
+    }
+
+    private CompletableFuture<Elevator> reject(Task task, String reason) {
+        rejected.incrementAndGet();
+        log.warn("Request {} rejected: {}", task.request.getRequestId(), reason);
+        DispatchRejectedException cause = new DispatchRejectedException(reason);
+        if (task.request.isHallCall()) {
+            dispatcher.abandonHallCall(task.request, cause);
+        }
+        task.future.completeExceptionally(cause);
+        return task.future;
+    }
+
+    private static final class Task {
+        private final ElevatorRequest request;
+        private final CompletableFuture<Elevator> future;
+
+        private Task(ElevatorRequest request, CompletableFuture<Elevator> future) {
+            this.request = request;
+            this.future = future;
+        }
+    }
+
+    /**
+     * Builder for the dispatch service. On Java 21+ pass
+     * {@code Thread.ofVirtual().factory()} as thread factory to run workers on virtual threads.
+     */
+    public static class Builder {
+        private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+        private final ElevatorDispatcher dispatcher;
+        private int queueCapacity = 1024;
+        private int workerCount = Runtime.getRuntime().availableProcessors();
+        private ThreadFactory threadFactory = r -> {
+            Thread thread = new Thread(r, "dispatch-worker-" + THREAD_COUNTER.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        private RejectionPolicy rejectionPolicy = RejectionPolicy.BLOCK;
+        private long offerTimeoutMs = ElevatorDispatcher.DISPATCH_TIMEOUT_MS;
+
+        public Builder(ElevatorDispatcher dispatcher) {
+            this.dispatcher = Objects.requireNonNull(dispatcher, "dispatcher");
+        }
+
+        public Builder queueCapacity(int queueCapacity) {
+            if (queueCapacity <= 0) {
+                throw new IllegalArgumentException("Queue capacity must be positive: " + queueCapacity);
+            }
+            this.queueCapacity = queueCapacity;
+            return this;
+        }
+
+        public Builder workers(int workerCount) {
+            if (workerCount <= 0) {
+                throw new IllegalArgumentException("Worker count must be positive: " + workerCount);
+            }
+            this.workerCount = workerCount;
+            return this;
+        }
+
+        public Builder threadFactory(ThreadFactory threadFactory) {
+            this.threadFactory = Objects.requireNonNull(threadFactory, "threadFactory");
+            return this;
+        }
+
+        public Builder rejectionPolicy(RejectionPolicy rejectionPolicy) {
+            this.rejectionPolicy = Objects.requireNonNull(rejectionPolicy, "rejectionPolicy");
+            return this;
+        }
+
+        public Builder offerTimeoutMs(long offerTimeoutMs) {
+            this.offerTimeoutMs = offerTimeoutMs;
+            return this;
+        }
+
+        public DispatchService build() {
+            return new DispatchService(this);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package org.victor.dispatch;
+
+import org.victor.Elevator;
+
+/**
+ * Strategy used by the dispatcher to score candidate elevators for a request.
+ * The dispatcher assigns the request to the candidate with the lowest cost.
+ */
+public interface DispatchStrategy {
+
+    /**
+     * cost returned for a car that must not be assigned (e.g. no room left)
+     */
+    double UNAVAILABLE = Double.POSITIVE_INFINITY;
+
+    /**
+     * cost of serving the request with the given elevator, lower is better
+     */
+    double cost(Elevator elevator, ElevatorRequest request);
+
+    /**
+     * strategy name used in logs and statistics
+     */
+    default String getName() {
+        return getClass().getSimpleName();
+    }
+}
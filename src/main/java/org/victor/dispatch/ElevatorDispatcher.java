@@ -1,18 +1,19 @@
 package org.victor.dispatch;
 
 import lombok.extern.slf4j.Slf4j;
+import org.victor.Direction;
 import org.victor.Elevator;
 import org.victor.FreightElevator;
 import org.victor.PublicElevator;
 import org.victor.audit.AuditLogger;
+import org.victor.exception.ElevatorNotOperationalException;
 import org.victor.monitoring.ElevatorMetrics;
+import org.victor.monitoring.RateMeter;
 import org.victor.monitoring.SystemMonitor;
 import org.victor.security.UserManager;
 
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Dispatcher system to manage multiple elevators in a thread-safe manner
@@ -20,137 +21,183 @@ import java.util.concurrent.locks.ReentrantReadWriteLock;
 @Slf4j
 public class ElevatorDispatcher {
 
-    private final Map<String, Elevator> elevators = new ConcurrentHashMap<>();
-    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ElevatorRegistry registry = new ElevatorRegistry();
     private final AuditLogger auditLogger;
     private final SystemMonitor systemMonitor;
     private final UserManager userManager;
+    private final DispatchStrategy dispatchStrategy;
+    private final FloorIndex floorIndex = new FloorIndex();
+    private final HallCallBoard hallCalls = new HallCallBoard();
     private final Queue<ElevatorRequest> requestQueue = new java.util.concurrent.ConcurrentLinkedQueue<>();
+    private final DispatchLatency latency = new DispatchLatency();
+    private final RateMeter requestRate = new RateMeter();
+    private final RateMeter dispatchRate = new RateMeter();
+    private final List<FleetListener> fleetListeners = new java.util.concurrent.CopyOnWriteArrayList<>();
+    // serializes fleet changes so the registry, floor index and listeners see them in the
+    // same order; lookups read the copy-on-write snapshots without it
+    private final Object fleetLock = new Object();
 
-    private static final int DISPATCH_TIMEOUT_MS = 5000;
+    static final int DISPATCH_TIMEOUT_MS = 5000;
 
     public ElevatorDispatcher(AuditLogger auditLogger, SystemMonitor systemMonitor, UserManager userManager) {
+        this(auditLogger, systemMonitor, userManager, new EtaDispatchStrategy());
+    }
+
+    public ElevatorDispatcher(AuditLogger auditLogger, SystemMonitor systemMonitor, UserManager userManager,
+            DispatchStrategy dispatchStrategy) {
         this.auditLogger = auditLogger;
         this.systemMonitor = systemMonitor;
         this.userManager = userManager;
-        log.info("ElevatorDispatcher initialized");
+        this.dispatchStrategy = Objects.requireNonNull(dispatchStrategy, "dispatchStrategy");
+        log.info("ElevatorDispatcher initialized with {} strategy", dispatchStrategy.getName());
     }
 
     /**
      * elevator registration
      */
     public void registerElevator(Elevator elevator) {
-        lock.writeLock().lock();
-        try {
-            elevators.put(elevator.getElevatorId(), elevator);
-
-            ElevatorMetrics metrics = systemMonitor.getOrCreateMetrics(elevator.getElevatorId());
-            elevator.setAuditLogger(auditLogger);
-            elevator.setMetrics(metrics);
-            elevator.setSystemMonitor(systemMonitor);
+        ElevatorMetrics metrics = systemMonitor.getOrCreateMetrics(elevator.getElevatorId());
+        elevator.setAuditLogger(auditLogger);
+        elevator.setMetrics(metrics);
+        elevator.setSystemMonitor(systemMonitor);
 
-            log.info("Elevator registered: {} (ID: {})", elevator.getName(), elevator.getElevatorId());
-        } finally {
-            lock.writeLock().unlock();
+        synchronized (fleetLock) {
+            // hall calls are accepted for any floor a registered car serves
+            hallCalls.cover(elevator.getMinFloor(), elevator.getTotalFloors());
+            Elevator previous = registry.put(elevator);
+            if (previous != elevator) {
+                if (previous != null) {
+                    previous.removeStateListener(floorIndex);
+                    floorIndex.remove(previous);
+                }
+                elevator.addStateListener(floorIndex);
+                floorIndex.add(elevator);
+                for (FleetListener listener : fleetListeners) {
+                    if (previous != null) {
+                        listener.onUnregistered(previous);
+                    }
+                    listener.onRegistered(elevator);
+                }
+            }
         }
+
+        log.info("Elevator registered: {} (ID: {})", elevator.getName(), elevator.getElevatorId());
     }
 
     /**
      * elevator unregistration
      */
     public void unregisterElevator(String elevatorId) {
-        lock.writeLock().lock();
-        try {
-            elevators.remove(elevatorId);
-            log.info("Elevator unregistered: {}", elevatorId);
-        } finally {
-            lock.writeLock().unlock();
+        synchronized (fleetLock) {
+            Elevator elevator = registry.remove(elevatorId);
+            if (elevator != null) {
+                elevator.removeStateListener(floorIndex);
+                floorIndex.remove(elevator);
+                for (FleetListener listener : fleetListeners) {
+                    listener.onUnregistered(elevator);
+                }
+            }
         }
+        log.info("Elevator unregistered: {}", elevatorId);
     }
 
     /**
      * get elevator by ID
      */
     public Elevator getElevator(String elevatorId) {
-        lock.readLock().lock();
-        try {
-            Elevator elevator = elevators.get(elevatorId);
-            if (elevator == null) {
-                throw new IllegalArgumentException("Elevator not found: " + elevatorId);
-            }
-            return elevator;
-        } finally {
-            lock.readLock().unlock();
+        Elevator elevator = registry.snapshot().byId.get(elevatorId);
+        if (elevator == null) {
+            throw new IllegalArgumentException("Elevator not found: " + elevatorId);
         }
+        return elevator;
     }
 
     /**
      * getall elevators
      */
     public Collection<Elevator> getAllElevators() {
-        lock.readLock().lock();
-        try {
-            return new ArrayList<>(elevators.values());
-        } finally {
-            lock.readLock().unlock();
-        }
+        return List.of(registry.snapshot().all);
     }
 
     /**
      * get available public elevators
      */
     public List<PublicElevator> getAvailablePublicElevators() {
-        lock.readLock().lock();
-        try {
-            return elevators.values().stream()
-                    .filter(e -> e instanceof PublicElevator && e.isOperational())
-                    .map(e -> (PublicElevator) e)
-                    .toList();
-        } finally {
-            lock.readLock().unlock();
-        }
+        return operational(registry.snapshot().publicCars);
     }
 
     /**
      * get available freight elevators
      */
     public List<FreightElevator> getAvailableFreightElevators() {
-        lock.readLock().lock();
-        try {
-            return elevators.values().stream()
-                    .filter(e -> e instanceof FreightElevator && e.isOperational())
-                    .map(e -> (FreightElevator) e)
-                    .toList();
-        } finally {
-            lock.readLock().unlock();
+        return operational(registry.snapshot().freightCars);
+    }
+
+    private static <T extends Elevator> List<T> operational(T[] cars) {
+        List<T> available = new ArrayList<>(cars.length);
+        for (T car : cars) {
+            if (car.isOperational()) {
+                available.add(car);
+            }
         }
+        return available;
     }
 
     /**
-     * get closest elevator
+     * get closest operational elevator, looked up in the floor index
      */
     public Elevator findNearestElevator(int targetFloor) {
-        lock.readLock().lock();
-        try {
-            return elevators.values().stream()
-                    .filter(Elevator::isOperational)
-                    .min((e1, e2) -> Integer.compare(
-                            Math.abs(e1.getCurrentFloor() - targetFloor),
-                            Math.abs(e2.getCurrentFloor() - targetFloor)))
-                    .orElseThrow(() -> new IllegalStateException("No operational elevators available"));
-        } finally {
-            lock.readLock().unlock();
+        Elevator nearest = floorIndex.nearest(targetFloor);
+        if (nearest == null) {
+            throw new IllegalStateException("No operational elevators available");
         }
+        return nearest;
     }
 
     /**
      * sends an elevator request to queue
      */
     public void requestElevator(ElevatorRequest request) {
+        requestRate.mark();
         requestQueue.add(request);
         log.debug("Elevator request queued: {} to floor {}", request.getUserId(), request.getTargetFloor());
     }
 
+    /**
+     * registers a hall call. Calls for a floor, direction and elevator type that is
+     * already pending are coalesced: they share the pending assignment and are not queued again.
+     */
+    public CompletableFuture<Elevator> callElevator(ElevatorRequest hallCall) {
+        requestRate.mark();
+        HallCallBoard.PendingCall call = joinHallCall(hallCall);
+        if (call.isOwner(hallCall)) {
+            requestQueue.add(hallCall);
+            log.debug("Hall call queued: floor {} {}", hallCall.getTargetFloor(), hallCall.getDirection());
+        } else {
+            log.debug("Hall call joined: floor {} {} ({} waiting)",
+                    hallCall.getTargetFloor(), hallCall.getDirection(), call.getWaiters());
+        }
+        return call.getFuture();
+    }
+
+    /**
+     * whether a hall call is waiting for a car
+     */
+    public boolean hasPendingHallCall(ElevatorRequest.ElevatorType type, int floor, Direction direction) {
+        return hallCalls.isPending(type, floor, direction);
+    }
+
+    HallCallBoard.PendingCall joinHallCall(ElevatorRequest hallCall) {
+        if (!hallCall.isHallCall()) {
+            throw new IllegalArgumentException("Not a hall call: " + hallCall.getRequestId());
+        }
+        return hallCalls.join(hallCall);
+    }
+
+    void abandonHallCall(ElevatorRequest hallCall, Throwable cause) {
+        hallCalls.fail(hallCall, cause);
+    }
+
     /**
      * process queued requests
      */
@@ -168,74 +215,242 @@ public class ElevatorDispatcher {
     }
 
     /**
-     * Dispatches an elevator request to an elevator
+     * Dispatches an elevator request to the cheapest elevator according to the strategy
      */
-    private void dispatch(ElevatorRequest request) {
+    Elevator dispatch(ElevatorRequest request) {
+        latency.record(DispatchLatency.Stage.QUEUE_WAIT, request.getElevatorType(), request.getTargetFloor(),
+                request.getAgeNanos() / 1000);
         Elevator elevator;
 
-        if (request.getElevatorType() == ElevatorRequest.ElevatorType.PUBLIC) {
-            List<PublicElevator> available = getAvailablePublicElevators();
-            if (available.isEmpty()) {
-                throw new IllegalStateException("No public elevators available");
-            }
-            elevator = available.get(0);
-        } else {
-            List<FreightElevator> available = getAvailableFreightElevators();
-            if (available.isEmpty()) {
-                throw new IllegalStateException("No freight elevators available");
+        try {
+            elevator = moveToRequest(request);
+        } catch (RuntimeException e) {
+            if (request.isHallCall()) {
+                hallCalls.fail(request, e);
             }
-            elevator = available.get(0);
+            throw e;
         }
 
+        dispatchRate.mark();
+        if (request.isHallCall()) {
+            hallCalls.complete(request, elevator);
+        }
+        return elevator;
+    }
+
+    private Elevator moveToRequest(ElevatorRequest request) {
+        long decisionStart = System.nanoTime();
+        // a trip with a known origin is a pickup there first, so the car is chosen for that floor
+        Elevator elevator = selectElevator(request.hasOrigin()
+                ? new ElevatorRequest(request.getUserId(), request.getOriginFloor(), request.getElevatorType(),
+                        request.hasKeycard())
+                : request);
+        latency.record(DispatchLatency.Stage.DECISION, request.getElevatorType(), request.getTargetFloor(),
+                (System.nanoTime() - decisionStart) / 1000);
+
         try {
-            if (elevator instanceof PublicElevator) {
-                ((PublicElevator) elevator).goToFloor(request.getTargetFloor(), request.hasKeycard());
-            } else {
-                elevator.goToFloor(request.getTargetFloor());
+            if (request.hasOrigin()) {
+                driveTo(elevator, request.getOriginFloor(), request.hasKeycard());
             }
+            driveTo(elevator, request.getTargetFloor(), request.hasKeycard());
+            // the car is at the target floor, so end-to-end includes the whole ride
+            latency.record(DispatchLatency.Stage.END_TO_END, request.getElevatorType(), request.getTargetFloor(),
+                    request.getAgeNanos() / 1000);
             log.info("Dispatched user {} to elevator {}", request.getUserId(), elevator.getElevatorId());
+            return elevator;
         } catch (Exception e) {
             log.error("Failed to dispatch request: {}", request, e);
             throw e;
         }
     }
 
+    /**
+     * queue a stop and serve the car's LOOK queue until that stop is reached; stops
+     * queued by other requests on the way are served in order too. Returns once the car
+     * is at the floor.
+     */
+    static void driveTo(Elevator car, int floor, boolean hasKeycard) {
+        addStop(car, floor, hasKeycard);
+        while (car.hasPendingStop(floor)) {
+            car.serveNextStop();
+        }
+        // a shutdown clears the queue, so the loop also ends when the car broke down on the way
+        if (!car.isOperational()) {
+            throw new ElevatorNotOperationalException(car.getName());
+        }
+    }
+
+    static void addStop(Elevator car, int floor, boolean hasKeycard) {
+        if (car instanceof PublicElevator) {
+            ((PublicElevator) car).addStop(floor, hasKeycard);
+        } else {
+            car.addStop(floor);
+        }
+    }
+
+    static void checkStop(Elevator car, int floor, boolean hasKeycard) {
+        if (car instanceof PublicElevator) {
+            ((PublicElevator) car).checkStop(floor, hasKeycard);
+        } else {
+            car.checkStop(floor);
+        }
+    }
+
+    /**
+     * chooses the elevator that would serve the request, without moving it
+     */
+    public Elevator selectElevator(ElevatorRequest request) {
+        return selectElevator(registry.snapshot().carsOfType(request.getElevatorType()), request, Set.of());
+    }
+
+    /**
+     * chooses an elevator other than the excluded ones, falling back to any elevator
+     * when every candidate is excluded
+     */
+    Elevator selectElevator(ElevatorRequest request, Set<Elevator> excluded) {
+        Elevator[] candidates = registry.snapshot().carsOfType(request.getElevatorType());
+        try {
+            return selectElevator(candidates, request, excluded);
+        } catch (IllegalStateException e) {
+            if (excluded.isEmpty()) {
+                throw e;
+            }
+            return selectElevator(candidates, request, Set.of());
+        }
+    }
+
+    /**
+     * picks the operational candidate with the lowest strategy cost
+     */
+    private Elevator selectElevator(Elevator[] candidates, ElevatorRequest request, Set<Elevator> excluded) {
+        Elevator best = null;
+        double bestCost = DispatchStrategy.UNAVAILABLE;
+        boolean anyOperational = false;
+
+        for (Elevator candidate : candidates) {
+            if (!candidate.isOperational() || excluded.contains(candidate)) {
+                continue;
+            }
+            anyOperational = true;
+            double cost = dispatchStrategy.cost(candidate, request);
+            if (cost < bestCost) {
+                best = candidate;
+                bestCost = cost;
+            }
+        }
+
+        if (!anyOperational) {
+            throw new IllegalStateException("No " + request.getElevatorType().name().toLowerCase()
+                    + " elevators available");
+        }
+        if (best == null) {
+            throw new IllegalStateException("No " + request.getElevatorType().name().toLowerCase()
+                    + " elevators with spare capacity available");
+        }
+        return best;
+    }
+
+    /**
+     * get the strategy used to choose elevators
+     */
+    public DispatchStrategy getDispatchStrategy() {
+        return dispatchStrategy;
+    }
+
+    // queue wait, decision and end-to-end latency of dispatched requests
+    public DispatchLatency getLatency() {
+        return latency;
+    }
+
+    // requests and hall calls received per second over recent windows
+    public RateMeter getRequestRate() {
+        return requestRate;
+    }
+
+    // requests served per second over recent windows
+    public RateMeter getDispatchRate() {
+        return dispatchRate;
+    }
+
+    // subscribe to elevators joining and leaving the fleet
+    public void addFleetListener(FleetListener listener) {
+        synchronized (fleetLock) {
+            fleetListeners.add(listener);
+        }
+    }
+
+    public void removeFleetListener(FleetListener listener) {
+        synchronized (fleetLock) {
+            fleetListeners.remove(listener);
+        }
+    }
+
+    // requests waiting in the queue, without building full stats
+    public int getPendingRequestCount() {
+        return requestQueue.size();
+    }
+
+    public int getPendingHallCallCount() {
+        return hallCalls.pendingCount();
+    }
+
+    public int getOperationalCount() {
+        int operational = 0;
+        for (Elevator elevator : registry.snapshot().all) {
+            if (elevator.isOperational()) {
+                operational++;
+            }
+        }
+        return operational;
+    }
+
     /**
      * get dispatcher statistics
      */
     public DispatcherStats getStats() {
-        lock.readLock().lock();
-        try {
-            DispatcherStats stats = new DispatcherStats();
-            stats.totalElevators = elevators.size();
-            stats.operationalElevators = (int) elevators.values().stream()
-                    .filter(Elevator::isOperational)
-                    .count();
-            stats.publicElevators = (int) elevators.values().stream()
-                    .filter(e -> e instanceof PublicElevator)
-                    .count();
-            stats.freightElevators = (int) elevators.values().stream()
-                    .filter(e -> e instanceof FreightElevator)
-                    .count();
-            stats.pendingRequests = requestQueue.size();
-            return stats;
-        } finally {
-            lock.readLock().unlock();
+        ElevatorRegistry.Snapshot fleet = registry.snapshot();
+        DispatcherStats stats = new DispatcherStats();
+        stats.totalElevators = fleet.all.length;
+        for (Elevator elevator : fleet.all) {
+            if (elevator.isOperational()) {
+                stats.operationalElevators++;
+            }
         }
+        stats.publicElevators = fleet.publicCars.length;
+        stats.freightElevators = fleet.freightCars.length;
+        stats.pendingRequests = requestQueue.size();
+        stats.pendingHallCalls = hallCalls.pendingCount();
+        stats.strategy = dispatchStrategy.getName();
+        return stats;
     }
 
     /**
      * reset dispatcher
      */
     public void reset() {
-        lock.writeLock().lock();
-        try {
-            elevators.clear();
-            requestQueue.clear();
-            log.info("ElevatorDispatcher reset");
-        } finally {
-            lock.writeLock().unlock();
+        synchronized (fleetLock) {
+            for (Elevator elevator : registry.clear()) {
+                elevator.removeStateListener(floorIndex);
+                for (FleetListener listener : fleetListeners) {
+                    listener.onUnregistered(elevator);
+                }
+            }
+            floorIndex.clear();
         }
+        requestQueue.clear();
+        hallCalls.clear(new IllegalStateException("Dispatcher reset"));
+        latency.reset();
+        log.info("ElevatorDispatcher reset");
+    }
+
+    /**
+     * Notified after an elevator is registered or unregistered, on the calling thread and
+     * while the fleet is locked, so notifications arrive in registration order.
+     */
+    public interface FleetListener {
+        void onRegistered(Elevator elevator);
+
+        void onUnregistered(Elevator elevator);
     }
 
     /**
@@ -248,12 +463,38 @@ public class ElevatorDispatcher {
         private int publicElevators;
         private int freightElevators;
         private int pendingRequests;
+        private int pendingHallCalls;
+        private String strategy;
+
+        /**
+         * aggregate statistics of several dispatchers (e.g. the shards of a zoned dispatcher)
+         */
+        static DispatcherStats combine(String strategy, Collection<DispatcherStats> parts) {
+            DispatcherStats total = new DispatcherStats();
+            for (DispatcherStats part : parts) {
+                total.totalElevators += part.totalElevators;
+                total.operationalElevators += part.operationalElevators;
+                total.publicElevators += part.publicElevators;
+                total.freightElevators += part.freightElevators;
+                total.pendingRequests += part.pendingRequests;
+                total.pendingHallCalls += part.pendingHallCalls;
+            }
+            total.strategy = strategy;
+            return total;
+        }
+
+        DispatcherStats withQueuedRequests(int queued) {
+            pendingRequests += queued;
+            return this;
+        }
 
         @Override
         public String toString() {
             return String.format(
-                    "DispatcherStats{total=%d, operational=%d, public=%d, freight=%d, pending=%d}",
-                    totalElevators, operationalElevators, publicElevators, freightElevators, pendingRequests);
+                    "DispatcherStats{total=%d, operational=%d, public=%d, freight=%d, pending=%d, hallCalls=%d, "
+                            + "strategy=%s}",
+                    totalElevators, operationalElevators, publicElevators, freightElevators, pendingRequests,
+                    pendingHallCalls, strategy);
         }
     }
 }
@@ -0,0 +1,88 @@
+package org.victor.dispatch;
+
+import org.victor.Elevator;
+import org.victor.FreightElevator;
+import org.victor.PublicElevator;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Copy-on-write elevator registry. Every registration publishes a new immutable
+ * snapshot with the fleet already partitioned by elevator type, so the dispatch
+ * path reads plain arrays without locking, filtering or allocating.
+ */
+class ElevatorRegistry {
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    Snapshot snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * add or replace an elevator, returning the one it replaced if any
+     */
+    synchronized Elevator put(Elevator elevator) {
+        Map<String, Elevator> byId = new HashMap<>(snapshot.byId);
+        Elevator previous = byId.put(elevator.getElevatorId(), elevator);
+        snapshot = Snapshot.of(byId);
+        return previous;
+    }
+
+    synchronized Elevator remove(String elevatorId) {
+        if (!snapshot.byId.containsKey(elevatorId)) {
+            return null;
+        }
+        Map<String, Elevator> byId = new HashMap<>(snapshot.byId);
+        Elevator removed = byId.remove(elevatorId);
+        snapshot = Snapshot.of(byId);
+        return removed;
+    }
+
+    synchronized Elevator[] clear() {
+        Elevator[] removed = snapshot.all;
+        snapshot = Snapshot.EMPTY;
+        return removed;
+    }
+
+    /**
+     * immutable view of the registered fleet
+     */
+    static final class Snapshot {
+        static final Snapshot EMPTY = of(Map.of());
+
+        final Map<String, Elevator> byId;
+        final Elevator[] all;
+        final PublicElevator[] publicCars;
+        final FreightElevator[] freightCars;
+
+        private Snapshot(Map<String, Elevator> byId, Elevator[] all,
+                PublicElevator[] publicCars, FreightElevator[] freightCars) {
+            this.byId = byId;
+            this.all = all;
+            this.publicCars = publicCars;
+            this.freightCars = freightCars;
+        }
+
+        static Snapshot of(Map<String, Elevator> byId) {
+            List<PublicElevator> publicCars = new ArrayList<>();
+            List<FreightElevator> freightCars = new ArrayList<>();
+            for (Elevator elevator : byId.values()) {
+                if (elevator instanceof PublicElevator) {
+                    publicCars.add((PublicElevator) elevator);
+                } else if (elevator instanceof FreightElevator) {
+                    freightCars.add((FreightElevator) elevator);
+                }
+            }
+            return new Snapshot(Map.copyOf(byId), byId.values().toArray(new Elevator[0]),
+                    publicCars.toArray(new PublicElevator[0]), freightCars.toArray(new FreightElevator[0]));
+        }
+
+        Elevator[] carsOfType(ElevatorRequest.ElevatorType type) {
+            return type == ElevatorRequest.ElevatorType.PUBLIC ? publicCars : freightCars;
+        }
+    }
+}
@@ -2,18 +2,28 @@ package org.victor.dispatch;
 
 import lombok.Getter;
 import lombok.ToString;
+import org.victor.Direction;
 
 
 @Getter
 @ToString
 public class ElevatorRequest {
-    
+
+    public static final int UNKNOWN_FLOOR = -1;
+
     private final String requestId;
     private final String userId;
     private final int targetFloor;
     private final ElevatorType elevatorType;
     private final boolean hasKeycard;
     private final long createdAt;
+    // monotonic creation time for latency measurements
+    @ToString.Exclude
+    private final long createdAtNanos;
+    // set for hall calls (floor button pressed in a direction), null for car calls
+    private final Direction direction;
+    // floor the passenger starts from when known, UNKNOWN_FLOOR otherwise
+    private final int originFloor;
 
     public enum ElevatorType {
         PUBLIC,
@@ -21,18 +31,57 @@ public class ElevatorRequest {
     }
 
     public ElevatorRequest(String userId, int targetFloor, ElevatorType elevatorType, boolean hasKeycard) {
+        this(userId, UNKNOWN_FLOOR, targetFloor, null, elevatorType, hasKeycard);
+    }
+
+    /**
+     * trip from a known origin floor to a target floor
+     */
+    public ElevatorRequest(String userId, int originFloor, int targetFloor, ElevatorType elevatorType,
+            boolean hasKeycard) {
+        this(userId, originFloor, targetFloor, null, elevatorType, hasKeycard);
+    }
+
+    /**
+     * hall call: a car is requested at {@code floor} to travel in {@code direction}
+     */
+    public ElevatorRequest(String userId, int floor, Direction direction, ElevatorType elevatorType,
+            boolean hasKeycard) {
+        this(userId, UNKNOWN_FLOOR, floor, direction, elevatorType, hasKeycard);
+    }
+
+    private ElevatorRequest(String userId, int originFloor, int floor, Direction direction,
+            ElevatorType elevatorType, boolean hasKeycard) {
+        if (direction == Direction.IDLE) {
+            throw new IllegalArgumentException("Hall call direction must be UP or DOWN");
+        }
         this.requestId = java.util.UUID.randomUUID().toString();
         this.userId = userId;
-        this.targetFloor = targetFloor;
+        this.targetFloor = floor;
+        this.direction = direction;
+        this.originFloor = originFloor;
         this.elevatorType = elevatorType;
         this.hasKeycard = hasKeycard;
         this.createdAt = System.currentTimeMillis();
+        this.createdAtNanos = System.nanoTime();
     }
 
     public long getAgeMs() {
         return System.currentTimeMillis() - createdAt;
     }
 
+    public long getAgeNanos() {
+        return System.nanoTime() - createdAtNanos;
+    }
+
+    public boolean hasOrigin() {
+        return originFloor != UNKNOWN_FLOOR;
+    }
+
+    public boolean isHallCall() {
+        return direction != null;
+    }
+
     public boolean hasKeycard() {
         return this.hasKeycard;
     }
@@ -0,0 +1,81 @@
+package org.victor.dispatch;
+
+import org.victor.Direction;
+import org.victor.Elevator;
+import org.victor.PackedElevatorState;
+
+import java.util.OptionalInt;
+
+/**
+ * Scores each car by its estimated time of arrival (in seconds) at the target floor.
+ * A car travelling away from the target has to finish its sweep before turning back,
+ * every pending stop adds a door cycle, and cars that are close to full are penalised
+ * because each boarding stop takes longer and may not fit.
+ *
+ * Scoring takes no locks: floor and load come from the car's packed state, and the
+ * stop count and turnaround stop from the summary the car publishes on every change
+ * to its stop queue.
+ */
+public class EtaDispatchStrategy implements DispatchStrategy {
+
+    public static final double PASSENGER_WEIGHT_KG = 75;
+
+    private final double secondsPerFloor;
+    private final double stopSeconds;
+
+    public EtaDispatchStrategy() {
+        this(1.5, 10.0);
+    }
+
+    public EtaDispatchStrategy(double secondsPerFloor, double stopSeconds) {
+        if (secondsPerFloor <= 0 || stopSeconds < 0) {
+            throw new IllegalArgumentException("Invalid ETA timings: " + secondsPerFloor + "s/floor, "
+                    + stopSeconds + "s/stop");
+        }
+        this.secondsPerFloor = secondsPerFloor;
+        this.stopSeconds = stopSeconds;
+    }
+
+    @Override
+    public double cost(Elevator elevator, ElevatorRequest request) {
+        // floor and load from the same snapshot
+        long state = elevator.getStateSnapshot();
+        double weight = PackedElevatorState.weight(state);
+        if (elevator.getMaxWeight() - weight < PASSENGER_WEIGHT_KG) {
+            return UNAVAILABLE;
+        }
+
+        int floor = PackedElevatorState.floor(state);
+        double travelSeconds = travelFloors(elevator, floor, request.getTargetFloor()) * secondsPerFloor;
+        double stopsSeconds = elevator.getPendingStopCount() * stopSeconds;
+
+        // a loaded car spends longer at each stop and is less likely to take everyone waiting
+        double loadFactor = weight / elevator.getMaxWeight();
+        return travelSeconds + stopsSeconds + stopSeconds * loadFactor;
+    }
+
+    /**
+     * floors travelled before reaching the target, including the detour to the
+     * turnaround stop when the target is behind the car
+     */
+    private static int travelFloors(Elevator elevator, int floor, int targetFloor) {
+        Direction direction = elevator.getDirection();
+        boolean behind = (direction == Direction.UP && targetFloor < floor)
+                || (direction == Direction.DOWN && targetFloor > floor);
+        if (!behind) {
+            return Math.abs(targetFloor - floor);
+        }
+
+        OptionalInt turnaround = elevator.getTurnaroundStop();
+        if (turnaround.isEmpty()) {
+            return Math.abs(targetFloor - floor);
+        }
+        int turn = turnaround.getAsInt();
+        return Math.abs(turn - floor) + Math.abs(turn - targetFloor);
+    }
+
+    @Override
+    public String getName() {
+        return "eta";
+    }
+}
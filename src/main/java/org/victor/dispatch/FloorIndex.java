@@ -0,0 +1,124 @@
+package org.victor.dispatch;
+
+import org.victor.Elevator;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Floor-bucketed index of operational elevators, kept current through
+ * {@link Elevator.StateListener} callbacks so nearest-car lookups do not
+ * have to scan the whole fleet. Emptied buckets are kept (there is at most one per
+ * floor) so that moves between floors already seen do not allocate.
+ *
+ * There is no index-wide lock: every update to a car runs inside
+ * {@code positions.compute} for that car, so cars moving at the same time only
+ * contend when they hash to the same bin, and buckets are concurrent sets. A lookup
+ * may briefly see a moving car on both its old and new floor, or on neither.
+ */
+class FloorIndex implements Elevator.StateListener {
+
+    private final ConcurrentNavigableMap<Integer, Set<Elevator>> buckets = new ConcurrentSkipListMap<>();
+    private final ConcurrentHashMap<Elevator, Integer> positions = new ConcurrentHashMap<>();
+
+    /**
+     * index an operational elevator at its current floor, unless it is already indexed
+     */
+    void add(Elevator elevator) {
+        // checked under the car's entry, so a shutdown callback either runs after the
+        // car is placed (and removes it) or has already made the check fail
+        positions.compute(elevator, (car, floor) -> {
+            if (floor != null) {
+                return floor;
+            }
+            if (!car.isOperational()) {
+                return null;
+            }
+            int current = car.getCurrentFloor();
+            bucket(current).add(car);
+            return current;
+        });
+    }
+
+    /**
+     * drop an elevator from the index
+     */
+    void remove(Elevator elevator) {
+        positions.computeIfPresent(elevator, (car, floor) -> {
+            removeFromBucket(car, floor);
+            return null;
+        });
+    }
+
+    /**
+     * closest indexed elevator to the target floor, or null if none is indexed
+     */
+    Elevator nearest(int targetFloor) {
+        Map.Entry<Integer, Set<Elevator>> below = buckets.floorEntry(targetFloor);
+        Elevator belowCar = null;
+        while (below != null && (belowCar = any(below.getValue())) == null) {
+            below = buckets.lowerEntry(below.getKey());
+        }
+        Map.Entry<Integer, Set<Elevator>> above = buckets.ceilingEntry(targetFloor);
+        Elevator aboveCar = null;
+        while (above != null && (aboveCar = any(above.getValue())) == null) {
+            above = buckets.higherEntry(above.getKey());
+        }
+        if (belowCar == null) {
+            return aboveCar;
+        }
+        if (aboveCar == null) {
+            return belowCar;
+        }
+        return targetFloor - below.getKey() <= above.getKey() - targetFloor ? belowCar : aboveCar;
+    }
+
+    int size() {
+        return positions.size();
+    }
+
+    void clear() {
+        for (Elevator elevator : positions.keySet()) {
+            remove(elevator);
+        }
+    }
+
+    @Override
+    public void onFloorChanged(Elevator elevator, int previousFloor, int newFloor) {
+        // only cars still indexed move, a callback racing remove() must not add the car back
+        positions.computeIfPresent(elevator, (car, floor) -> {
+            if (floor != newFloor) {
+                removeFromBucket(car, floor);
+                bucket(newFloor).add(car);
+            }
+            return newFloor;
+        });
+    }
+
+    @Override
+    public void onShutdown(Elevator elevator) {
+        remove(elevator);
+    }
+
+    private Set<Elevator> bucket(int floor) {
+        Set<Elevator> bucket = buckets.get(floor);
+        return bucket != null ? bucket : buckets.computeIfAbsent(floor, f -> ConcurrentHashMap.newKeySet(2));
+    }
+
+    private void removeFromBucket(Elevator elevator, int floor) {
+        Set<Elevator> bucket = buckets.get(floor);
+        if (bucket != null) {
+            bucket.remove(elevator);
+        }
+    }
+
+    // some car of the bucket, null if it is (or just became) empty
+    private static Elevator any(Set<Elevator> bucket) {
+        Iterator<Elevator> cars = bucket.iterator();
+        return cars.hasNext() ? cars.next() : null;
+    }
+}
@@ -0,0 +1,246 @@
+package org.victor.dispatch;
+
+import org.victor.Direction;
+import org.victor.Elevator;
+import org.victor.exception.InvalidFloorException;
+
+import java.util.BitSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Pending hall calls kept as per-floor up/down bitsets (one pair per elevator type).
+ * Repeated presses of the same button while a call is pending join the existing
+ * call and share its assignment instead of producing a new dispatch.
+ *
+ * The board covers the floors of the cars registered so far, negative floors included,
+ * and only grows. Joining, releasing and growing take the board's lock, so a press
+ * never joins a call that is being served; button state is read without it.
+ */
+class HallCallBoard {
+
+    private static final int LANES = ElevatorRequest.ElevatorType.values().length * Direction.values().length;
+
+    // replaced as a whole under the lock when the floor range grows
+    private volatile Layout layout = new Layout(0, 0);
+
+    /**
+     * widen the board to cover floors {@code minFloor..maxFloor}, keeping pending calls
+     */
+    synchronized void cover(int minFloor, int maxFloor) {
+        Layout current = layout;
+        if (current.floorCount > 0 && minFloor >= current.minFloor && maxFloor <= current.maxFloor()) {
+            return;
+        }
+        int low = current.floorCount > 0 ? Math.min(minFloor, current.minFloor) : minFloor;
+        int high = current.floorCount > 0 ? Math.max(maxFloor, current.maxFloor()) : maxFloor;
+        Layout grown = new Layout(low, high - low + 1);
+        for (int slot = 0; slot < current.calls.length; slot++) {
+            PendingCall call = current.calls[slot];
+            if (call != null) {
+                int lane = slot / current.floorCount;
+                int floor = current.minFloor + slot % current.floorCount;
+                grown.calls[grown.slot(lane, floor)] = call;
+                grown.setBit(lane, floor);
+            }
+        }
+        layout = grown;
+    }
+
+    /**
+     * register a hall call, joining the pending one for the same floor, direction and type if any
+     */
+    synchronized PendingCall join(ElevatorRequest request) {
+        Layout current = layout;
+        int floor = request.getTargetFloor();
+        if (!current.covers(floor)) {
+            throw new InvalidFloorException(floor, current.minFloor, current.maxFloor());
+        }
+        int lane = lane(request.getElevatorType(), request.getDirection());
+        int slot = current.slot(lane, floor);
+
+        PendingCall existing = current.calls[slot];
+        if (existing != null) {
+            existing.waiters.incrementAndGet();
+            return existing;
+        }
+        PendingCall created = new PendingCall(request);
+        current.calls[slot] = created;
+        current.setBit(lane, floor);
+        return created;
+    }
+
+    /**
+     * the call has been served: clear its button and hand the car to every waiter
+     */
+    void complete(ElevatorRequest request, Elevator elevator) {
+        PendingCall call = release(request);
+        if (call != null) {
+            call.future.complete(elevator);
+        }
+    }
+
+    /**
+     * the call could not be served: clear its button and fail every waiter
+     */
+    void fail(ElevatorRequest request, Throwable cause) {
+        PendingCall call = release(request);
+        if (call != null) {
+            call.future.completeExceptionally(cause);
+        }
+    }
+
+    boolean isPending(ElevatorRequest.ElevatorType type, int floor, Direction direction) {
+        Layout current = layout;
+        return current.covers(floor) && current.isSet(lane(type, direction), floor);
+    }
+
+    /**
+     * snapshot of floors with a pending call for the given type and direction;
+     * bit {@code i} stands for floor {@code getMinFloor() + i}
+     */
+    BitSet pendingFloors(ElevatorRequest.ElevatorType type, Direction direction) {
+        Layout current = layout;
+        int base = lane(type, direction) * current.wordsPerLane;
+        long[] words = new long[current.wordsPerLane];
+        for (int i = 0; i < current.wordsPerLane; i++) {
+            words[i] = current.bits.get(base + i);
+        }
+        return BitSet.valueOf(words);
+    }
+
+    // lowest floor covered, 0 until a range is covered
+    int getMinFloor() {
+        return layout.minFloor;
+    }
+
+    int pendingCount() {
+        AtomicLongArray bits = layout.bits;
+        int count = 0;
+        for (int i = 0; i < bits.length(); i++) {
+            count += Long.bitCount(bits.get(i));
+        }
+        return count;
+    }
+
+    /**
+     * fail and clear every pending call
+     */
+    void clear(Throwable cause) {
+        PendingCall[] cleared;
+        synchronized (this) {
+            Layout current = layout;
+            cleared = current.calls.clone();
+            layout = new Layout(current.minFloor, current.floorCount);
+        }
+        for (PendingCall call : cleared) {
+            if (call != null) {
+                call.future.completeExceptionally(cause);
+            }
+        }
+    }
+
+    private synchronized PendingCall release(ElevatorRequest request) {
+        Layout current = layout;
+        int floor = request.getTargetFloor();
+        if (!current.covers(floor)) {
+            return null;
+        }
+        int lane = lane(request.getElevatorType(), request.getDirection());
+        int slot = current.slot(lane, floor);
+
+        PendingCall call = current.calls[slot];
+        if (call == null || call.request != request) {
+            return null;
+        }
+        // presses after this point open a new call
+        current.calls[slot] = null;
+        current.clearBit(lane, floor);
+        return call;
+    }
+
+    private static int lane(ElevatorRequest.ElevatorType type, Direction direction) {
+        return type.ordinal() * Direction.values().length + direction.ordinal();
+    }
+
+    /**
+     * Button bits and pending calls for floors {@code minFloor .. minFloor + floorCount - 1}.
+     * Calls and bit writes are guarded by the board's lock; bits are atomic so
+     * they can be read without it.
+     */
+    private static final class Layout {
+        final int minFloor;
+        final int floorCount;
+        final int wordsPerLane;
+        // bit (lane, floor - minFloor) is set while a call is pending
+        final AtomicLongArray bits;
+        final PendingCall[] calls;
+
+        Layout(int minFloor, int floorCount) {
+            this.minFloor = minFloor;
+            this.floorCount = floorCount;
+            this.wordsPerLane = (floorCount + 63) >>> 6;
+            this.bits = new AtomicLongArray(LANES * wordsPerLane);
+            this.calls = new PendingCall[LANES * floorCount];
+        }
+
+        int maxFloor() {
+            return minFloor + floorCount - 1;
+        }
+
+        boolean covers(int floor) {
+            return floor >= minFloor && floor - minFloor < floorCount;
+        }
+
+        int slot(int lane, int floor) {
+            return lane * floorCount + (floor - minFloor);
+        }
+
+        boolean isSet(int lane, int floor) {
+            int offset = floor - minFloor;
+            return (bits.get(lane * wordsPerLane + (offset >>> 6)) & (1L << offset)) != 0;
+        }
+
+        void setBit(int lane, int floor) {
+            int offset = floor - minFloor;
+            int word = lane * wordsPerLane + (offset >>> 6);
+            bits.set(word, bits.get(word) | (1L << offset));
+        }
+
+        void clearBit(int lane, int floor) {
+            int offset = floor - minFloor;
+            int word = lane * wordsPerLane + (offset >>> 6);
+            bits.set(word, bits.get(word) & ~(1L << offset));
+        }
+    }
+
+    /**
+     * a pending hall call shared by everyone who pressed the same button
+     */
+    static final class PendingCall {
+        private final ElevatorRequest request;
+        private final CompletableFuture<Elevator> future = new CompletableFuture<>();
+        private final AtomicInteger waiters = new AtomicInteger(1);
+
+        private PendingCall(ElevatorRequest request) {
+            this.request = request;
+        }
+
+        ElevatorRequest getRequest() {
+            return request;
+        }
+
+        CompletableFuture<Elevator> getFuture() {
+            return future;
+        }
+
+        int getWaiters() {
+            return waiters.get();
+        }
+
+        boolean isOwner(ElevatorRequest candidate) {
+            return request == candidate;
+        }
+    }
+}
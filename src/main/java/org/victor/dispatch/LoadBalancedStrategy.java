@@ -0,0 +1,32 @@
+package org.victor.dispatch;
+
+import org.victor.Elevator;
+import org.victor.PackedElevatorState;
+
+/**
+ * Spreads requests across the bank by preferring the least loaded car,
+ * using distance only to break ties between cars with similar load
+ */
+public class LoadBalancedStrategy implements DispatchStrategy {
+
+    // load is bucketed so that small weight differences fall back to distance
+    private static final int LOAD_BUCKETS = 10;
+
+    @Override
+    public double cost(Elevator elevator, ElevatorRequest request) {
+        long state = elevator.getStateSnapshot();
+        double weight = PackedElevatorState.weight(state);
+        if (elevator.getMaxWeight() - weight < EtaDispatchStrategy.PASSENGER_WEIGHT_KG) {
+            return UNAVAILABLE;
+        }
+
+        int loadBucket = (int) (weight / elevator.getMaxWeight() * LOAD_BUCKETS);
+        int distance = Math.abs(PackedElevatorState.floor(state) - request.getTargetFloor());
+        return loadBucket * (double) (elevator.getTotalFloors() + 1) + distance;
+    }
+
+    @Override
+    public String getName() {
+        return "load-balanced";
+    }
+}
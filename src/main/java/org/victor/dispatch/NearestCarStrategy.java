@@ -0,0 +1,19 @@
+package org.victor.dispatch;
+
+import org.victor.Elevator;
+
+/**
+ * Assigns the car that is physically closest to the target floor
+ */
+public class NearestCarStrategy implements DispatchStrategy {
+
+    @Override
+    public double cost(Elevator elevator, ElevatorRequest request) {
+        return Math.abs(elevator.getCurrentFloor() - request.getTargetFloor());
+    }
+
+    @Override
+    public String getName() {
+        return "nearest-car";
+    }
+}
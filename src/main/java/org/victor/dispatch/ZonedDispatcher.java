@@ -0,0 +1,331 @@
+package org.victor.dispatch;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.victor.Elevator;
+import org.victor.FreightElevator;
+import org.victor.PublicElevator;
+import org.victor.audit.AuditLogger;
+import org.victor.exception.DispatchRejectedException;
+import org.victor.exception.InvalidFloorException;
+import org.victor.monitoring.SystemMonitor;
+import org.victor.security.UserManager;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Dispatcher for buildings with several elevator banks. Each zone (floor range and
+ * elevator type) is an independent shard with its own {@link ElevatorDispatcher},
+ * request queue and dispatch thread. Trips between zones are split into two legs
+ * that transfer at the sky lobby; the second leg is submitted from a transfer thread
+ * of its own, so a full target queue never holds up a shard's dispatch thread.
+ */
+@Slf4j
+public class ZonedDispatcher {
+
+    private final List<Shard> shards;
+    private final Map<String, Shard> shardsByZone = new HashMap<>();
+    private final int skyLobbyFloor;
+    private final String strategyName;
+    // second legs of cross-zone trips, created on start
+    private volatile ExecutorService transfers;
+
+    private ZonedDispatcher(Builder builder) {
+        this.skyLobbyFloor = builder.skyLobbyFloor;
+        List<Shard> created = new ArrayList<>();
+        for (Zone zone : builder.zones) {
+            ElevatorDispatcher dispatcher = new ElevatorDispatcher(builder.auditLogger, builder.systemMonitor,
+                    builder.userManager, builder.strategyFactory.get());
+            DispatchService service = new DispatchService.Builder(dispatcher)
+                    .workers(builder.workersPerShard)
+                    .queueCapacity(builder.queueCapacity)
+                    .rejectionPolicy(builder.rejectionPolicy)
+                    .build();
+            Shard shard = new Shard(zone, dispatcher, service);
+            created.add(shard);
+            shardsByZone.put(zone.getName(), shard);
+        }
+        this.shards = List.copyOf(created);
+        this.strategyName = shards.get(0).dispatcher.getDispatchStrategy().getName();
+        log.info("ZonedDispatcher initialized with zones {} and sky lobby at floor {}",
+                shardsByZone.keySet(), skyLobbyFloor);
+    }
+
+    /**
+     * register an elevator in the bank serving the given zone; the car must be of the
+     * zone's type and reach every floor of it
+     */
+    public void registerElevator(String zoneName, Elevator elevator) {
+        Shard shard = shard(zoneName);
+        Zone zone = shard.zone;
+        ElevatorRequest.ElevatorType type = elevator instanceof PublicElevator
+                ? ElevatorRequest.ElevatorType.PUBLIC
+                : elevator instanceof FreightElevator ? ElevatorRequest.ElevatorType.FREIGHT : null;
+        if (type != zone.getElevatorType()) {
+            throw new IllegalArgumentException(String.format("Elevator %s is not a %s elevator for zone %s",
+                    elevator.getElevatorId(), zone.getElevatorType(), zone.getName()));
+        }
+        if (zone.getMinFloor() < elevator.getMinFloor() || zone.getMaxFloor() > elevator.getTotalFloors()) {
+            throw new IllegalArgumentException(String.format("Elevator %s serves floors %d..%d, zone %s needs %d..%d",
+                    elevator.getElevatorId(), elevator.getMinFloor(), elevator.getTotalFloors(), zone.getName(),
+                    zone.getMinFloor(), zone.getMaxFloor()));
+        }
+        shard.dispatcher.registerElevator(elevator);
+    }
+
+    public void unregisterElevator(String zoneName, String elevatorId) {
+        shard(zoneName).dispatcher.unregisterElevator(elevatorId);
+    }
+
+    /**
+     * start the dispatch thread of every zone
+     */
+    public synchronized void start() {
+        if (transfers != null) {
+            throw new IllegalStateException("Zoned dispatcher already running");
+        }
+        transfers = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "zone-transfer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (Shard shard : shards) {
+            shard.service.start();
+        }
+    }
+
+    public synchronized void stop(long timeoutMs) throws InterruptedException {
+        for (Shard shard : shards) {
+            shard.service.stop(timeoutMs);
+        }
+        ExecutorService executor = transfers;
+        if (executor != null) {
+            // pending second legs are rejected by the stopped services
+            executor.shutdown();
+            executor.awaitTermination(timeoutMs, TimeUnit.MILLISECONDS);
+            transfers = null;
+        }
+    }
+
+    /**
+     * route a request to the zone serving its target floor. Trips whose origin is in another
+     * zone first ride from the origin to the sky lobby in the origin zone; the second leg is
+     * submitted to the target zone once the first car has reached the lobby.
+     */
+    public CompletableFuture<Elevator> submit(ElevatorRequest request) {
+        Shard target = route(request.getElevatorType(), request.getTargetFloor());
+        if (!request.hasOrigin() || target.zone.contains(request.getOriginFloor())) {
+            return target.service.submit(request);
+        }
+
+        Shard origin = route(request.getElevatorType(), request.getOriginFloor());
+        if (!origin.zone.contains(skyLobbyFloor) || !target.zone.contains(skyLobbyFloor)) {
+            return CompletableFuture.failedFuture(new IllegalStateException(String.format(
+                    "No sky lobby transfer between zones %s and %s", origin.zone.getName(), target.zone.getName())));
+        }
+        Executor executor = transfers;
+        if (executor == null) {
+            return CompletableFuture.failedFuture(new DispatchRejectedException("Zoned dispatcher is not running"));
+        }
+
+        log.debug("Request {} transfers at sky lobby {} ({} -> {})", request.getRequestId(), skyLobbyFloor,
+                origin.zone.getName(), target.zone.getName());
+        ElevatorRequest toLobby = new ElevatorRequest(request.getUserId(), request.getOriginFloor(),
+                skyLobbyFloor, request.getElevatorType(), request.hasKeycard());
+        return origin.service.submit(toLobby)
+                .thenComposeAsync(car -> target.service.submit(new ElevatorRequest(request.getUserId(),
+                        skyLobbyFloor, request.getTargetFloor(), request.getElevatorType(), request.hasKeycard())),
+                        executor);
+    }
+
+    /**
+     * zone serving a floor for the given elevator type
+     */
+    public Zone zoneFor(ElevatorRequest.ElevatorType type, int floor) {
+        return route(type, floor).zone;
+    }
+
+    /**
+     * aggregate statistics over every zone, including requests queued for the dispatch threads
+     */
+    public ElevatorDispatcher.DispatcherStats getStats() {
+        List<ElevatorDispatcher.DispatcherStats> parts = new ArrayList<>();
+        for (Shard shard : shards) {
+            parts.add(shard.stats());
+        }
+        return ElevatorDispatcher.DispatcherStats.combine(strategyName, parts);
+    }
+
+    /**
+     * statistics per zone name
+     */
+    public Map<String, ElevatorDispatcher.DispatcherStats> getZoneStats() {
+        Map<String, ElevatorDispatcher.DispatcherStats> stats = new LinkedHashMap<>();
+        for (Shard shard : shards) {
+            stats.put(shard.zone.getName(), shard.stats());
+        }
+        return stats;
+    }
+
+    public ElevatorDispatcher getZoneDispatcher(String zoneName) {
+        return shard(zoneName).dispatcher;
+    }
+
+    private Shard shard(String zoneName) {
+        Shard shard = shardsByZone.get(zoneName);
+        if (shard == null) {
+            throw new IllegalArgumentException("Zone not found: " + zoneName);
+        }
+        return shard;
+    }
+
+    private Shard route(ElevatorRequest.ElevatorType type, int floor) {
+        for (Shard shard : shards) {
+            if (shard.zone.getElevatorType() == type && shard.zone.contains(floor)) {
+                return shard;
+            }
+        }
+        throw new InvalidFloorException(floor, lowestFloor(type), highestFloor(type));
+    }
+
+    private int lowestFloor(ElevatorRequest.ElevatorType type) {
+        return shards.stream().filter(s -> s.zone.getElevatorType() == type)
+                .mapToInt(s -> s.zone.getMinFloor()).min().orElse(0);
+    }
+
+    private int highestFloor(ElevatorRequest.ElevatorType type) {
+        return shards.stream().filter(s -> s.zone.getElevatorType() == type)
+                .mapToInt(s -> s.zone.getMaxFloor()).max().orElse(0);
+    }
+
+    private static final class Shard {
+        private final Zone zone;
+        private final ElevatorDispatcher dispatcher;
+        private final DispatchService service;
+
+        private Shard(Zone zone, ElevatorDispatcher dispatcher, DispatchService service) {
+            this.zone = zone;
+            this.dispatcher = dispatcher;
+            this.service = service;
+        }
+
+        private ElevatorDispatcher.DispatcherStats stats() {
+            return dispatcher.getStats().withQueuedRequests(service.getQueueDepth());
+        }
+    }
+
+    /**
+     * floor range served by one elevator bank
+     */
+    @Getter
+    public static class Zone {
+        private final String name;
+        private final int minFloor;
+        private final int maxFloor;
+        private final ElevatorRequest.ElevatorType elevatorType;
+
+        public Zone(String name, int minFloor, int maxFloor, ElevatorRequest.ElevatorType elevatorType) {
+            if (minFloor > maxFloor) {
+                throw new IllegalArgumentException("Invalid zone range: " + minFloor + ".." + maxFloor);
+            }
+            this.name = Objects.requireNonNull(name, "name");
+            this.minFloor = minFloor;
+            this.maxFloor = maxFloor;
+            this.elevatorType = Objects.requireNonNull(elevatorType, "elevatorType");
+        }
+
+        public boolean contains(int floor) {
+            return floor >= minFloor && floor <= maxFloor;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Zone{name='%s', floors=%d..%d, type=%s}", name, minFloor, maxFloor, elevatorType);
+        }
+    }
+
+    /**
+     * Builder for a zoned dispatcher
+     */
+    public static class Builder {
+        private final AuditLogger auditLogger;
+        private final SystemMonitor systemMonitor;
+        private final UserManager userManager;
+        private final List<Zone> zones = new ArrayList<>();
+        private Supplier<DispatchStrategy> strategyFactory = EtaDispatchStrategy::new;
+        private int skyLobbyFloor = 1;
+        private int workersPerShard = 1;
+        private int queueCapacity = 1024;
+        private DispatchService.RejectionPolicy rejectionPolicy = DispatchService.RejectionPolicy.BLOCK;
+
+        public Builder(AuditLogger auditLogger, SystemMonitor systemMonitor, UserManager userManager) {
+            this.auditLogger = auditLogger;
+            this.systemMonitor = systemMonitor;
+            this.userManager = userManager;
+        }
+
+        public Builder zone(String name, int minFloor, int maxFloor, ElevatorRequest.ElevatorType type) {
+            Zone zone = new Zone(name, minFloor, maxFloor, type);
+            for (Zone existing : zones) {
+                if (existing.getName().equals(name)) {
+                    throw new IllegalArgumentException("Duplicate zone: " + name);
+                }
+            }
+            zones.add(zone);
+            return this;
+        }
+
+        public Builder skyLobby(int floor) {
+            this.skyLobbyFloor = floor;
+            return this;
+        }
+
+        // each zone gets its own strategy instance
+        public Builder strategy(Supplier<DispatchStrategy> strategyFactory) {
+            this.strategyFactory = Objects.requireNonNull(strategyFactory, "strategyFactory");
+            return this;
+        }
+
+        public Builder workersPerShard(int workers) {
+            this.workersPerShard = workers;
+            return this;
+        }
+
+        public Builder queueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+            return this;
+        }
+
+        public Builder rejectionPolicy(DispatchService.RejectionPolicy rejectionPolicy) {
+            this.rejectionPolicy = Objects.requireNonNull(rejectionPolicy, "rejectionPolicy");
+            return this;
+        }
+
+        public ZonedDispatcher build() {
+            if (zones.isEmpty()) {
+                throw new IllegalStateException("At least one zone is required");
+            }
+            // banks of the same type may only share the sky lobby, any other floor would
+            // route to whichever zone was declared first
+            for (int i = 0; i < zones.size(); i++) {
+                for (int j = i + 1; j < zones.size(); j++) {
+                    Zone a = zones.get(i);
+                    Zone b = zones.get(j);
+                    int low = Math.max(a.getMinFloor(), b.getMinFloor());
+                    int high = Math.min(a.getMaxFloor(), b.getMaxFloor());
+                    if (a.getElevatorType() == b.getElevatorType() && low <= high
+                            && (low != skyLobbyFloor || high != skyLobbyFloor)) {
+                        throw new IllegalArgumentException("Overlapping zones: " + a + " and " + b);
+                    }
+                }
+            }
+            return new ZonedDispatcher(this);
+        }
+    }
+}
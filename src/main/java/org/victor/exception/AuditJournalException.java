@@ -0,0 +1,15 @@
+package org.victor.exception;
+
+/**
+ * thrown when the audit journal cannot be written or read
+ */
+public class AuditJournalException extends ElevatorException {
+
+    public AuditJournalException(String message) {
+        super(message);
+    }
+
+    public AuditJournalException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,11 @@
+package org.victor.exception;
+
+/**
+ * thrown when the dispatch service cannot accept or complete a request
+ */
+public class DispatchRejectedException extends ElevatorException {
+
+    public DispatchRejectedException(String message) {
+        super(message);
+    }
+}
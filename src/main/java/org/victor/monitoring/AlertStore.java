@@ -0,0 +1,124 @@
+package org.victor.monitoring;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Predicate;
+
+/**
+ * Bounded store of health alerts: the latest {@code capacity} alerts in a ring, plus
+ * per-minute counters by severity for the last {@link #MINUTES} minutes. Memory is
+ * fixed at construction, and counting alerts in a recent window reads a handful of
+ * buckets instead of the alerts themselves.
+ *
+ * Writers claim ring slots with one atomic increment. A reader running alongside
+ * writers may miss an alert whose slot is not filled yet, and a minute bucket being
+ * recycled may lose counts from a writer stalled for the whole hour it covers.
+ */
+final class AlertStore {
+
+    static final int MINUTES = 60;
+
+    private static final long MINUTE_MS = 60_000;
+    private static final SystemMonitor.AlertSeverity[] SEVERITIES = SystemMonitor.AlertSeverity.values();
+
+    private final AtomicReferenceArray<SystemMonitor.HealthAlert> alerts;
+    private final AtomicLong head = new AtomicLong();
+
+    // minute each bucket counts, and its counts laid out as [bucket * severities + severity]
+    private final AtomicLongArray bucketMinutes = new AtomicLongArray(MINUTES);
+    private final AtomicLongArray counts = new AtomicLongArray(MINUTES * SEVERITIES.length);
+
+    AlertStore(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Alert capacity must be positive: " + capacity);
+        }
+        this.alerts = new AtomicReferenceArray<>(capacity);
+        for (int bucket = 0; bucket < MINUTES; bucket++) {
+            bucketMinutes.set(bucket, -1);
+        }
+    }
+
+    void add(SystemMonitor.HealthAlert alert) {
+        long sequence = head.getAndIncrement();
+        alerts.set((int) (sequence % alerts.length()), alert);
+
+        long minute = alert.getTimestamp() / MINUTE_MS;
+        int bucket = (int) (minute % MINUTES);
+        if (bucketMinutes.get(bucket) != minute) {
+            rotate(bucket, minute);
+        }
+        counts.incrementAndGet(bucket * SEVERITIES.length + alert.getSeverity().ordinal());
+    }
+
+    // once a minute per bucket, so a lock here costs nothing on the common path
+    private synchronized void rotate(int bucket, long minute) {
+        if (bucketMinutes.get(bucket) >= minute) {
+            return;
+        }
+        for (int severity = 0; severity < SEVERITIES.length; severity++) {
+            counts.set(bucket * SEVERITIES.length + severity, 0);
+        }
+        bucketMinutes.set(bucket, minute);
+    }
+
+    /**
+     * alerts of the given severity in the minute buckets overlapping the last
+     * {@code windowMs} (at most {@link #MINUTES} minutes); null severity counts all
+     */
+    long count(SystemMonitor.AlertSeverity severity, long windowMs) {
+        long nowMs = System.currentTimeMillis();
+        long now = nowMs / MINUTE_MS;
+        long oldest = Math.max(now - MINUTES + 1, (nowMs - windowMs) / MINUTE_MS);
+        long total = 0;
+        for (int bucket = 0; bucket < MINUTES; bucket++) {
+            long minute = bucketMinutes.get(bucket);
+            if (minute < oldest || minute > now) {
+                continue;
+            }
+            if (severity != null) {
+                total += counts.get(bucket * SEVERITIES.length + severity.ordinal());
+            } else {
+                for (int s = 0; s < SEVERITIES.length; s++) {
+                    total += counts.get(bucket * SEVERITIES.length + s);
+                }
+            }
+        }
+        return total;
+    }
+
+    /**
+     * retained alerts matching the filter, oldest first
+     */
+    List<SystemMonitor.HealthAlert> select(Predicate<SystemMonitor.HealthAlert> filter) {
+        long end = head.get();
+        long start = Math.max(0, end - alerts.length());
+        List<SystemMonitor.HealthAlert> result = new ArrayList<>();
+        for (long sequence = start; sequence < end; sequence++) {
+            SystemMonitor.HealthAlert alert = alerts.get((int) (sequence % alerts.length()));
+            if (alert != null && filter.test(alert)) {
+                result.add(alert);
+            }
+        }
+        return result;
+    }
+
+    int capacity() {
+        return alerts.length();
+    }
+
+    synchronized void clear() {
+        for (int i = 0; i < alerts.length(); i++) {
+            alerts.set(i, null);
+        }
+        head.set(0);
+        for (int bucket = 0; bucket < MINUTES; bucket++) {
+            bucketMinutes.set(bucket, -1);
+        }
+        for (int i = 0; i < counts.length(); i++) {
+            counts.set(i, 0);
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package org.victor.monitoring;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.victor.Elevator;
+import org.victor.FreightElevator;
+import org.victor.PublicElevator;
+import org.victor.audit.AuditLogger;
+import org.victor.dispatch.DispatchLatency;
+import org.victor.dispatch.ElevatorDispatcher;
+import org.victor.dispatch.ElevatorRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Micrometer binding for the elevator system: per-elevator counters and gauges tagged
+ * with the elevator ID and type, dispatcher gauges, dispatch latency percentiles and
+ * audit throughput.
+ *
+ * Every meter reads its source counter or field directly, so a scrape costs one read
+ * per meter and never walks {@link SystemMonitor#getAllMetrics()}. Elevators that join
+ * or leave the dispatcher after binding get their meters added or removed.
+ */
+@Slf4j
+public class ElevatorMeterBinder implements MeterBinder, ElevatorDispatcher.FleetListener {
+
+    public static final String TAG_ELEVATOR_ID = "elevator.id";
+    public static final String TAG_ELEVATOR_TYPE = "elevator.type";
+
+    private static final double[] LATENCY_QUANTILES = {0.5, 0.95, 0.99};
+
+    private final ElevatorDispatcher dispatcher;
+    private final AuditLogger auditLogger;
+    private final List<MeterRegistry> registries = new CopyOnWriteArrayList<>();
+    private final Map<String, List<Meter>> elevatorMeters = new ConcurrentHashMap<>();
+
+    public ElevatorMeterBinder(ElevatorDispatcher dispatcher) {
+        this(dispatcher, null);
+    }
+
+    // audit meters are skipped without an audit logger
+    public ElevatorMeterBinder(ElevatorDispatcher dispatcher, AuditLogger auditLogger) {
+        this.dispatcher = Objects.requireNonNull(dispatcher, "dispatcher");
+        this.auditLogger = auditLogger;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (registries.isEmpty()) {
+            dispatcher.addFleetListener(this);
+        }
+        registries.add(registry);
+
+        Gauge.builder("dispatcher.queue.depth", dispatcher, ElevatorDispatcher::getPendingRequestCount)
+                .description("Requests waiting to be dispatched")
+                .register(registry);
+        Gauge.builder("dispatcher.hall.calls", dispatcher, ElevatorDispatcher::getPendingHallCallCount)
+                .description("Hall calls waiting for an elevator")
+                .register(registry);
+        Gauge.builder("dispatcher.elevators.operational", dispatcher, ElevatorDispatcher::getOperationalCount)
+                .description("Registered elevators in service")
+                .register(registry);
+
+        DispatchLatency latency = dispatcher.getLatency();
+        for (DispatchLatency.Stage stage : DispatchLatency.Stage.values()) {
+            for (ElevatorRequest.ElevatorType type : ElevatorRequest.ElevatorType.values()) {
+                for (double quantile : LATENCY_QUANTILES) {
+                    Gauge.builder("dispatch.latency", latency, l -> l.percentile(stage, type, quantile * 100))
+                            .tags("stage", stage.name().toLowerCase(), TAG_ELEVATOR_TYPE, type.name().toLowerCase(),
+                                    "quantile", String.valueOf(quantile))
+                            .baseUnit("microseconds")
+                            .register(registry);
+                }
+            }
+        }
+
+        if (auditLogger != null) {
+            FunctionCounter.builder("audit.events.recorded", auditLogger, AuditLogger::getRecordedCount)
+                    .description("Audit events stored")
+                    .register(registry);
+            FunctionCounter.builder("audit.events.dropped", auditLogger, AuditLogger::getDroppedCount)
+                    .description("Audit events discarded by the overflow policy")
+                    .register(registry);
+            Gauge.builder("audit.queue.depth", auditLogger, AuditLogger::getQueueDepth)
+                    .description("Audit events waiting for the writer thread")
+                    .register(registry);
+        }
+
+        for (Elevator elevator : dispatcher.getAllElevators()) {
+            bindElevator(registry, elevator);
+        }
+    }
+
+    @Override
+    public void onRegistered(Elevator elevator) {
+        for (MeterRegistry registry : registries) {
+            bindElevator(registry, elevator);
+        }
+    }
+
+    @Override
+    public void onUnregistered(Elevator elevator) {
+        List<Meter> meters = elevatorMeters.remove(elevator.getElevatorId());
+        if (meters == null) {
+            return;
+        }
+        for (MeterRegistry registry : registries) {
+            for (Meter meter : meters) {
+                registry.remove(meter);
+            }
+        }
+    }
+
+    private void bindElevator(MeterRegistry registry, Elevator elevator) {
+        Tags tags = Tags.of(TAG_ELEVATOR_ID, elevator.getElevatorId(), TAG_ELEVATOR_TYPE, type(elevator));
+        List<Meter> meters = new ArrayList<>();
+
+        meters.add(Gauge.builder("elevator.load", elevator, Elevator::getCurrentWeight)
+                .tags(tags)
+                .baseUnit("kilograms")
+                .description("Current load")
+                .register(registry));
+        meters.add(Gauge.builder("elevator.floor", elevator, Elevator::getCurrentFloor)
+                .tags(tags)
+                .register(registry));
+        meters.add(Gauge.builder("elevator.operational", elevator, e -> e.isOperational() ? 1 : 0)
+                .tags(tags)
+                .register(registry));
+
+        ElevatorMetrics metrics = elevator.getMetrics();
+        if (metrics != null) {
+            meters.add(FunctionCounter.builder("elevator.moves", metrics, ElevatorMetrics::getTotalMoves)
+                    .tags(tags)
+                    .description("Floor changes")
+                    .register(registry));
+            meters.add(FunctionCounter.builder("elevator.weight.added", metrics,
+                            ElevatorMetrics::getTotalWeightAdded)
+                    .tags(tags)
+                    .baseUnit("kilograms")
+                    .register(registry));
+            meters.add(FunctionCounter.builder("elevator.weight.removed", metrics,
+                            ElevatorMetrics::getTotalWeightRemoved)
+                    .tags(tags)
+                    .baseUnit("kilograms")
+                    .register(registry));
+            meters.add(FunctionCounter.builder("elevator.overloads", metrics, ElevatorMetrics::getOverloadCount)
+                    .tags(tags)
+                    .register(registry));
+            meters.add(FunctionCounter.builder("elevator.shutdowns", metrics, ElevatorMetrics::getShutdownCount)
+                    .tags(tags)
+                    .register(registry));
+            meters.add(Gauge.builder("elevator.passengers", metrics, ElevatorMetrics::getCurrentPassengers)
+                    .tags(tags)
+                    .register(registry));
+        }
+
+        elevatorMeters.merge(elevator.getElevatorId(), meters, (existing, added) -> {
+            List<Meter> merged = new ArrayList<>(existing);
+            merged.addAll(added);
+            return merged;
+        });
+        log.debug("Bound {} meters for elevator {}", meters.size(), elevator.getElevatorId());
+    }
+
+    private static String type(Elevator elevator) {
+        if (elevator instanceof PublicElevator) {
+            return "public";
+        }
+        if (elevator instanceof FreightElevator) {
+            return "freight";
+        }
+        return elevator.getClass().getSimpleName().toLowerCase();
+    }
+}
@@ -1,73 +1,166 @@
 package org.victor.monitoring;
 
-import lombok.Getter;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
- * Elevator metrics tracking class
+ * Elevator metrics tracking class.
+ *
+ * Counters are striped {@link LongAdder}s, so threads recording at the same time
+ * rarely touch the same memory; the passenger count and last move time are atomic
+ * gauges. Reading a counter sums its stripes, use {@link #snapshot()} to read them all.
  */
-@Getter
 public class ElevatorMetrics {
-    
+
     private final String elevatorId;
-    private final AtomicLong totalMoves = new AtomicLong(0);
-    private final AtomicLong totalWeightAdded = new AtomicLong(0);
-    private final AtomicLong totalWeightRemoved = new AtomicLong(0);
-    private final AtomicLong overloadCount = new AtomicLong(0);
-    private final AtomicLong shutdownCount = new AtomicLong(0);
+    private final LongAdder totalMoves = new LongAdder();
+    private final LongAdder totalWeightAdded = new LongAdder();
+    private final LongAdder totalWeightRemoved = new LongAdder();
+    private final LongAdder overloadCount = new LongAdder();
+    private final LongAdder shutdownCount = new LongAdder();
     private final long createdAt = System.currentTimeMillis();
-    
-    private long lastMoveTime = 0;
-    private long totalOperatingTime = 0;
-    private int currentPassengers = 0;
+
+    private final AtomicLong lastMoveTime = new AtomicLong();
+    private final AtomicInteger currentPassengers = new AtomicInteger();
+
+    // recent activity, for load-driven decisions
+    private final RateMeter moveRate = new RateMeter();
+    private final RateMeter boardingRate = new RateMeter();
+    private final RateMeter overloadRate = new RateMeter();
+
+    /**
+     * Metrics read field by field: each value is exact, but values recorded while the
+     * snapshot is taken may show in some fields and not yet in others.
+     */
+    public record Snapshot(String elevatorId, long totalMoves, long totalWeightAdded, long totalWeightRemoved,
+            long overloadCount, long shutdownCount, int currentPassengers, long lastMoveTime, long uptimeMs) {
+    }
 
     public ElevatorMetrics(String elevatorId) {
         this.elevatorId = elevatorId;
     }
 
     public void recordMove() {
-        totalMoves.incrementAndGet();
-        lastMoveTime = System.currentTimeMillis();
+        totalMoves.increment();
+        moveRate.mark();
+        // concurrent moves may finish out of order, keep the latest; most moves land in
+        // a millisecond that is already stored and need no write at all
+        long now = System.currentTimeMillis();
+        long last = lastMoveTime.get();
+        while (now > last && !lastMoveTime.weakCompareAndSetVolatile(last, now)) {
+            last = lastMoveTime.get();
+        }
     }
 
     public void recordWeightAdded(long weight) {
-        totalWeightAdded.addAndGet(weight);
+        totalWeightAdded.add(weight);
     }
 
     public void recordWeightRemoved(long weight) {
-        totalWeightRemoved.addAndGet(weight);
+        totalWeightRemoved.add(weight);
     }
 
     public void recordOverload() {
-        overloadCount.incrementAndGet();
+        overloadCount.increment();
+        overloadRate.mark();
     }
 
     public void recordShutdown() {
-        shutdownCount.incrementAndGet();
+        shutdownCount.increment();
     }
 
     public void addPassenger() {
-        currentPassengers++;
+        addPassengers(1);
     }
 
     public void removePassenger() {
-        currentPassengers = Math.max(0, currentPassengers - 1);
+        removePassengers(1);
+    }
+
+    public void addPassengers(int count) {
+        currentPassengers.addAndGet(count);
+        boardingRate.mark(count);
+    }
+
+    public void removePassengers(int count) {
+        currentPassengers.updateAndGet(current -> Math.max(0, current - count));
+    }
+
+    public String getElevatorId() {
+        return elevatorId;
+    }
+
+    public long getTotalMoves() {
+        return totalMoves.sum();
+    }
+
+    public long getTotalWeightAdded() {
+        return totalWeightAdded.sum();
+    }
+
+    public long getTotalWeightRemoved() {
+        return totalWeightRemoved.sum();
+    }
+
+    public long getOverloadCount() {
+        return overloadCount.sum();
+    }
+
+    public long getShutdownCount() {
+        return shutdownCount.sum();
+    }
+
+    public int getCurrentPassengers() {
+        return currentPassengers.get();
+    }
+
+    // 0 until the first move
+    public long getLastMoveTime() {
+        return lastMoveTime.get();
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
     }
 
     public long getUptimeMs() {
         return System.currentTimeMillis() - createdAt;
     }
 
+    // floor changes per second over recent windows
+    public RateMeter getMoveRate() {
+        return moveRate;
+    }
+
+    // passengers boarded per second over recent windows
+    public RateMeter getBoardingRate() {
+        return boardingRate;
+    }
+
+    public RateMeter getOverloadRate() {
+        return overloadRate;
+    }
+
+    // uptime over moves since creation, see getMoveRate() for current load
     public double getAverageMoveDuration() {
-        return totalMoves.get() > 0 ? (double) getUptimeMs() / totalMoves.get() : 0;
+        long moves = totalMoves.sum();
+        return moves > 0 ? (double) getUptimeMs() / moves : 0;
+    }
+
+    public Snapshot snapshot() {
+        return new Snapshot(elevatorId, totalMoves.sum(), totalWeightAdded.sum(), totalWeightRemoved.sum(),
+                overloadCount.sum(), shutdownCount.sum(), currentPassengers.get(), lastMoveTime.get(),
+                getUptimeMs());
     }
 
     @Override
     public String toString() {
+        Snapshot snapshot = snapshot();
         return String.format(
                 "ElevatorMetrics{id='%s', moves=%d, overloads=%d, shutdowns=%d, passengers=%d, uptime=%dms}",
-                elevatorId, totalMoves.get(), overloadCount.get(), shutdownCount.get(),
-                currentPassengers, getUptimeMs()
+                elevatorId, snapshot.totalMoves(), snapshot.overloadCount(), snapshot.shutdownCount(),
+                snapshot.currentPassengers(), snapshot.uptimeMs()
         );
     }
 }
@@ -0,0 +1,130 @@
+package org.victor.monitoring;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with log-linear buckets, in the style of HdrHistogram:
+ * values below 64 get a bucket each, above that every power of two is split into 32
+ * buckets, so a reported percentile is within about 3% of the real value. Values are
+ * non-negative longs in any unit (the dispatcher records microseconds) and are clamped
+ * to {@link #MAX_VALUE}.
+ *
+ * Recording is one atomic increment in a fixed array plus two striped adders, with no
+ * allocation. Reads are not a point-in-time snapshot while values are being recorded.
+ */
+public final class LatencyHistogram {
+
+    // 2^36 microseconds is about 19 hours
+    public static final long MAX_VALUE = (1L << 36) - 1;
+
+    private static final int LINEAR_BITS = 6;
+    private static final int LINEAR = 1 << LINEAR_BITS;
+    private static final int SUB_BUCKETS = LINEAR / 2;
+    private static final int BUCKETS = LINEAR + (36 - LINEAR_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(long value) {
+        long clamped = Math.max(0, Math.min(MAX_VALUE, value));
+        counts.incrementAndGet(bucket(clamped));
+        count.increment();
+        sum.add(clamped);
+        long previous = max.get();
+        while (clamped > previous && !max.compareAndSet(previous, clamped)) {
+            previous = max.get();
+        }
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    public double getMean() {
+        long n = count.sum();
+        return n == 0 ? 0 : (double) sum.sum() / n;
+    }
+
+    /**
+     * value at or below which the given percentage (0..100) of recorded values fall,
+     * 0 when nothing was recorded
+     */
+    public long percentile(double percentile) {
+        return percentile(new LatencyHistogram[] {this}, percentile);
+    }
+
+    /**
+     * percentile over several histograms as if they were one, without merging them
+     */
+    public static long percentile(LatencyHistogram[] histograms, double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100: " + percentile);
+        }
+        long total = 0;
+        long max = 0;
+        for (LatencyHistogram histogram : histograms) {
+            total += histogram.getCount();
+            max = Math.max(max, histogram.getMax());
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(total * percentile / 100));
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            for (LatencyHistogram histogram : histograms) {
+                seen += histogram.counts.get(bucket);
+            }
+            if (seen >= rank) {
+                return Math.min(max, highestValue(bucket));
+            }
+        }
+        return max;
+    }
+
+    /**
+     * forget every value; values recorded while resetting may be partly kept
+     */
+    public void reset() {
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            counts.set(bucket, 0);
+        }
+        count.reset();
+        sum.reset();
+        max.set(0);
+    }
+
+    static int bucket(long value) {
+        if (value < LINEAR) {
+            return (int) value;
+        }
+        int msb = 63 - Long.numberOfLeadingZeros(value);
+        int shift = msb - (LINEAR_BITS - 1);
+        return LINEAR + (msb - LINEAR_BITS) * SUB_BUCKETS + (int) (value >>> shift) - SUB_BUCKETS;
+    }
+
+    // largest value that falls in the bucket
+    static long highestValue(int bucket) {
+        if (bucket < LINEAR) {
+            return bucket;
+        }
+        int octave = (bucket - LINEAR) / SUB_BUCKETS;
+        int sub = (bucket - LINEAR) % SUB_BUCKETS + SUB_BUCKETS;
+        int shift = octave + 1;
+        return ((long) (sub + 1) << shift) - 1;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("LatencyHistogram{count=%d, mean=%.1f, p50=%d, p95=%d, p99=%d, max=%d}",
+                getCount(), getMean(), percentile(50), percentile(95), percentile(99), getMax());
+    }
+}
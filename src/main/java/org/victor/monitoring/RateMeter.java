@@ -0,0 +1,156 @@
+package org.victor.monitoring;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Event rates over sliding windows of 1 second, 1, 5 and 15 minutes.
+ *
+ * Events are counted in two fixed rings of time buckets: ten 100 ms buckets for the
+ * 1 second window and 5 second buckets for the minute windows. Marking is O(1) and
+ * never allocates; a bucket is recycled (under a lock, at most once per bucket width)
+ * by the first event that falls in it after it expired. A rate covers the last full
+ * buckets of its window plus the current partial one.
+ */
+public final class RateMeter {
+
+    public enum Window {
+        ONE_SECOND(1_000),
+        ONE_MINUTE(60_000),
+        FIVE_MINUTES(5 * 60_000),
+        FIFTEEN_MINUTES(15 * 60_000);
+
+        private final long millis;
+
+        Window(long millis) {
+            this.millis = millis;
+        }
+
+        public long getMillis() {
+            return millis;
+        }
+    }
+
+    private static final long SHORT_BUCKET_MS = 100;
+    private static final long LONG_BUCKET_MS = 5_000;
+
+    private final LongSupplier clock;
+    private final Ring shortRing = new Ring(SHORT_BUCKET_MS, (int) (Window.ONE_SECOND.millis / SHORT_BUCKET_MS));
+    private final Ring longRing = new Ring(LONG_BUCKET_MS, (int) (Window.FIFTEEN_MINUTES.millis / LONG_BUCKET_MS));
+    private final LongAdder total = new LongAdder();
+
+    public RateMeter() {
+        this(() -> System.nanoTime() / 1_000_000);
+    }
+
+    // clock in milliseconds, only differences between readings are used
+    RateMeter(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    public void mark() {
+        mark(1);
+    }
+
+    public void mark(long events) {
+        long now = clock.getAsLong();
+        shortRing.add(now, events);
+        longRing.add(now, events);
+        total.add(events);
+    }
+
+    /**
+     * events per second over the window
+     */
+    public double rate(Window window) {
+        long now = clock.getAsLong();
+        Ring ring = ring(window);
+        int buckets = (int) (window.millis / ring.width);
+        long elapsed = (buckets - 1) * ring.width + Math.floorMod(now, ring.width) + 1;
+        return ring.sum(now, buckets) * 1000.0 / elapsed;
+    }
+
+    public long count(Window window) {
+        Ring ring = ring(window);
+        return ring.sum(clock.getAsLong(), (int) (window.millis / ring.width));
+    }
+
+    public long getCount() {
+        return total.sum();
+    }
+
+    public double getOneSecondRate() {
+        return rate(Window.ONE_SECOND);
+    }
+
+    public double getOneMinuteRate() {
+        return rate(Window.ONE_MINUTE);
+    }
+
+    public double getFiveMinuteRate() {
+        return rate(Window.FIVE_MINUTES);
+    }
+
+    public double getFifteenMinuteRate() {
+        return rate(Window.FIFTEEN_MINUTES);
+    }
+
+    private Ring ring(Window window) {
+        return window == Window.ONE_SECOND ? shortRing : longRing;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("RateMeter{count=%d, 1s=%.2f/s, 1m=%.2f/s, 5m=%.2f/s, 15m=%.2f/s}",
+                getCount(), getOneSecondRate(), getOneMinuteRate(), getFiveMinuteRate(), getFifteenMinuteRate());
+    }
+
+    /**
+     * Counts per bucket of {@code width} ms; each bucket remembers which period it counts.
+     */
+    private static final class Ring {
+        private final long width;
+        private final AtomicLongArray periods;
+        private final AtomicLongArray counts;
+
+        Ring(long width, int size) {
+            this.width = width;
+            this.periods = new AtomicLongArray(size);
+            this.counts = new AtomicLongArray(size);
+            for (int i = 0; i < size; i++) {
+                periods.set(i, Long.MIN_VALUE);
+            }
+        }
+
+        void add(long now, long events) {
+            long period = Math.floorDiv(now, width);
+            int slot = (int) Math.floorMod(period, (long) periods.length());
+            if (periods.get(slot) != period) {
+                recycle(slot, period);
+            }
+            counts.addAndGet(slot, events);
+        }
+
+        private synchronized void recycle(int slot, long period) {
+            if (periods.get(slot) >= period) {
+                return;
+            }
+            counts.set(slot, 0);
+            periods.set(slot, period);
+        }
+
+        // events in the last {@code buckets} periods, the current one included
+        long sum(long now, int buckets) {
+            long current = Math.floorDiv(now, width);
+            long sum = 0;
+            for (int slot = 0; slot < periods.length(); slot++) {
+                long period = periods.get(slot);
+                if (period <= current && period > current - buckets) {
+                    sum += counts.get(slot);
+                }
+            }
+            return sum;
+        }
+    }
+}
@@ -5,14 +5,29 @@ import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * Central system monitor for elevators
+ * Central system monitor for elevators. Keeps the latest alerts in a bounded store
+ * with per-minute counters, so memory stays flat however many alerts are raised.
  */
 @Slf4j
 public class SystemMonitor {
 
+    public static final int DEFAULT_ALERT_CAPACITY = 1000;
+
+    // window of alerts counted by the health check
+    private static final long RECENT_ALERTS_MS = 5 * 60 * 1000;
+
     private final Map<String, ElevatorMetrics> metrics = new ConcurrentHashMap<>();
-    private final List<HealthAlert> alerts = new ArrayList<>();
-    private long lastHealthCheck = System.currentTimeMillis();
+    private final AlertStore alerts;
+    private volatile long lastHealthCheck = System.currentTimeMillis();
+
+    public SystemMonitor() {
+        this(DEFAULT_ALERT_CAPACITY);
+    }
+
+    // keeps the latest {@code alertCapacity} alerts, older ones are overwritten
+    public SystemMonitor(int alertCapacity) {
+        this.alerts = new AlertStore(alertCapacity);
+    }
 
     /**
      * get and create metrics for an elevator
@@ -66,38 +81,44 @@ public class SystemMonitor {
         status.checksTimestamp = lastHealthCheck;
 
         for (ElevatorMetrics m : metrics.values()) {
-            if (m.getShutdownCount().get() > 0) {
+            if (m.getShutdownCount() > 0) {
                 status.shutdownCount++;
             }
-            if (m.getOverloadCount().get() > 0) {
+            if (m.getOverloadCount() > 0) {
                 status.overloadedCount++;
             }
         }
 
-        status.recentAlertsCount = (int) alerts.stream()
-                .filter(a -> a.timestamp > lastHealthCheck - 5 * 60 * 1000) // últimos 5 minutos
-                .count();
+        status.recentAlertsCount = (int) alerts.count(null, RECENT_ALERTS_MS); // últimos 5 minutos
 
         return status;
     }
 
     /**
-     * recent alerts retrieval
+     * recent alerts retrieval, among the retained ones
      */
     public List<HealthAlert> getRecentAlerts(long sinceMs) {
         long threshold = System.currentTimeMillis() - sinceMs;
-        return new ArrayList<>(alerts.stream()
-                .filter(a -> a.timestamp > threshold)
-                .toList());
+        return alerts.select(a -> a.timestamp > threshold);
     }
 
     /**
-     * critical alerts retrieval
+     * critical alerts retrieval, among the retained ones
      */
     public List<HealthAlert> getCriticalAlerts() {
-        return new ArrayList<>(alerts.stream()
-                .filter(a -> a.severity == AlertSeverity.CRITICAL)
-                .toList());
+        return alerts.select(a -> a.severity == AlertSeverity.CRITICAL);
+    }
+
+    /**
+     * alerts of a severity raised in the last {@code windowMs}, counted by minute and
+     * including alerts no longer retained (up to one hour back); null counts every severity
+     */
+    public long getAlertCount(AlertSeverity severity, long windowMs) {
+        return alerts.count(severity, windowMs);
+    }
+
+    public int getAlertCapacity() {
+        return alerts.capacity();
     }
 
     /**
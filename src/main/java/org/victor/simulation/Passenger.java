@@ -0,0 +1,72 @@
+package org.victor.simulation;
+
+import lombok.Getter;
+import org.victor.Direction;
+import org.victor.dispatch.ElevatorRequest;
+
+/**
+ * Simulated passenger travelling from an origin to a destination floor
+ */
+@Getter
+public class Passenger {
+
+    private final long id;
+    private final long arrivalTime;
+    private final int originFloor;
+    private final int destinationFloor;
+    private final double weight;
+    private final ElevatorRequest.ElevatorType elevatorType;
+    private final boolean hasKeycard;
+
+    private long boardTime = -1;
+    private long deliveredTime = -1;
+
+    public Passenger(long id, long arrivalTime, int originFloor, int destinationFloor, double weight,
+            ElevatorRequest.ElevatorType elevatorType, boolean hasKeycard) {
+        if (originFloor == destinationFloor) {
+            throw new IllegalArgumentException("Origin and destination must differ: " + originFloor);
+        }
+        this.id = id;
+        this.arrivalTime = arrivalTime;
+        this.originFloor = originFloor;
+        this.destinationFloor = destinationFloor;
+        this.weight = weight;
+        this.elevatorType = elevatorType;
+        this.hasKeycard = hasKeycard;
+    }
+
+    public Direction getDirection() {
+        return destinationFloor > originFloor ? Direction.UP : Direction.DOWN;
+    }
+
+    public boolean hasKeycard() {
+        return hasKeycard;
+    }
+
+    public long getWaitTime() {
+        return boardTime - arrivalTime;
+    }
+
+    public boolean hasBoarded() {
+        return boardTime >= 0;
+    }
+
+    /**
+     * wait until boarding, or until {@code endTime} (censored) for a passenger still waiting then
+     */
+    public long getWaitTime(long endTime) {
+        return hasBoarded() ? boardTime - arrivalTime : endTime - arrivalTime;
+    }
+
+    public long getTravelTime() {
+        return deliveredTime - boardTime;
+    }
+
+    void markBoarded(long time) {
+        this.boardTime = time;
+    }
+
+    void markDelivered(long time) {
+        this.deliveredTime = time;
+    }
+}
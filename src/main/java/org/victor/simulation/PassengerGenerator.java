@@ -0,0 +1,14 @@
+package org.victor.simulation;
+
+/**
+ * Source of passenger arrivals for the simulator
+ */
+@FunctionalInterface
+public interface PassengerGenerator {
+
+    /**
+     * next passenger arriving strictly after the given simulated time, or null
+     * when this source produces no more arrivals
+     */
+    Passenger next(long afterMs);
+}
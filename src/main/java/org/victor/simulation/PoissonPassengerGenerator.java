@@ -0,0 +1,112 @@
+package org.victor.simulation;
+
+import org.victor.PublicElevator;
+import org.victor.dispatch.ElevatorRequest;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Poisson arrivals within a time window. A share of passengers start at the lobby
+ * (up-peak), a share travel to the lobby (down-peak) and the rest move between
+ * random floors. Passengers heading to restricted floors carry a keycard.
+ */
+public class PoissonPassengerGenerator implements PassengerGenerator {
+
+    private static final AtomicLong PASSENGER_IDS = new AtomicLong();
+
+    private final long startMs;
+    private final long endMs;
+    private final double meanGapMs;
+    private final int lobbyFloor;
+    private final int topFloor;
+    private final double fromLobbyShare;
+    private final double toLobbyShare;
+    private final ElevatorRequest.ElevatorType elevatorType;
+    private final Random random;
+
+    public PoissonPassengerGenerator(long startMs, long endMs, double passengersPerMinute, int lobbyFloor,
+            int topFloor, double fromLobbyShare, double toLobbyShare, ElevatorRequest.ElevatorType elevatorType,
+            long seed) {
+        if (passengersPerMinute <= 0 || endMs <= startMs || topFloor <= lobbyFloor
+                || fromLobbyShare + toLobbyShare > 1) {
+            throw new IllegalArgumentException("Invalid traffic profile");
+        }
+        this.startMs = startMs;
+        this.endMs = endMs;
+        this.meanGapMs = 60_000.0 / passengersPerMinute;
+        this.lobbyFloor = lobbyFloor;
+        this.topFloor = topFloor;
+        this.fromLobbyShare = fromLobbyShare;
+        this.toLobbyShare = toLobbyShare;
+        this.elevatorType = elevatorType;
+        this.random = new Random(seed);
+    }
+
+    /**
+     * morning traffic: almost everyone arrives at the lobby
+     */
+    public static PoissonPassengerGenerator upPeak(long startMs, long endMs, double perMinute, int topFloor,
+            long seed) {
+        return new PoissonPassengerGenerator(startMs, endMs, perMinute, 1, topFloor, 0.9, 0.05,
+                ElevatorRequest.ElevatorType.PUBLIC, seed);
+    }
+
+    /**
+     * daytime traffic between floors
+     */
+    public static PoissonPassengerGenerator interfloor(long startMs, long endMs, double perMinute, int topFloor,
+            long seed) {
+        return new PoissonPassengerGenerator(startMs, endMs, perMinute, 1, topFloor, 0.3, 0.3,
+                ElevatorRequest.ElevatorType.PUBLIC, seed);
+    }
+
+    /**
+     * evening traffic: almost everyone leaves through the lobby
+     */
+    public static PoissonPassengerGenerator downPeak(long startMs, long endMs, double perMinute, int topFloor,
+            long seed) {
+        return new PoissonPassengerGenerator(startMs, endMs, perMinute, 1, topFloor, 0.05, 0.9,
+                ElevatorRequest.ElevatorType.PUBLIC, seed);
+    }
+
+    @Override
+    public Passenger next(long afterMs) {
+        long time = Math.max(afterMs, startMs) + Math.max(1, (long) (-Math.log(1 - random.nextDouble()) * meanGapMs));
+        if (time >= endMs) {
+            return null;
+        }
+
+        int origin;
+        int destination;
+        double roll = random.nextDouble();
+        if (roll < fromLobbyShare) {
+            origin = lobbyFloor;
+            destination = randomUpperFloor();
+        } else if (roll < fromLobbyShare + toLobbyShare) {
+            origin = randomUpperFloor();
+            destination = lobbyFloor;
+        } else {
+            origin = randomUpperFloor();
+            do {
+                destination = randomUpperFloor();
+            } while (destination == origin && topFloor - lobbyFloor > 1);
+            if (destination == origin) {
+                destination = lobbyFloor;
+            }
+        }
+
+        double weight = 60 + random.nextDouble() * 40;
+        boolean keycard = isRestricted(origin) || isRestricted(destination);
+        return new Passenger(PASSENGER_IDS.incrementAndGet(), time, origin, destination, weight,
+                elevatorType, keycard);
+    }
+
+    private int randomUpperFloor() {
+        return lobbyFloor + 1 + random.nextInt(topFloor - lobbyFloor);
+    }
+
+    private static boolean isRestricted(int floor) {
+        return floor == 0 || floor == PublicElevator.MAX_FLOOR;
+    }
+}
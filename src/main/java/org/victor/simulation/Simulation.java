@@ -0,0 +1,330 @@
+package org.victor.simulation;
+
+import lombok.extern.slf4j.Slf4j;
+import org.victor.Elevator;
+import org.victor.PublicElevator;
+import org.victor.dispatch.ElevatorDispatcher;
+import org.victor.dispatch.ElevatorRequest;
+
+import java.util.*;
+
+/**
+ * Discrete-event simulation of an elevator fleet. Passengers produced by the
+ * traffic generators are assigned through the dispatcher's strategy, and cars
+ * travel floor by floor on a simulated clock, so a whole day runs in seconds.
+ * Cars are moved with the regular {@link Elevator} API, so audit, metrics and
+ * the dispatcher's floor index follow the cars as in production. Only strategy
+ * selection is simulated: calls do not go through the dispatcher's queue, so hall
+ * call coalescing and the dispatch latency and rate meters are not exercised.
+ */
+@Slf4j
+public class Simulation {
+
+    // wait before a passenger who could not be assigned tries again
+    private static final long RETRY_MS = 5000;
+
+    private final ElevatorDispatcher dispatcher;
+    private final List<PassengerGenerator> generators;
+    private final long floorMs;
+    private final long doorMs;
+    private final long boardingMs;
+
+    private final SimulationClock clock = new SimulationClock();
+    private final PriorityQueue<Event> events = new PriorityQueue<>();
+    private final Map<Elevator, CarAgent> agents = new IdentityHashMap<>();
+    private final List<Passenger> arrived = new ArrayList<>();
+    private final List<Passenger> delivered = new ArrayList<>();
+    private long eventSequence;
+    private boolean finished;
+
+    private Simulation(Builder builder) {
+        this.dispatcher = builder.dispatcher;
+        this.generators = List.copyOf(builder.generators);
+        this.floorMs = builder.floorMs;
+        this.doorMs = builder.doorMs;
+        this.boardingMs = builder.boardingMs;
+    }
+
+    public SimulationClock getClock() {
+        return clock;
+    }
+
+    /**
+     * run the simulation for the given amount of simulated time
+     */
+    public SimulationReport run(long durationMs) {
+        if (finished) {
+            throw new IllegalStateException("Simulation already run");
+        }
+        finished = true;
+        long wallStart = System.nanoTime();
+
+        for (Elevator car : dispatcher.getAllElevators()) {
+            agents.put(car, new CarAgent(car));
+        }
+        for (PassengerGenerator generator : generators) {
+            scheduleArrival(generator, 0);
+        }
+
+        while (!events.isEmpty() && events.peek().time <= durationMs) {
+            Event event = events.poll();
+            clock.advanceTo(event.time);
+            event.action.run();
+        }
+
+        long wallClockMs = (System.nanoTime() - wallStart) / 1_000_000;
+        SimulationReport report = buildReport(durationMs, wallClockMs);
+        log.info("Simulation finished: {}", report);
+        return report;
+    }
+
+    private void schedule(long time, Runnable action) {
+        events.add(new Event(time, eventSequence++, action));
+    }
+
+    private void scheduleArrival(PassengerGenerator generator, long afterMs) {
+        Passenger passenger = generator.next(afterMs);
+        if (passenger != null) {
+            schedule(passenger.getArrivalTime(), () -> {
+                arrived.add(passenger);
+                assign(passenger);
+                scheduleArrival(generator, passenger.getArrivalTime());
+            });
+        }
+    }
+
+    /**
+     * hall call: let the dispatcher's strategy pick a car and send it to the passenger's floor
+     */
+    private void assign(Passenger passenger) {
+        ElevatorRequest call = new ElevatorRequest("passenger-" + passenger.getId(), passenger.getOriginFloor(),
+                passenger.getDirection(), passenger.getElevatorType(), passenger.hasKeycard());
+        Elevator car;
+        try {
+            car = dispatcher.selectElevator(call);
+        } catch (IllegalStateException e) {
+            schedule(clock.now() + RETRY_MS, () -> assign(passenger));
+            return;
+        }
+
+        CarAgent agent = agents.computeIfAbsent(car, CarAgent::new);
+        agent.waiting.computeIfAbsent(passenger.getOriginFloor(), f -> new ArrayList<>()).add(passenger);
+        addStop(car, passenger.getOriginFloor(), passenger.hasKeycard());
+        wake(agent);
+    }
+
+    private void wake(CarAgent agent) {
+        if (!agent.active) {
+            agent.active = true;
+            schedule(clock.now(), () -> step(agent));
+        }
+    }
+
+    /**
+     * one tick of a car: open doors if there is work on this floor, otherwise move
+     * one floor towards the next stop chosen by the elevator's LOOK scheduler
+     */
+    private void step(CarAgent agent) {
+        Elevator car = agent.car;
+        int floor = car.getCurrentFloor();
+
+        if (agent.hasWorkAt(floor)) {
+            schedule(clock.now() + serveFloor(agent, floor), () -> step(agent));
+            return;
+        }
+
+        OptionalInt next = car.nextStop();
+        if (next.isEmpty() || !car.isOperational()) {
+            agent.active = false;
+            return;
+        }
+
+        car.goToFloor(floor + Integer.signum(next.getAsInt() - floor));
+        schedule(clock.now() + floorMs, () -> step(agent));
+    }
+
+    /**
+     * alight and board at the current floor, returning the dwell time
+     */
+    private long serveFloor(CarAgent agent, int floor) {
+        Elevator car = agent.car;
+        long now = clock.now();
+
+        List<Passenger> alighting = new ArrayList<>();
+        Iterator<Passenger> riding = agent.riding.iterator();
+        while (riding.hasNext()) {
+            Passenger passenger = riding.next();
+            if (passenger.getDestinationFloor() == floor) {
+                riding.remove();
+                passenger.markDelivered(now);
+                delivered.add(passenger);
+                alighting.add(passenger);
+            }
+        }
+        car.alight(loads(alighting));
+
+        // board whoever fits, in arrival order, as one group
+        List<Passenger> leftBehind = new ArrayList<>();
+        List<Passenger> boarding = new ArrayList<>();
+        List<Passenger> waiting = agent.waiting.remove(floor);
+        if (waiting != null) {
+            double load = car.getCurrentWeight();
+            for (Passenger passenger : waiting) {
+                if (load + passenger.getWeight() > car.getMaxWeight()) {
+                    leftBehind.add(passenger);
+                    continue;
+                }
+                load += passenger.getWeight();
+                boarding.add(passenger);
+            }
+        }
+        car.board(loads(boarding));
+        for (Passenger passenger : boarding) {
+            passenger.markBoarded(now);
+            agent.riding.add(passenger);
+            addStop(car, passenger.getDestinationFloor(), passenger.hasKeycard());
+        }
+
+        int moved = alighting.size() + boarding.size();
+        long dwell = doorMs + moved * boardingMs;
+        // call again once this car has left, so it is not handed straight back to it
+        for (Passenger passenger : leftBehind) {
+            schedule(now + dwell + floorMs, () -> assign(passenger));
+        }
+        return dwell;
+    }
+
+    private static double[] loads(List<Passenger> passengers) {
+        double[] loads = new double[passengers.size()];
+        for (int i = 0; i < loads.length; i++) {
+            loads[i] = passengers.get(i).getWeight();
+        }
+        return loads;
+    }
+
+    private static void addStop(Elevator car, int floor, boolean hasKeycard) {
+        if (car instanceof PublicElevator) {
+            ((PublicElevator) car).addStop(floor, hasKeycard);
+        } else {
+            car.addStop(floor);
+        }
+    }
+
+    private SimulationReport buildReport(long durationMs, long wallClockMs) {
+        int[] perWindow = new int[(int) ((durationMs + SimulationReport.HANDLING_WINDOW_MS - 1)
+                / SimulationReport.HANDLING_WINDOW_MS)];
+        double totalWait = 0;
+        double maxWait = 0;
+        double totalTravel = 0;
+        int waitingAtEnd = 0;
+
+        // passengers still waiting at the end are counted up to the end of the run
+        for (Passenger passenger : arrived) {
+            long wait = passenger.getWaitTime(durationMs);
+            totalWait += wait;
+            maxWait = Math.max(maxWait, wait);
+            if (!passenger.hasBoarded()) {
+                waitingAtEnd++;
+            }
+        }
+        for (Passenger passenger : delivered) {
+            totalTravel += passenger.getTravelTime();
+            int window = (int) Math.min(perWindow.length - 1,
+                    passenger.getDeliveredTime() / SimulationReport.HANDLING_WINDOW_MS);
+            perWindow[window]++;
+        }
+
+        int generated = arrived.size();
+        int count = delivered.size();
+        return new SimulationReport(dispatcher.getDispatchStrategy().getName(), durationMs, wallClockMs,
+                generated, count, waitingAtEnd,
+                generated > 0 ? totalWait / generated / 1000 : 0,
+                maxWait / 1000,
+                count > 0 ? totalTravel / count / 1000 : 0,
+                perWindow);
+    }
+
+    private static final class Event implements Comparable<Event> {
+        private final long time;
+        private final long sequence;
+        private final Runnable action;
+
+        private Event(long time, long sequence, Runnable action) {
+            this.time = time;
+            this.sequence = sequence;
+            this.action = action;
+        }
+
+        @Override
+        public int compareTo(Event other) {
+            int byTime = Long.compare(time, other.time);
+            return byTime != 0 ? byTime : Long.compare(sequence, other.sequence);
+        }
+    }
+
+    private static final class CarAgent {
+        private final Elevator car;
+        private final Map<Integer, List<Passenger>> waiting = new HashMap<>();
+        private final List<Passenger> riding = new ArrayList<>();
+        private boolean active;
+
+        private CarAgent(Elevator car) {
+            this.car = car;
+        }
+
+        private boolean hasWorkAt(int floor) {
+            List<Passenger> boarding = waiting.get(floor);
+            if (boarding != null && !boarding.isEmpty()) {
+                return true;
+            }
+            for (Passenger passenger : riding) {
+                if (passenger.getDestinationFloor() == floor) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Builder for a simulation run over an already populated dispatcher
+     */
+    public static class Builder {
+        private final ElevatorDispatcher dispatcher;
+        private final List<PassengerGenerator> generators = new ArrayList<>();
+        private long floorMs = 1500;
+        private long doorMs = 6000;
+        private long boardingMs = 1000;
+
+        public Builder(ElevatorDispatcher dispatcher) {
+            this.dispatcher = Objects.requireNonNull(dispatcher, "dispatcher");
+        }
+
+        public Builder traffic(PassengerGenerator generator) {
+            this.generators.add(Objects.requireNonNull(generator, "generator"));
+            return this;
+        }
+
+        public Builder secondsPerFloor(double seconds) {
+            this.floorMs = (long) (seconds * 1000);
+            return this;
+        }
+
+        public Builder doorSeconds(double seconds) {
+            this.doorMs = (long) (seconds * 1000);
+            return this;
+        }
+
+        public Builder boardingSeconds(double seconds) {
+            this.boardingMs = (long) (seconds * 1000);
+            return this;
+        }
+
+        public Simulation build() {
+            if (floorMs <= 0 || doorMs < 0 || boardingMs < 0) {
+                throw new IllegalArgumentException("Invalid simulation timings");
+            }
+            return new Simulation(this);
+        }
+    }
+}
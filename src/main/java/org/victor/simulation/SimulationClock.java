@@ -0,0 +1,20 @@
+package org.victor.simulation;
+
+/**
+ * Simulated time in milliseconds, advanced only by the event loop
+ */
+public class SimulationClock {
+
+    private long now;
+
+    public long now() {
+        return now;
+    }
+
+    void advanceTo(long time) {
+        if (time < now) {
+            throw new IllegalStateException("Simulation clock cannot go back from " + now + " to " + time);
+        }
+        now = time;
+    }
+}
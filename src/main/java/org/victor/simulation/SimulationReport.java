@@ -0,0 +1,71 @@
+package org.victor.simulation;
+
+import lombok.Getter;
+
+/**
+ * Results of a simulation run. Times are in simulated seconds unless stated otherwise.
+ *
+ * Wait statistics cover every generated passenger: those still waiting for a car when
+ * the run ends count with the time waited so far (a censored wait), so a fleet cannot
+ * look faster by leaving people behind. Travel statistics cover delivered passengers.
+ */
+@Getter
+public class SimulationReport {
+
+    public static final long HANDLING_WINDOW_MS = 5 * 60 * 1000;
+
+    private final String strategy;
+    private final long simulatedMs;
+    private final long wallClockMs;
+    private final int generated;
+    private final int delivered;
+    // passengers no car had picked up when the run ended
+    private final int waitingAtEnd;
+    private final double averageWaitSeconds;
+    private final double maxWaitSeconds;
+    private final double averageTravelSeconds;
+    // passengers delivered in each 5 minute window
+    private final int[] deliveredPerWindow;
+
+    SimulationReport(String strategy, long simulatedMs, long wallClockMs, int generated, int delivered,
+            int waitingAtEnd, double averageWaitSeconds, double maxWaitSeconds, double averageTravelSeconds,
+            int[] deliveredPerWindow) {
+        this.strategy = strategy;
+        this.simulatedMs = simulatedMs;
+        this.wallClockMs = wallClockMs;
+        this.generated = generated;
+        this.delivered = delivered;
+        this.waitingAtEnd = waitingAtEnd;
+        this.averageWaitSeconds = averageWaitSeconds;
+        this.maxWaitSeconds = maxWaitSeconds;
+        this.averageTravelSeconds = averageTravelSeconds;
+        this.deliveredPerWindow = deliveredPerWindow;
+    }
+
+    /**
+     * peak number of passengers delivered in any 5 minute window
+     */
+    public int getPeakHandlingCapacity() {
+        int peak = 0;
+        for (int count : deliveredPerWindow) {
+            peak = Math.max(peak, count);
+        }
+        return peak;
+    }
+
+    /**
+     * how many times faster than real time the run was
+     */
+    public double getSpeedup() {
+        return wallClockMs > 0 ? (double) simulatedMs / wallClockMs : Double.POSITIVE_INFINITY;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "SimulationReport{strategy=%s, generated=%d, delivered=%d, waitingAtEnd=%d, avgWait=%.1fs, "
+                        + "maxWait=%.1fs, avgTravel=%.1fs, peakHC5=%d, simulated=%dms, wallClock=%dms}",
+                strategy, generated, delivered, waitingAtEnd, averageWaitSeconds, maxWaitSeconds, averageTravelSeconds,
+                getPeakHandlingCapacity(), simulatedMs, wallClockMs);
+    }
+}
@@ -4,6 +4,11 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.victor.exception.*;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -151,6 +156,14 @@ public class ElevatorTest {
         assertEquals(0, publicElevator.getCurrentWeight(), "Weight cannot go below zero");
     }
 
+    @Test
+    @DisplayName("Both elevators: Should not allow removing negative weight")
+    void testInvalidNegativeRemoval() {
+        publicElevator.addWeight(200);
+        publicElevator.removeWeight(-300);
+        assertEquals(200, publicElevator.getCurrentWeight(), "Negative removal should be ignored");
+    }
+
     @Test
     @DisplayName("Both elevators: Should validate floor range")
     void testFloorValidation() {
@@ -174,4 +187,184 @@ public class ElevatorTest {
         assertNotEquals(elevator1.getElevatorId(), elevator2.getElevatorId(), 
                 "Each elevator should have a unique ID");
     }
+
+    // ───────────────────────────────
+    // STOP QUEUE (LOOK) TESTS
+    // ───────────────────────────────
+
+    @Test
+    @DisplayName("Stop queue: Stops in the direction of travel are served before reversing")
+    void testLookServesStopsInDirection() {
+        publicElevator.addStop(30);
+        publicElevator.addStop(7);
+        publicElevator.addStop(19);
+        assertEquals(Direction.UP, publicElevator.getDirection());
+
+        publicElevator.serveNextStop();
+        publicElevator.goToFloor(20);
+        publicElevator.addStop(3);
+
+        assertEquals(30, publicElevator.serveNextStop().getAsInt(), "Car should finish the up sweep first");
+        assertEquals(Direction.DOWN, publicElevator.getDirection(), "Car should reverse after the last stop up");
+        assertEquals(19, publicElevator.serveNextStop().getAsInt());
+        assertEquals(3, publicElevator.serveNextStop().getAsInt());
+        assertEquals(Direction.IDLE, publicElevator.getDirection());
+        assertTrue(publicElevator.serveNextStop().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Stop queue: Duplicate and current-floor stops are ignored")
+    void testStopQueueIgnoresDuplicates() {
+        publicElevator.addStop(1);
+        publicElevator.addStop(12);
+        publicElevator.addStop(12);
+
+        assertEquals(List.of(12), publicElevator.getPendingStops());
+    }
+
+    @Test
+    @DisplayName("Stop queue: Restricted and invalid stops are rejected")
+    void testStopQueueValidation() {
+        assertThrows(AccessDeniedException.class, () -> publicElevator.addStop(50, false));
+        assertThrows(InvalidFloorException.class, () -> publicElevator.addStop(99));
+        assertDoesNotThrow(() -> publicElevator.addStop(50, true));
+        assertEquals(1, publicElevator.getPendingStopCount());
+    }
+
+    @Test
+    @DisplayName("Stop queue: Shutdown clears pending stops")
+    void testShutdownClearsStops() {
+        freightElevator.addStop(10);
+        assertThrows(ElevatorOverloadException.class, () -> freightElevator.addWeight(4000));
+        assertEquals(0, freightElevator.getPendingStopCount());
+        assertEquals(Direction.IDLE, freightElevator.getDirection());
+    }
+
+    @Test
+    @DisplayName("Stop queue: Stop summary is read without waiting for the car's lock")
+    void testStopSummaryWithoutLock() throws Exception {
+        publicElevator.addStop(30);
+        publicElevator.addStop(10);
+        publicElevator.goToFloor(10);
+
+        publicElevator.lock.writeLock().lock();
+        try {
+            CompletableFuture<String> summary = CompletableFuture.supplyAsync(
+                    () -> publicElevator.getPendingStopCount() + "@" + publicElevator.getTurnaroundStop());
+            assertEquals("1@OptionalInt[30]", summary.get(1, TimeUnit.SECONDS));
+        } finally {
+            publicElevator.lock.writeLock().unlock();
+        }
+
+        publicElevator.serveNextStop();
+        assertEquals(0, publicElevator.getPendingStopCount());
+        assertTrue(publicElevator.getTurnaroundStop().isEmpty());
+    }
+
+    // ───────────────────────────────
+    // PACKED STATE TESTS
+    // ───────────────────────────────
+
+    @Test
+    @DisplayName("Packed state: Snapshot decodes floor, weight and operational flag together")
+    void testStateSnapshot() {
+        freightElevator.goToFloor(12);
+        freightElevator.addWeight(1250.5);
+
+        long state = freightElevator.getStateSnapshot();
+        assertEquals(12, PackedElevatorState.floor(state));
+        assertEquals(1250.5, PackedElevatorState.weight(state), 0.001);
+        assertTrue(PackedElevatorState.operational(state));
+    }
+
+    @Test
+    @DisplayName("Packed state: Concurrent boarding never exceeds the weight limit")
+    void testConcurrentBoardingRespectsLimit() throws InterruptedException {
+        PackedElevatorState state = new PackedElevatorState(1, 0, true);
+        Thread[] threads = new Thread[8];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                for (int j = 0; j < 1000; j++) {
+                    state.board(1, 3000);
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(3000, PackedElevatorState.weight(state.snapshot()), 0.001);
+    }
+
+    @Test
+    @DisplayName("Packed state: Moves are rejected after shutdown")
+    void testPackedStateShutdown() {
+        PackedElevatorState state = new PackedElevatorState(3, 100, true);
+        state.shutdown();
+
+        long previous = state.moveTo(7);
+        assertFalse(PackedElevatorState.operational(previous));
+        assertEquals(3, PackedElevatorState.floor(state.snapshot()));
+    }
+
+    @Test
+    @DisplayName("Packed state: Negative loads are rejected and huge ones cannot overflow")
+    void testPackedStateLoadBounds() {
+        PackedElevatorState state = new PackedElevatorState(1, 100, true);
+        assertThrows(IllegalArgumentException.class, () -> state.alight(-50));
+        assertThrows(IllegalArgumentException.class, () -> state.board(Double.NaN, 1000));
+
+        state.board(1e300, 1000);
+        assertEquals(100, PackedElevatorState.weight(state.snapshot()), 0.001, "Overflowing load must not board");
+        state.alight(1e300);
+        assertEquals(0, PackedElevatorState.weight(state.snapshot()), 0.001);
+        assertEquals(1, PackedElevatorState.floor(state.snapshot()), "Floor bits untouched");
+    }
+
+    @Test
+    @DisplayName("Packed state: Basement floors below 0 round trip")
+    void testPackedStateNegativeFloors() {
+        PackedElevatorState state = new PackedElevatorState(-2, 80, true);
+        assertEquals(-2, PackedElevatorState.floor(state.snapshot()));
+
+        state.moveTo(PackedElevatorState.MAX_FLOOR);
+        assertEquals(PackedElevatorState.MAX_FLOOR, PackedElevatorState.floor(state.snapshot()));
+        state.moveTo(PackedElevatorState.MIN_FLOOR);
+        assertEquals(PackedElevatorState.MIN_FLOOR, PackedElevatorState.floor(state.snapshot()));
+        assertEquals(80, PackedElevatorState.weight(state.snapshot()), 0.001, "Load bits untouched");
+        assertThrows(IllegalArgumentException.class, () -> state.moveTo(PackedElevatorState.MIN_FLOOR - 1));
+    }
+
+    // ───────────────────────────────
+    // BATCH BOARDING TESTS
+    // ───────────────────────────────
+
+    @Test
+    @DisplayName("Batch: A group boards and alights in one operation")
+    void testBatchBoardAndAlight() {
+        publicElevator.board(70, 80, 90);
+        assertEquals(240, publicElevator.getCurrentWeight(), 0.001);
+
+        publicElevator.alight(70, 90);
+        assertEquals(80, publicElevator.getCurrentWeight(), 0.001);
+    }
+
+    @Test
+    @DisplayName("Batch: An overloading group is rejected as a whole")
+    void testBatchOverloadRejectsGroup() {
+        freightElevator.addWeight(2900);
+
+        assertThrows(ElevatorOverloadException.class, () -> freightElevator.board(50, 50, 50));
+        assertEquals(2900, freightElevator.getCurrentWeight(), 0.001, "No part of the group should board");
+        assertFalse(freightElevator.isOperational());
+    }
+
+    @Test
+    @DisplayName("Batch: An invalid load rejects the group without boarding anyone")
+    void testBatchInvalidLoad() {
+        assertThrows(IllegalArgumentException.class, () -> publicElevator.board(70, -5));
+        assertEquals(0, publicElevator.getCurrentWeight());
+        assertTrue(publicElevator.isOperational());
+    }
 }
@@ -0,0 +1,92 @@
+package org.victor.audit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the binary audit event codec
+ */
+public class AuditEventCodecTest {
+
+    private static final String ELEVATOR_ID = "6f1c2a5e-0d7b-4c1e-9a3f-2b8e4d6c1a90";
+
+    private static AuditEvent move(int from, int to) {
+        return new AuditEvent.Builder(AuditEvent.EventType.ELEVATOR_FLOOR_CHANGE)
+                .elevatorId(ELEVATOR_ID)
+                .description("Moved from floor {} to floor {}", from, to)
+                .build();
+    }
+
+    // ───────────────────────────────
+    // ROUND TRIP TESTS
+    // ───────────────────────────────
+
+    @Test
+    @DisplayName("Codec: Events survive a round trip")
+    void testRoundTrip() {
+        AuditEvent login = new AuditEvent.Builder("login-7", AuditEvent.EventType.USER_LOGIN)
+                .userId("alice")
+                .elevatorId(ELEVATOR_ID)
+                .description("Login from lobby")
+                .level(AuditEvent.AuditLevel.WARNING)
+                .addMetadata("terminal", 3)
+                .build();
+        AuditEvent move = move(1, -2);
+
+        ByteBuffer buffer = ByteBuffer.allocate(1024);
+        AuditEventCodec encoder = new AuditEventCodec();
+        encoder.encode(login, buffer);
+        encoder.encode(move, buffer);
+        buffer.flip();
+
+        AuditEventCodec decoder = new AuditEventCodec();
+        AuditEvent decodedLogin = decoder.decode(buffer);
+        AuditEvent decodedMove = decoder.decode(buffer);
+
+        assertEquals("login-7", decodedLogin.getEventId());
+        assertEquals("alice", decodedLogin.getUserId());
+        assertEquals(AuditEvent.AuditLevel.WARNING, decodedLogin.getLevel());
+        assertEquals(login.getTimestamp(), decodedLogin.getTimestamp());
+        assertEquals("3", decodedLogin.getMetadata().get("terminal"));
+        assertEquals(move.getEventId(), decodedMove.getEventId());
+        assertEquals("Moved from floor 1 to floor -2", decodedMove.getDescription());
+        assertSame(decodedLogin.getElevatorId(), decodedMove.getElevatorId(), "Decoded ids share one instance");
+    }
+
+    // ───────────────────────────────
+    // HANDLE TESTS
+    // ───────────────────────────────
+
+    @Test
+    @DisplayName("Codec: Repeated ids are written once and then referenced by handle")
+    void testHandlesShrinkRecords() {
+        AuditEventCodec encoder = new AuditEventCodec();
+        ByteBuffer buffer = ByteBuffer.allocate(1024);
+
+        encoder.encode(move(1, 2), buffer);
+        int first = buffer.position();
+        encoder.encode(move(2, 3), buffer);
+        int second = buffer.position() - first;
+
+        assertTrue(second < first - ELEVATOR_ID.length(), "Second record should omit the elevator id");
+        assertEquals(1, encoder.getHandleCount());
+    }
+
+    @Test
+    @DisplayName("Codec: A record that does not fit leaves the dictionary unchanged")
+    void testOverflowKeepsDictionary() {
+        AuditEventCodec encoder = new AuditEventCodec();
+        assertThrows(BufferOverflowException.class, () -> encoder.encode(move(1, 2), ByteBuffer.allocate(16)));
+        assertEquals(0, encoder.getHandleCount());
+
+        ByteBuffer buffer = ByteBuffer.allocate(1024);
+        encoder.encode(move(1, 2), buffer);
+        buffer.flip();
+        assertEquals(ELEVATOR_ID, new AuditEventCodec().decode(buffer).getElevatorId());
+    }
+}
@@ -0,0 +1,160 @@
+package org.victor.audit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.victor.FreightElevator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the memory-mapped audit journal
+ */
+public class AuditJournalTest {
+
+    @TempDir
+    Path directory;
+
+    private AuditJournal open(int segmentSize, int retainedSegments) {
+        return new AuditJournal.Builder(directory)
+                .segmentSize(segmentSize)
+                .retainedSegments(retainedSegments)
+                .fsyncPolicy(AuditJournal.FsyncPolicy.EVERY_COMMIT)
+                .build();
+    }
+
+    // ───────────────────────────────
+    // REPLAY TESTS
+    // ───────────────────────────────
+
+    @Test
+    @DisplayName("Journal: A new logger is rebuilt from the journal")
+    void testReplayRestoresLogger() throws InterruptedException {
+        String elevatorId;
+        try (AuditJournal journal = open(64 * 1024, 4)) {
+            AuditLogger auditLogger = new AuditLogger.Builder().journal(journal).build();
+            assertTrue(auditLogger.isAsync(), "Journaling runs on the writer thread");
+            FreightElevator elevator = new FreightElevator(50);
+            elevator.setAuditLogger(auditLogger);
+            elevatorId = elevator.getElevatorId();
+
+            elevator.goToFloor(9);
+            auditLogger.logEvent(new AuditEvent.Builder("login-1", AuditEvent.EventType.USER_LOGIN)
+                    .userId("alice")
+                    .description("Login from lobby")
+                    .addMetadata("terminal", 3)
+                    .build());
+            auditLogger.stop(1000);
+        }
+
+        try (AuditJournal journal = open(64 * 1024, 4)) {
+            AuditLogger restored = new AuditLogger.Builder().journal(journal).build();
+
+            assertEquals(2, restored.getEventCount());
+            AuditEvent move = restored.getEventsByElevator(elevatorId).get(0);
+            assertEquals("Moved from floor 1 to floor 9", move.getDescription());
+            AuditEvent login = restored.getEventsByUser("alice").get(0);
+            assertEquals("login-1", login.getEventId());
+            assertEquals("Login from lobby", login.getDescription());
+            assertEquals("3", login.getMetadata().get("terminal"));
+
+            AuditEvent next = new AuditEvent.Builder(AuditEvent.EventType.ELEVATOR_CALL).build();
+            assertTrue(next.getSequence() > move.getSequence(), "New events are numbered after restored ones");
+            restored.stop(1000);
+        }
+        try (AuditJournal journal = open(64 * 1024, 4)) {
+            AuditLogger.Builder synchronous = new AuditLogger.Builder().journal(journal).async(false);
+            assertThrows(IllegalArgumentException.class, synchronous::build);
+        }
+    }
+
+    @Test
+    @DisplayName("Journal: Reopening continues after the last record")
+    void testReopenAppends() {
+        try (AuditJournal journal = open(64 * 1024, 4)) {
+            journal.append(new AuditEvent.Builder("first", AuditEvent.EventType.ELEVATOR_CALL).build());
+        }
+        try (AuditJournal journal = open(64 * 1024, 4)) {
+            journal.append(new AuditEvent.Builder("second", AuditEvent.EventType.ELEVATOR_CALL).build());
+
+            List<String> ids = new ArrayList<>();
+            journal.replay(event -> ids.add(event.getEventId()));
+            assertEquals(List.of("first", "second"), ids);
+        }
+    }
+
+    @Test
+    @DisplayName("Journal: A record with a corrupt tail ends the log and is truncated on reopen")
+    void testCorruptTailTruncated() throws IOException {
+        try (AuditJournal journal = open(64 * 1024, 4)) {
+            for (String id : List.of("first", "second", "third")) {
+                journal.append(new AuditEvent.Builder(id, AuditEvent.EventType.ELEVATOR_CALL)
+                        .description("Stop requested")
+                        .build());
+            }
+        }
+
+        // flip the last payload byte of the third record, as a crash would leave a partly flushed page
+        Path segment;
+        try (Stream<Path> files = Files.list(directory)) {
+            segment = files.findFirst().orElseThrow();
+        }
+        byte[] bytes = Files.readAllBytes(segment);
+        ByteBuffer records = ByteBuffer.wrap(bytes);
+        int third = 0;
+        for (int i = 0; i < 2; i++) {
+            third += 2 * Integer.BYTES + records.getInt(third);
+        }
+        int lastByte = third + 2 * Integer.BYTES + records.getInt(third) - 1;
+        bytes[lastByte] ^= 0x5A;
+        Files.write(segment, bytes);
+
+        try (AuditJournal journal = open(64 * 1024, 4)) {
+            List<String> ids = new ArrayList<>();
+            journal.replay(event -> ids.add(event.getEventId()));
+            assertEquals(List.of("first", "second"), ids);
+
+            journal.append(new AuditEvent.Builder("fourth", AuditEvent.EventType.ELEVATOR_CALL).build());
+            ids.clear();
+            journal.replay(event -> ids.add(event.getEventId()));
+            assertEquals(List.of("first", "second", "fourth"), ids);
+        }
+        assertEquals(0, Files.readAllBytes(segment)[lastByte], "Corrupt tail is zeroed");
+    }
+
+    // ───────────────────────────────
+    // SEGMENT TESTS
+    // ───────────────────────────────
+
+    @Test
+    @DisplayName("Journal: Segments roll when full and old ones are deleted")
+    void testSegmentRetention() {
+        try (AuditJournal journal = open(1024, 2)) {
+            for (int i = 0; i < 200; i++) {
+                journal.append(new AuditEvent.Builder("e" + i, AuditEvent.EventType.ELEVATOR_CALL)
+                        .description("Stop requested")
+                        .build());
+            }
+            journal.commit();
+
+            assertEquals(2, journal.getSegmentCount());
+            List<String> ids = new ArrayList<>();
+            journal.replay(event -> ids.add(event.getEventId()));
+            assertFalse(ids.isEmpty());
+            assertTrue(ids.size() < 200);
+            assertEquals("e199", ids.get(ids.size() - 1));
+            for (int i = 1; i < ids.size(); i++) {
+                assertEquals(Integer.parseInt(ids.get(i - 1).substring(1)) + 1,
+                        Integer.parseInt(ids.get(i).substring(1)));
+            }
+        }
+    }
+}
@@ -0,0 +1,506 @@
+package org.victor.audit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.victor.FreightElevator;
+import org.victor.exception.ElevatorOverloadException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the audit logger and audit events
+ */
+public class AuditLoggerTest {
+
+    private AuditLogger auditLogger;
+    private FreightElevator elevator;
+
+    @BeforeEach
+    void setup() {
+        auditLogger = new AuditLogger();
+        elevator = new FreightElevator(50);
+        elevator.setAuditLogger(auditLogger);
+    }
+
+    // ───────────────────────────────
+    // EVENT TESTS
+    // ───────────────────────────────
+
+    @Test
+    @DisplayName("Audit event: Structured description is rendered on read")
+    void testStructuredDescription() {
+        elevator.goToFloor(12);
+
+        List<AuditEvent> moves = auditLogger.getEventsByType(AuditEvent.EventType.ELEVATOR_FLOOR_CHANGE);
+        assertEquals(1, moves.size());
+        assertEquals("Moved from floor 1 to floor 12", moves.get(0).getDescription());
+        assertEquals(elevator.getElevatorId(), moves.get(0).getElevatorId());
+    }
+
+    @Test
+    @DisplayName("Audit event: Events without an explicit id get increasing sequence ids")
+    void testSequenceIds() {
+        AuditEvent first = new AuditEvent.Builder(AuditEvent.EventType.ELEVATOR_CALL).build();
+        AuditEvent second = new AuditEvent.Builder(AuditEvent.EventType.ELEVATOR_CALL).build();
+
+        assertTrue(second.getSequence() > first.getSequence());
+        assertEquals(Long.toString(first.getSequence()), first.getEventId());
+        assertEquals("explicit", new AuditEvent.Builder("explicit", AuditEvent.EventType.ELEVATOR_CALL)
+                .build().getEventId());
+        assertTrue(first.getMetadata().isEmpty());
+    }
+
+    // ───────────────────────────────
+    // THRESHOLD TESTS
+    // ───────────────────────────────
+
+    @Test
+    @DisplayName("Audit logger: Events below the minimum level are not recorded")
+    void testMinimumLevel() {
+        auditLogger.setMinimumLevel(AuditEvent.AuditLevel.WARNING);
+
+        elevator.goToFloor(5);
+        elevator.addWeight(100);
+        assertEquals(0, auditLogger.getEventCount());
+
+        assertThrows(ElevatorOverloadException.class, () -> elevator.addWeight(5000));
+        assertFalse(auditLogger.getCriticalEvents().isEmpty());
+    }
+
+    // ───────────────────────────────
+    // RING BUFFER TESTS
+    // ───────────────────────────────
+
+    @Test
+    @DisplayName("Audit logger: Oldest events are overwritten once the capacity is reached")
+    void testCapacityEviction() {
+        AuditLogger small = new AuditLogger(3);
+        for (int i = 1; i <= 5; i++) {
+            small.logEvent(new AuditEvent.Builder("e" + i, AuditEvent.EventType.ELEVATOR_CALL).build());
+        }
+
+        assertEquals(3, small.getEventCount());
+        assertEquals(List.of("e3", "e4", "e5"),
+                small.getAllEvents().stream().map(AuditEvent::getEventId).toList());
+    }
+
+    @Test
+    @DisplayName("Audit logger: Concurrent producers keep the latest events without duplicates")
+    void testConcurrentAppends() throws InterruptedException {
+        AuditLogger shared = new AuditLogger(1000);
+        Thread[] producers = new Thread[4];
+        for (int i = 0; i < producers.length; i++) {
+            producers[i] = new Thread(() -> {
+                for (int j = 0; j < 5000; j++) {
+                    shared.logEvent(new AuditEvent.Builder(AuditEvent.EventType.ELEVATOR_CALL).build());
+                }
+            });
+            producers[i].start();
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+
+        List<AuditEvent> events = shared.getAllEvents();
+        assertEquals(1000, events.size());
+        assertEquals(1000, events.stream().map(AuditEvent::getSequence).distinct().count());
+    }
+
+    @Test
+    @DisplayName("Audit logger: Stored events read back with every field, whole events only when needed")
+    void testStoredFields() {
+        AuditEvent plain = new AuditEvent.Builder(AuditEvent.EventType.USER_LOGIN)
+                .timestamp(1234)
+                .userId("alice")
+                .elevatorId("e1")
+                .description("Badge accepted")
+                .level(AuditEvent.AuditLevel.WARNING)
+                .build();
+        AuditEvent tagged = new AuditEvent.Builder("login-2", AuditEvent.EventType.USER_LOGIN)
+                .userId("alice")
+                .addMetadata("door", "north")
+                .build();
+        auditLogger.logEvent(plain);
+        auditLogger.logEvent(tagged);
+
+        List<AuditEvent> events = auditLogger.getEventsByUser("alice");
+        assertEquals(2, events.size());
+        AuditEvent read = events.get(0);
+        assertNotSame(plain, read, "Plain events are rebuilt from the ring columns");
+        assertEquals(plain.getSequence(), read.getSequence());
+        assertEquals(plain.getEventId(), read.getEventId());
+        assertEquals(1234, read.getTimestamp());
+        assertEquals("e1", read.getElevatorId());
+        assertEquals("Badge accepted", read.getDescription());
+        assertEquals(AuditEvent.AuditLevel.WARNING, read.getLevel());
+        assertSame(tagged, events.get(1), "Ids and metadata have no column, the event is kept whole");
+        assertEquals(List.of(read.getSequence()), auditLogger.query().elevator("e1").list()
+                .stream().map(AuditEvent::getSequence).toList());
+    }
+
+    @Test
+    @DisplayName("Audit logger: Clearing empties the store and later events are kept")
+    void testClear() {
+        elevator.goToFloor(3);
+        auditLogger.clearEvents();
+        assertEquals(0, auditLogger.getEventCount());
+
+        elevator.goToFloor(4);
+        assertEquals(1, auditLogger.getAllEvents().size());
+    }
+
+    // ───────────────────────────────
+    // ASYNC PIPELINE TESTS
+    // ───────────────────────────────
+
+    @Test
+    @DisplayName("Async audit: Events are written and listeners run off the caller's thread")
+    void testAsyncWrite() throws InterruptedException {
+        AuditLogger async = new AuditLogger.Builder().async(true).build();
+        Set<Thread> listenerThreads = ConcurrentHashMap.newKeySet();
+        async.subscribe(event -> listenerThreads.add(Thread.currentThread()));
+        elevator.setAuditLogger(async);
+
+        elevator.goToFloor(7);
+        elevator.addWeight(80);
+        async.flush();
+
+        assertEquals(2, async.getEventCount());
+        assertFalse(listenerThreads.contains(Thread.currentThread()));
+        async.stop(1000);
+    }
+
+    @Test
+    @DisplayName("Async audit: DROP_INFO discards info events while the queue is full")
+    void testAsyncDropInfo() throws InterruptedException {
+        // the writer thread only starts draining once released
+        CountDownLatch release = new CountDownLatch(1);
+        AuditLogger async = new AuditLogger.Builder()
+                .async(true)
+                .queueCapacity(1)
+                .overflowPolicy(AuditLogger.OverflowPolicy.DROP_INFO)
+                .threadFactory(r -> {
+                    Thread thread = new Thread(() -> {
+                        try {
+                            release.await();
+                        } catch (InterruptedException e) {
+                            return;
+                        }
+                        r.run();
+                    });
+                    thread.setDaemon(true);
+                    return thread;
+                })
+                .build();
+
+        async.logEvent(new AuditEvent.Builder(AuditEvent.EventType.ELEVATOR_CALL).build());
+        async.logEvent(new AuditEvent.Builder(AuditEvent.EventType.ELEVATOR_CALL).build());
+        async.logEvent(new AuditEvent.Builder(AuditEvent.EventType.ELEVATOR_CALL).build());
+
+        assertEquals(2, async.getDroppedCount());
+        release.countDown();
+        async.flush();
+        assertEquals(1, async.getEventCount());
+        async.stop(1000);
+    }
+
+    @Test
+    @DisplayName("Async audit: Stopping writes queued events and falls back to synchronous mode")
+    void testAsyncStop() throws InterruptedException {
+        AuditLogger async = new AuditLogger.Builder().async(true).build();
+        for (int i = 0; i < 100; i++) {
+            async.logEvent(new AuditEvent.Builder(AuditEvent.EventType.ELEVATOR_CALL).build());
+        }
+        async.stop(1000);
+        assertEquals(100, async.getEventCount());
+
+        async.logEvent(new AuditEvent.Builder(AuditEvent.EventType.ELEVATOR_CALL).build());
+        assertEquals(101, async.getEventCount());
+    }
+
+    @Test
+    @DisplayName("Async audit: Producers blocked on a full queue while stopping lose no events")
+    void testStopWithBlockedProducers() throws InterruptedException {
+        AuditLogger async = new AuditLogger.Builder()
+                .async(true)
+                .queueCapacity(4)
+                .batchSize(1)
+                .build();
+        Thread[] producers = new Thread[4];
+        for (int i = 0; i < producers.length; i++) {
+            producers[i] = new Thread(() -> {
+                for (int j = 0; j < 500; j++) {
+                    async.logEvent(new AuditEvent.Builder(AuditEvent.EventType.ELEVATOR_CALL).build());
+                }
+            });
+            producers[i].start();
+        }
+        async.stop(0);
+        for (Thread producer : producers) {
+            producer.join();
+        }
+
+        assertEquals(2000, async.getEventCount());
+        assertEquals(0, async.getQueueDepth());
+    }
+
+    // ───────────────────────────────
+    // SUBSCRIPTION TESTS
+    // ───────────────────────────────
+
+    @Test
+    @DisplayName("Subscription: A stalled listener drops its own events without delaying others")
+    void testSlowListenerIsolated() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        AuditSubscription slow = auditLogger.subscribe(new AuditSubscription.Builder(event -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }).queueCapacity(2).policy(AuditSubscription.SlowConsumerPolicy.DROP_NEWEST));
+        CountDownLatch received = new CountDownLatch(10);
+        AuditSubscription fast = auditLogger.subscribe(event -> received.countDown());
+
+        for (int i = 0; i < 10; i++) {
+            elevator.goToFloor(i + 2);
+        }
+
+        assertTrue(received.await(1, TimeUnit.SECONDS), "Fast listener gets every event");
+        assertEquals(10, auditLogger.getEventCount());
+        assertTrue(slow.getDroppedCount() >= 7, "Slow listener holds at most one event plus its queue");
+        release.countDown();
+        auditLogger.flush();
+        assertEquals(10, slow.getDeliveredCount() + slow.getDroppedCount());
+        assertEquals(10, fast.getDeliveredCount());
+        assertEquals(0, fast.getDroppedCount());
+    }
+
+    @Test
+    @DisplayName("Subscription: Type filters and unsubscribing limit what a listener receives")
+    void testSubscriptionFilter() throws InterruptedException {
+        List<AuditEvent> overloads = new CopyOnWriteArrayList<>();
+        AuditLogger.AuditListener listener = overloads::add;
+        AuditSubscription subscription = auditLogger.subscribe(new AuditSubscription.Builder(listener)
+                .types(AuditEvent.EventType.OVERLOAD_DETECTED));
+
+        elevator.goToFloor(3);
+        assertThrows(ElevatorOverloadException.class, () -> elevator.addWeight(5000));
+        auditLogger.flush();
+
+        assertFalse(overloads.isEmpty());
+        assertTrue(overloads.stream().allMatch(e -> e.getEventType() == AuditEvent.EventType.OVERLOAD_DETECTED));
+
+        auditLogger.unsubscribe(listener);
+        assertFalse(subscription.isActive());
+        assertTrue(auditLogger.getSubscriptions().isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> new AuditSubscription.Builder(listener).queueCapacity(0));
+    }
+
+    @Test
+    @DisplayName("Subscription: The default policy never stalls the elevator thread")
+    void testDefaultPolicyDoesNotBlock() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        List<AuditEvent> received = new CopyOnWriteArrayList<>();
+        AuditSubscription subscription = auditLogger.subscribe(new AuditSubscription.Builder(event -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            received.add(event);
+        }).queueCapacity(2));
+
+        // the logger is synchronous, so these offers run on the moving thread
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            for (int i = 0; i < 10; i++) {
+                elevator.goToFloor(i + 2);
+            }
+        });
+        release.countDown();
+        auditLogger.flush();
+
+        assertTrue(subscription.getDroppedCount() >= 7, "Stalled listener loses its own oldest events");
+        assertEquals(10, subscription.getDeliveredCount() + subscription.getDroppedCount());
+        assertTrue(received.get(received.size() - 1).getDescription().contains("to floor 11"),
+                "The newest event is kept");
+    }
+
+    @Test
+    @DisplayName("Subscription: BLOCK waits for a full queue instead of dropping")
+    void testBlockPolicyIsLossless() throws InterruptedException {
+        AuditSubscription subscription = auditLogger.subscribe(new AuditSubscription.Builder(event -> {
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }).queueCapacity(1).policy(AuditSubscription.SlowConsumerPolicy.BLOCK));
+
+        for (int i = 0; i < 20; i++) {
+            elevator.goToFloor(i % 2 == 0 ? 5 : 6);
+        }
+        auditLogger.flush();
+
+        assertEquals(20, subscription.getDeliveredCount());
+        assertEquals(0, subscription.getDroppedCount());
+    }
+
+    @Test
+    @DisplayName("Subscription: Stopping the logger closes subscriptions without interrupting listeners")
+    void testStopClosesSubscriptions() throws InterruptedException {
+        CountDownLatch inListener = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Boolean> interrupted = new CopyOnWriteArrayList<>();
+        List<Thread> threads = new CopyOnWriteArrayList<>();
+        AuditSubscription subscription = auditLogger.subscribe(new AuditSubscription.Builder(event -> {
+            inListener.countDown();
+            try {
+                release.await();
+                interrupted.add(false);
+            } catch (InterruptedException e) {
+                interrupted.add(true);
+            }
+        }).threadFactory(r -> {
+            Thread thread = new Thread(r);
+            threads.add(thread);
+            return thread;
+        }));
+
+        elevator.goToFloor(4);
+        assertTrue(inListener.await(1, TimeUnit.SECONDS));
+        auditLogger.stop(50);
+        assertFalse(subscription.isActive());
+        assertTrue(auditLogger.getSubscriptions().isEmpty());
+
+        release.countDown();
+        threads.get(0).join(1000);
+        assertFalse(threads.get(0).isAlive(), "Delivery thread exits once closed");
+        assertEquals(List.of(false), interrupted);
+    }
+
+    // ───────────────────────────────
+    // INDEX TESTS
+    // ───────────────────────────────
+
+    @Test
+    @DisplayName("Audit index: Combined queries match every criterion")
+    void testCombinedQuery() {
+        FreightElevator other = new FreightElevator(50);
+        other.setAuditLogger(auditLogger);
+
+        assertThrows(ElevatorOverloadException.class, () -> elevator.addWeight(5000));
+        assertThrows(ElevatorOverloadException.class, () -> other.addWeight(5000));
+        other.removeWeight(10);
+
+        List<AuditEvent> critical = auditLogger.query()
+                .level(AuditEvent.AuditLevel.CRITICAL)
+                .elevator(elevator.getElevatorId())
+                .list();
+        assertFalse(critical.isEmpty());
+        assertTrue(critical.stream().allMatch(e -> e.getElevatorId().equals(elevator.getElevatorId())
+                && e.getLevel() == AuditEvent.AuditLevel.CRITICAL));
+        assertEquals(1, auditLogger.query()
+                .type(AuditEvent.EventType.WEIGHT_REMOVED)
+                .elevator(other.getElevatorId())
+                .list().size());
+        assertTrue(auditLogger.getEventsByUser("nobody").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Audit index: Evicted events drop out of indexed queries")
+    void testIndexEviction() {
+        AuditLogger small = new AuditLogger(3);
+        for (int i = 1; i <= 4; i++) {
+            small.logEvent("e" + i, AuditEvent.EventType.USER_LOGIN, "alice", null, "login",
+                    AuditEvent.AuditLevel.INFO);
+        }
+        small.logEvent("e5", AuditEvent.EventType.USER_LOGOUT, "bob", null, "logout",
+                AuditEvent.AuditLevel.INFO);
+
+        assertEquals(List.of("e3", "e4"), small.getEventsByUser("alice").stream()
+                .map(AuditEvent::getEventId).toList());
+        assertEquals(2, small.getEventsByType(AuditEvent.EventType.USER_LOGIN).size());
+        assertEquals(1, small.getEventsByUser("bob").size());
+
+        small.clearEvents();
+        assertTrue(small.getEventsByUser("alice").isEmpty());
+    }
+
+    // ───────────────────────────────
+    // TIME RANGE TESTS
+    // ───────────────────────────────
+
+    private static void logAt(AuditLogger logger, int count) {
+        for (int i = 0; i < count; i++) {
+            logger.logEvent(new AuditEvent.Builder("t" + i, i % 2 == 0
+                    ? AuditEvent.EventType.ELEVATOR_CALL
+                    : AuditEvent.EventType.ELEVATOR_FLOOR_CHANGE)
+                    .timestamp(1_000 + i * 10L)
+                    .build());
+        }
+    }
+
+    @Test
+    @DisplayName("Time range: Events between two timestamps are returned in order")
+    void testTimeRange() {
+        AuditLogger logger = new AuditLogger(4096);
+        logAt(logger, 2000);
+
+        List<AuditEvent> range = logger.getEventsBetween(5_000, 5_990);
+        assertEquals(100, range.size());
+        assertEquals("t400", range.get(0).getEventId());
+        assertEquals("t499", range.get(99).getEventId());
+
+        assertEquals(50, logger.query()
+                .between(5_000, 5_990)
+                .type(AuditEvent.EventType.ELEVATOR_CALL)
+                .list().size());
+        assertTrue(logger.getEventsBetween(0, 999).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Time range: The cursor streams a range lazily and skips evicted events")
+    void testTimeRangeCursor() {
+        AuditLogger logger = new AuditLogger(600);
+        logAt(logger, 2000);
+
+        assertEquals(List.of("t1400", "t1401", "t1402"), logger.query()
+                .between(0, Long.MAX_VALUE)
+                .cursor()
+                .stream()
+                .limit(3)
+                .map(AuditEvent::getEventId)
+                .toList());
+        assertTrue(logger.getEventsBetween(1_000, 14_990).isEmpty(), "Evicted events are out of range");
+        assertThrows(IllegalArgumentException.class, () -> logger.query().between(10, 5));
+    }
+
+    @Test
+    @DisplayName("Time range: A late event in a later block is still found")
+    void testTimeRangeOutOfOrder() {
+        AuditLogger logger = new AuditLogger(4096);
+        for (int i = 0; i < 2 * TimeIndex.BLOCK_SIZE; i++) {
+            logger.logEvent(new AuditEvent.Builder("t" + i, AuditEvent.EventType.ELEVATOR_CALL)
+                    .timestamp(10_000 + i)
+                    .build());
+        }
+        logger.logEvent(new AuditEvent.Builder("late", AuditEvent.EventType.ELEVATOR_CALL)
+                .timestamp(5)
+                .build());
+
+        assertEquals(List.of("late"), logger.getEventsBetween(0, 100).stream()
+                .map(AuditEvent::getEventId)
+                .toList());
+        assertEquals(3, logger.getEventsBetween(5, 10_001).size());
+    }
+}
@@ -0,0 +1,173 @@
+package org.victor.dispatch;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.victor.Elevator;
+import org.victor.PublicElevator;
+import org.victor.audit.AuditLogger;
+import org.victor.exception.AccessDeniedException;
+import org.victor.exception.DispatchRejectedException;
+import org.victor.monitoring.SystemMonitor;
+import org.victor.security.UserManager;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for destination dispatch grouping
+ */
+public class DestinationDispatcherTest {
+
+    private ElevatorDispatcher dispatcher;
+    private DestinationDispatcher destinations;
+
+    @BeforeEach
+    void setup() {
+        dispatcher = new ElevatorDispatcher(new AuditLogger(), new SystemMonitor(), new UserManager());
+        for (int i = 0; i < 3; i++) {
+            dispatcher.registerElevator(new PublicElevator(50));
+        }
+        destinations = new DestinationDispatcher.Builder(dispatcher).maxFloorSpread(3).maxGroupSize(8).build();
+    }
+
+    private CompletableFuture<Elevator> fromLobby(int target) {
+        return destinations.request(new ElevatorRequest("user-" + target, 1, target,
+                ElevatorRequest.ElevatorType.PUBLIC, false));
+    }
+
+    @Test
+    @DisplayName("Destination dispatch: Nearby destinations share a car")
+    void testNearbyDestinationsGrouped() throws Exception {
+        CompletableFuture<Elevator> to10 = fromLobby(10);
+        CompletableFuture<Elevator> to30 = fromLobby(30);
+        CompletableFuture<Elevator> to12 = fromLobby(12);
+        CompletableFuture<Elevator> to31 = fromLobby(31);
+        CompletableFuture<Elevator> to11 = fromLobby(11);
+
+        destinations.flush();
+
+        Elevator lowGroup = to10.get(1, TimeUnit.SECONDS);
+        Elevator highGroup = to30.get(1, TimeUnit.SECONDS);
+        assertSame(lowGroup, to11.get());
+        assertSame(lowGroup, to12.get());
+        assertSame(highGroup, to31.get());
+        assertNotSame(lowGroup, highGroup, "Separate groups should get separate cars");
+        assertEquals(12, lowGroup.getCurrentFloor(), "Group should be driven to its last destination");
+        assertTrue(lowGroup.getPendingStops().isEmpty());
+        assertEquals(2, destinations.getGroupCount());
+        assertEquals(5, destinations.getPassengerCount());
+    }
+
+    @Test
+    @DisplayName("Destination dispatch: Passengers are picked up before anyone is dropped off")
+    void testPickupBeforeDropOff() throws Exception {
+        Elevator car = dispatcher.selectElevator(new ElevatorRequest("user-001", 20,
+                ElevatorRequest.ElevatorType.PUBLIC, false));
+        boolean[] droppedOffEarly = {false};
+        car.addStateListener(new Elevator.StateListener() {
+            @Override
+            public void onFloorChanged(Elevator elevator, int previousFloor, int newFloor) {
+                // passing floor 10 on the way up must not serve the destination yet
+                if (newFloor == 10 && elevator.hasPendingStop(10) && elevator.hasPendingStop(20)) {
+                    droppedOffEarly[0] = true;
+                }
+            }
+
+            @Override
+            public void onShutdown(Elevator elevator) {
+            }
+        });
+
+        CompletableFuture<Elevator> trip = destinations.request(new ElevatorRequest("user-001", 20, 10,
+                ElevatorRequest.ElevatorType.PUBLIC, false));
+        destinations.flush();
+
+        assertSame(car, trip.get(1, TimeUnit.SECONDS));
+        assertFalse(droppedOffEarly[0], "Destination should only be queued once the car is at the origin");
+        assertEquals(10, car.getCurrentFloor());
+    }
+
+    @Test
+    @DisplayName("Destination dispatch: A refused destination leaves no stop queued")
+    void testRefusedDestinationQueuesNothing() throws Exception {
+        // the top floor needs a keycard
+        CompletableFuture<Elevator> refused = fromLobby(PublicElevator.MAX_FLOOR);
+        CompletableFuture<Elevator> alone = destinations.request(new ElevatorRequest("user-002", 5, 8,
+                ElevatorRequest.ElevatorType.PUBLIC, false));
+
+        destinations.flush();
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> refused.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(AccessDeniedException.class, e.getCause());
+        for (Elevator car : dispatcher.getAllElevators()) {
+            assertFalse(car.hasPendingStop(1), "Origin of the refused passenger should not be queued");
+            assertTrue(car.getPendingStops().isEmpty());
+        }
+        assertEquals(8, alone.get(1, TimeUnit.SECONDS).getCurrentFloor());
+        assertEquals(1, destinations.getPassengerCount());
+    }
+
+    @Test
+    @DisplayName("Destination dispatch: Passengers going up and down never share a car")
+    void testDirectionsSplit() throws Exception {
+        CompletableFuture<Elevator> up = destinations.request(new ElevatorRequest("user-001", 20, 22,
+                ElevatorRequest.ElevatorType.PUBLIC, false));
+        CompletableFuture<Elevator> down = destinations.request(new ElevatorRequest("user-002", 20, 18,
+                ElevatorRequest.ElevatorType.PUBLIC, false));
+        CompletableFuture<Elevator> down2 = destinations.request(new ElevatorRequest("user-003", 20, 17,
+                ElevatorRequest.ElevatorType.PUBLIC, false));
+
+        destinations.flush();
+
+        assertNotSame(up.get(1, TimeUnit.SECONDS), down.get(1, TimeUnit.SECONDS));
+        assertSame(down.get(), down2.get(), "Nearby floors below share a car");
+        assertEquals(2, destinations.getGroupCount());
+    }
+
+    @Test
+    @DisplayName("Destination dispatch: Groups are capped at the car size")
+    void testGroupSizeLimit() throws Exception {
+        DestinationDispatcher small = new DestinationDispatcher.Builder(dispatcher).maxGroupSize(2).build();
+        CompletableFuture<Elevator> first = small.request(new ElevatorRequest("user-001", 1, 10,
+                ElevatorRequest.ElevatorType.PUBLIC, false));
+        small.request(new ElevatorRequest("user-002", 1, 10, ElevatorRequest.ElevatorType.PUBLIC, false));
+        CompletableFuture<Elevator> third = small.request(new ElevatorRequest("user-003", 1, 10,
+                ElevatorRequest.ElevatorType.PUBLIC, false));
+
+        small.flush();
+
+        assertEquals(2, small.getGroupCount());
+        assertNotSame(first.get(), third.get(), "Third passenger should not fit in the first car");
+    }
+
+    @Test
+    @DisplayName("Destination dispatch: Requests without origin floor are rejected")
+    void testOriginRequired() {
+        assertThrows(IllegalArgumentException.class, () -> destinations.request(
+                new ElevatorRequest("user-001", 10, ElevatorRequest.ElevatorType.PUBLIC, false)));
+    }
+
+    @Test
+    @DisplayName("Destination dispatch: Batch is flushed after the window")
+    void testWindowFlush() throws Exception {
+        DestinationDispatcher timed = new DestinationDispatcher.Builder(dispatcher).windowMs(50).build();
+        timed.start();
+        try {
+            CompletableFuture<Elevator> car = timed.request(new ElevatorRequest("user-001", 1, 20,
+                    ElevatorRequest.ElevatorType.PUBLIC, false));
+            assertNotNull(car.get(2, TimeUnit.SECONDS));
+        } finally {
+            timed.stop();
+        }
+
+        CompletableFuture<Elevator> late = timed.request(new ElevatorRequest("user-002", 1, 20,
+                ElevatorRequest.ElevatorType.PUBLIC, false));
+        ExecutionException e = assertThrows(ExecutionException.class, () -> late.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(DispatchRejectedException.class, e.getCause());
+    }
+}
@@ -0,0 +1,235 @@
+package org.victor.dispatch;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.victor.Elevator;
+import org.victor.PublicElevator;
+import org.victor.audit.AuditLogger;
+import org.victor.exception.DispatchRejectedException;
+import org.victor.monitoring.SystemMonitor;
+import org.victor.security.UserManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the worker-pool dispatch service
+ */
+public class DispatchServiceTest {
+
+    private ElevatorDispatcher dispatcher;
+    private DispatchService service;
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeEach
+    void setup() {
+        dispatcher = new ElevatorDispatcher(new AuditLogger(), new SystemMonitor(), new UserManager());
+        dispatcher.registerElevator(new PublicElevator(50));
+        dispatcher.registerElevator(new PublicElevator(50));
+    }
+
+    @AfterEach
+    void teardown() throws InterruptedException {
+        release.countDown();
+        if (service != null) {
+            service.stop(1000);
+        }
+    }
+
+    private static ElevatorRequest publicRequest(int floor) {
+        return new ElevatorRequest("user-001", floor, ElevatorRequest.ElevatorType.PUBLIC, false);
+    }
+
+    // one worker that only starts once released, so its two-slot queue stays full
+    private DispatchService stalled(DispatchService.RejectionPolicy policy) {
+        return stalled(policy, 50);
+    }
+
+    private DispatchService stalled(DispatchService.RejectionPolicy policy, long offerTimeoutMs) {
+        return new DispatchService.Builder(dispatcher)
+                .workers(1)
+                .queueCapacity(2)
+                .rejectionPolicy(policy)
+                .offerTimeoutMs(offerTimeoutMs)
+                .threadFactory(r -> {
+                    Thread thread = new Thread(() -> {
+                        try {
+                            release.await();
+                        } catch (InterruptedException e) {
+                            return;
+                        }
+                        r.run();
+                    });
+                    thread.setDaemon(true);
+                    return thread;
+                })
+                .build();
+    }
+
+    private static void assertRejected(CompletableFuture<Elevator> future) {
+        ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(DispatchRejectedException.class, e.getCause());
+    }
+
+    @Test
+    @DisplayName("Dispatch service: Workers serve queued requests")
+    void testWorkersServeRequests() throws Exception {
+        service = new DispatchService.Builder(dispatcher).workers(2).queueCapacity(16).build();
+        service.start();
+
+        List<CompletableFuture<Elevator>> futures = new ArrayList<>();
+        for (int floor = 2; floor <= 12; floor++) {
+            futures.add(service.submit(publicRequest(floor)));
+        }
+        for (CompletableFuture<Elevator> future : futures) {
+            assertNotNull(future.get(5, TimeUnit.SECONDS), "Each request should be assigned a car");
+        }
+
+        assertEquals(11, service.getDispatchedCount());
+        assertEquals(0, service.getRejectedCount());
+    }
+
+    @Test
+    @DisplayName("Dispatch service: Requests are rejected when the service is not running")
+    void testRejectWhenStopped() {
+        service = new DispatchService.Builder(dispatcher).build();
+
+        CompletableFuture<Elevator> future = service.submit(publicRequest(5));
+
+        ExecutionException e = assertThrows(ExecutionException.class, future::get);
+        assertInstanceOf(DispatchRejectedException.class, e.getCause());
+        assertEquals(1, service.getRejectedCount());
+    }
+
+    @Test
+    @DisplayName("Dispatch service: Failed dispatch completes the future exceptionally")
+    void testFailedDispatch() throws Exception {
+        service = new DispatchService.Builder(dispatcher).workers(1).build();
+        service.start();
+
+        CompletableFuture<Elevator> future = service.submit(publicRequest(99));
+
+        assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        assertEquals(1, service.getFailedCount());
+    }
+
+    // ───────────────────────────────
+    // FULL QUEUE TESTS
+    // ───────────────────────────────
+
+    @Test
+    @DisplayName("Full queue: REJECT fails the new request at once")
+    void testRejectPolicy() throws Exception {
+        service = stalled(DispatchService.RejectionPolicy.REJECT);
+        service.start();
+        CompletableFuture<Elevator> first = service.submit(publicRequest(2));
+        CompletableFuture<Elevator> second = service.submit(publicRequest(3));
+
+        CompletableFuture<Elevator> third = service.submit(publicRequest(4));
+        assertTrue(third.isDone());
+        assertRejected(third);
+
+        release.countDown();
+        assertNotNull(first.get(5, TimeUnit.SECONDS));
+        assertNotNull(second.get(5, TimeUnit.SECONDS));
+        assertEquals(1, service.getRejectedCount());
+    }
+
+    @Test
+    @DisplayName("Full queue: BLOCK fails the request after the offer timeout")
+    void testBlockPolicyTimeout() {
+        service = stalled(DispatchService.RejectionPolicy.BLOCK);
+        service.start();
+        service.submit(publicRequest(2));
+        service.submit(publicRequest(3));
+
+        long started = System.nanoTime();
+        CompletableFuture<Elevator> timedOut = service.submit(publicRequest(4));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started) >= 40, "Waited for room");
+        assertRejected(timedOut);
+    }
+
+    @Test
+    @DisplayName("Full queue: BLOCK queues the request once room is freed")
+    void testBlockPolicyWaits() throws Exception {
+        service = stalled(DispatchService.RejectionPolicy.BLOCK, 10_000);
+        service.start();
+        service.submit(publicRequest(2));
+        service.submit(publicRequest(3));
+
+        CompletableFuture<CompletableFuture<Elevator>> submitted = new CompletableFuture<>();
+        Thread submitter = new Thread(() -> submitted.complete(service.submit(publicRequest(4))));
+        submitter.start();
+        while (submitter.getState() != Thread.State.TIMED_WAITING && !submitted.isDone()) {
+            Thread.onSpinWait();
+        }
+        assertFalse(submitted.isDone(), "Submitter waits for room");
+
+        release.countDown();
+        assertNotNull(submitted.get(5, TimeUnit.SECONDS).get(5, TimeUnit.SECONDS));
+        assertEquals(0, service.getRejectedCount());
+    }
+
+    @Test
+    @DisplayName("Full queue: DROP_OLDEST fails the oldest queued request")
+    void testDropOldestPolicy() throws Exception {
+        service = stalled(DispatchService.RejectionPolicy.DROP_OLDEST);
+        service.start();
+        CompletableFuture<Elevator> oldest = service.submit(publicRequest(2));
+        CompletableFuture<Elevator> second = service.submit(publicRequest(3));
+        CompletableFuture<Elevator> newest = service.submit(publicRequest(4));
+
+        assertRejected(oldest);
+        release.countDown();
+        assertNotNull(second.get(5, TimeUnit.SECONDS));
+        assertNotNull(newest.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("Full queue: CALLER_RUNS dispatches on the submitting thread")
+    void testCallerRunsPolicy() throws Exception {
+        service = stalled(DispatchService.RejectionPolicy.CALLER_RUNS);
+        service.start();
+        service.submit(publicRequest(2));
+        service.submit(publicRequest(3));
+
+        CompletableFuture<Elevator> third = service.submit(publicRequest(4));
+        assertTrue(third.isDone(), "Served before submit returned");
+        assertNotNull(third.get());
+        assertEquals(2, service.getQueueDepth());
+    }
+
+    @Test
+    @DisplayName("Dispatch service: Every request submitted while stopping completes")
+    void testSubmitRacingStop() throws Exception {
+        service = new DispatchService.Builder(dispatcher).workers(1).queueCapacity(1024).build();
+        service.start();
+        List<CompletableFuture<Elevator>> futures = new CopyOnWriteArrayList<>();
+        Thread submitter = new Thread(() -> {
+            for (int i = 0; i < 2000; i++) {
+                futures.add(service.submit(publicRequest(2 + i % 10)));
+            }
+        });
+        submitter.start();
+        service.stop(0);
+        submitter.join();
+
+        for (CompletableFuture<Elevator> future : futures) {
+            try {
+                future.get(5, TimeUnit.SECONDS);
+            } catch (ExecutionException e) {
+                assertInstanceOf(DispatchRejectedException.class, e.getCause());
+            }
+        }
+        assertEquals(0, service.getQueueDepth());
+    }
+}
@@ -0,0 +1,505 @@
+package org.victor.dispatch;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.victor.Direction;
+import org.victor.Elevator;
+import org.victor.FreightElevator;
+import org.victor.PublicElevator;
+import org.victor.audit.AuditLogger;
+import org.victor.exception.InvalidFloorException;
+import org.victor.monitoring.RateMeter;
+import org.victor.monitoring.SystemMonitor;
+import org.victor.security.UserManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the elevator dispatcher and its dispatch strategies
+ */
+public class ElevatorDispatcherTest {
+
+    private AuditLogger auditLogger;
+    private SystemMonitor systemMonitor;
+    private UserManager userManager;
+
+    @BeforeEach
+    void setup() {
+        auditLogger = new AuditLogger();
+        systemMonitor = new SystemMonitor();
+        userManager = new UserManager();
+    }
+
+    private ElevatorDispatcher dispatcher(DispatchStrategy strategy) {
+        return new ElevatorDispatcher(auditLogger, systemMonitor, userManager, strategy);
+    }
+
+    private static ElevatorRequest publicRequest(int floor) {
+        return new ElevatorRequest("user-001", floor, ElevatorRequest.ElevatorType.PUBLIC, false);
+    }
+
+    // ───────────────────────────────
+    // DISPATCH STRATEGY TESTS
+    // ───────────────────────────────
+
+    @Test
+    @DisplayName("Nearest car: Closest elevator serves the request")
+    void testNearestCarStrategy() {
+        ElevatorDispatcher dispatcher = dispatcher(new NearestCarStrategy());
+        PublicElevator low = new PublicElevator(50);
+        PublicElevator high = new PublicElevator(50);
+        dispatcher.registerElevator(low);
+        dispatcher.registerElevator(high);
+        high.goToFloor(30);
+
+        dispatcher.requestElevator(publicRequest(28));
+        dispatcher.processRequests();
+
+        assertEquals(28, high.getCurrentFloor(), "Car at floor 30 is closest to floor 28");
+        assertEquals(1, low.getCurrentFloor(), "Car at floor 1 should stay idle");
+    }
+
+    @Test
+    @DisplayName("ETA: Full car is skipped even when it is closer")
+    void testEtaStrategySkipsFullCar() {
+        ElevatorDispatcher dispatcher = dispatcher(new EtaDispatchStrategy());
+        PublicElevator full = new PublicElevator(50);
+        PublicElevator empty = new PublicElevator(50);
+        dispatcher.registerElevator(full);
+        dispatcher.registerElevator(empty);
+        full.addWeight(980);
+        empty.goToFloor(20);
+
+        dispatcher.requestElevator(publicRequest(2));
+        dispatcher.processRequests();
+
+        assertEquals(2, empty.getCurrentFloor(), "Car with spare capacity should be assigned");
+        assertEquals(1, full.getCurrentFloor(), "Full car should not be assigned");
+    }
+
+    @Test
+    @DisplayName("Load balanced: Requests spread across idle cars")
+    void testLoadBalancedStrategy() {
+        ElevatorDispatcher dispatcher = dispatcher(new LoadBalancedStrategy());
+        PublicElevator loaded = new PublicElevator(50);
+        PublicElevator idle = new PublicElevator(50);
+        dispatcher.registerElevator(loaded);
+        dispatcher.registerElevator(idle);
+        loaded.addWeight(600);
+
+        dispatcher.requestElevator(publicRequest(10));
+        dispatcher.processRequests();
+
+        assertEquals(10, idle.getCurrentFloor(), "Least loaded car should be assigned");
+        assertEquals(1, loaded.getCurrentFloor());
+    }
+
+    @Test
+    @DisplayName("Dispatcher: The assigned car reaches the floor, serving earlier stops on the way")
+    void testDispatchDrivesCar() {
+        ElevatorDispatcher dispatcher = dispatcher(new NearestCarStrategy());
+        PublicElevator car = new PublicElevator(50);
+        dispatcher.registerElevator(car);
+        car.addStop(7);
+        car.addStop(30);
+
+        dispatcher.requestElevator(publicRequest(12));
+        dispatcher.processRequests();
+
+        assertEquals(12, car.getCurrentFloor(), "Dispatch should not return before the car arrives");
+        assertEquals(List.of(30), car.getPendingStops(), "Stop at 7 is served on the way, 30 is still ahead");
+    }
+
+    @Test
+    @DisplayName("Dispatcher: A car that breaks down on the way fails the request")
+    void testDispatchFailsWhenCarBreaksDown() {
+        ElevatorDispatcher dispatcher = dispatcher(new NearestCarStrategy());
+        PublicElevator car = new PublicElevator(50);
+        dispatcher.registerElevator(car);
+        car.addStateListener(new Elevator.StateListener() {
+            @Override
+            public void onFloorChanged(Elevator elevator, int previousFloor, int newFloor) {
+                if (newFloor == 5) {
+                    assertThrows(RuntimeException.class, () -> elevator.addWeight(5000));
+                }
+            }
+
+            @Override
+            public void onShutdown(Elevator elevator) {
+            }
+        });
+        car.addStop(5);
+
+        assertThrows(RuntimeException.class, () -> dispatcher.dispatch(publicRequest(12)));
+        assertEquals(5, car.getCurrentFloor());
+    }
+
+    @Test
+    @DisplayName("Dispatcher: Default strategy is ETA")
+    void testDefaultStrategy() {
+        ElevatorDispatcher dispatcher = new ElevatorDispatcher(auditLogger, systemMonitor, userManager);
+        assertInstanceOf(EtaDispatchStrategy.class, dispatcher.getDispatchStrategy());
+        assertEquals("eta", dispatcher.getStats().getStrategy());
+    }
+
+    @Test
+    @DisplayName("Dispatcher: Request is dropped when every car is full")
+    void testNoCapacityAvailable() {
+        ElevatorDispatcher dispatcher = dispatcher(new EtaDispatchStrategy());
+        Elevator full = new PublicElevator(50);
+        dispatcher.registerElevator(full);
+        full.addWeight(1000);
+
+        dispatcher.requestElevator(publicRequest(5));
+        dispatcher.processRequests();
+
+        assertEquals(1, full.getCurrentFloor(), "Full car should not move");
+        assertEquals(0, dispatcher.getStats().getPendingRequests());
+    }
+
+    // ───────────────────────────────
+    // FLOOR INDEX TESTS
+    // ───────────────────────────────
+
+    @Test
+    @DisplayName("Floor index: Nearest elevator follows car movements")
+    void testFindNearestFollowsMoves() {
+        ElevatorDispatcher dispatcher = dispatcher(new NearestCarStrategy());
+        PublicElevator a = new PublicElevator(50);
+        PublicElevator b = new PublicElevator(50);
+        dispatcher.registerElevator(a);
+        dispatcher.registerElevator(b);
+
+        b.goToFloor(40);
+        assertSame(b, dispatcher.findNearestElevator(35));
+        assertSame(a, dispatcher.findNearestElevator(10));
+
+        a.goToFloor(37);
+        assertSame(a, dispatcher.findNearestElevator(35), "Index should reflect the latest floor");
+    }
+
+    @Test
+    @DisplayName("Floor index: Shut down and unregistered cars are not returned")
+    void testFindNearestSkipsUnavailableCars() {
+        ElevatorDispatcher dispatcher = dispatcher(new NearestCarStrategy());
+        PublicElevator broken = new PublicElevator(50);
+        PublicElevator far = new PublicElevator(50);
+        dispatcher.registerElevator(broken);
+        dispatcher.registerElevator(far);
+        far.goToFloor(45);
+
+        assertThrows(RuntimeException.class, () -> broken.addWeight(2000));
+        assertSame(far, dispatcher.findNearestElevator(1), "Shut down car must leave the index");
+
+        dispatcher.unregisterElevator(far.getElevatorId());
+        assertThrows(IllegalStateException.class, () -> dispatcher.findNearestElevator(1));
+    }
+
+    @Test
+    @DisplayName("Floor index: A floor change after removal does not re-index the car")
+    void testLateFloorChangeAfterRemoval() {
+        FloorIndex index = new FloorIndex();
+        PublicElevator car = new PublicElevator(50);
+        index.add(car);
+        index.remove(car);
+
+        // callback of a move that was in flight when the car was unregistered
+        index.onFloorChanged(car, 1, 5);
+
+        assertEquals(0, index.size());
+        assertNull(index.nearest(5));
+    }
+
+    @Test
+    @DisplayName("Floor index: Cars moving concurrently end up on their last floor")
+    void testConcurrentMoves() throws InterruptedException {
+        ElevatorDispatcher dispatcher = dispatcher(new NearestCarStrategy());
+        List<PublicElevator> cars = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            PublicElevator car = new PublicElevator(50);
+            cars.add(car);
+            dispatcher.registerElevator(car);
+            int last = 10 * (i + 1);
+            threads.add(new Thread(() -> {
+                for (int move = 0; move < 1000; move++) {
+                    car.goToFloor(move % 50);
+                }
+                car.goToFloor(last);
+            }));
+        }
+        PublicElevator broken = new PublicElevator(50);
+        dispatcher.registerElevator(broken);
+        threads.add(new Thread(() -> {
+            for (int move = 0; move < 1000; move++) {
+                broken.goToFloor(49 - move % 50);
+            }
+            assertThrows(RuntimeException.class, () -> broken.addWeight(2000));
+        }));
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        for (int i = 0; i < 3; i++) {
+            assertSame(cars.get(i), dispatcher.findNearestElevator(10 * (i + 1)));
+        }
+        assertSame(cars.get(2), dispatcher.findNearestElevator(45), "Shut down car must not be indexed");
+    }
+
+    // ───────────────────────────────
+    // HALL CALL TESTS
+    // ───────────────────────────────
+
+    @Test
+    @DisplayName("Hall calls: Repeated presses share one pending dispatch")
+    void testHallCallsAreCoalesced() throws Exception {
+        ElevatorDispatcher dispatcher = dispatcher(new NearestCarStrategy());
+        PublicElevator car = new PublicElevator(50);
+        dispatcher.registerElevator(car);
+
+        List<CompletableFuture<Elevator>> waiters = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            waiters.add(dispatcher.callElevator(new ElevatorRequest("user-" + i, 12, Direction.UP,
+                    ElevatorRequest.ElevatorType.PUBLIC, false)));
+        }
+
+        assertEquals(1, dispatcher.getStats().getPendingRequests(), "Ten presses should queue one request");
+        assertTrue(dispatcher.hasPendingHallCall(ElevatorRequest.ElevatorType.PUBLIC, 12, Direction.UP));
+        assertFalse(dispatcher.hasPendingHallCall(ElevatorRequest.ElevatorType.PUBLIC, 12, Direction.DOWN));
+
+        dispatcher.processRequests();
+
+        for (CompletableFuture<Elevator> waiter : waiters) {
+            assertSame(car, waiter.get(), "Every waiter should get the same car");
+        }
+        assertEquals(12, car.getCurrentFloor());
+        assertEquals(0, dispatcher.getStats().getPendingHallCalls(), "Served call should clear its button");
+    }
+
+    @Test
+    @DisplayName("Hall calls: Opposite directions are dispatched separately")
+    void testHallCallDirectionsAreIndependent() {
+        ElevatorDispatcher dispatcher = dispatcher(new NearestCarStrategy());
+        dispatcher.registerElevator(new PublicElevator(50));
+
+        dispatcher.callElevator(new ElevatorRequest("user-001", 7, Direction.UP,
+                ElevatorRequest.ElevatorType.PUBLIC, false));
+        dispatcher.callElevator(new ElevatorRequest("user-002", 7, Direction.DOWN,
+                ElevatorRequest.ElevatorType.PUBLIC, false));
+
+        assertEquals(2, dispatcher.getStats().getPendingHallCalls());
+        assertEquals(2, dispatcher.getStats().getPendingRequests());
+    }
+
+    @Test
+    @DisplayName("Hall calls: Board covers the floors of registered cars, basements included")
+    void testHallCallFloorRange() {
+        ElevatorDispatcher dispatcher = dispatcher(new NearestCarStrategy());
+        assertThrows(InvalidFloorException.class, () -> dispatcher.callElevator(
+                new ElevatorRequest("user-001", 1, Direction.UP, ElevatorRequest.ElevatorType.PUBLIC, false)),
+                "No car serves any floor yet");
+
+        dispatcher.registerElevator(new PublicElevator(50) {
+            @Override
+            public int getMinFloor() {
+                return -3;
+            }
+        });
+        dispatcher.callElevator(new ElevatorRequest("user-001", -2, Direction.UP,
+                ElevatorRequest.ElevatorType.PUBLIC, false));
+        assertTrue(dispatcher.hasPendingHallCall(ElevatorRequest.ElevatorType.PUBLIC, -2, Direction.UP));
+        assertThrows(InvalidFloorException.class, () -> dispatcher.callElevator(
+                new ElevatorRequest("user-002", 280, Direction.DOWN, ElevatorRequest.ElevatorType.PUBLIC, false)));
+
+        dispatcher.registerElevator(new PublicElevator(300));
+        dispatcher.callElevator(new ElevatorRequest("user-002", 280, Direction.DOWN,
+                ElevatorRequest.ElevatorType.PUBLIC, false));
+        assertTrue(dispatcher.hasPendingHallCall(ElevatorRequest.ElevatorType.PUBLIC, -2, Direction.UP),
+                "Growing the board keeps pending calls");
+        assertTrue(dispatcher.hasPendingHallCall(ElevatorRequest.ElevatorType.PUBLIC, 280, Direction.DOWN));
+        assertEquals(2, dispatcher.getPendingHallCallCount());
+    }
+
+    @Test
+    @DisplayName("Hall calls: A press after the call is served opens a new call")
+    void testHallCallAfterCompletion() throws Exception {
+        ElevatorDispatcher dispatcher = dispatcher(new NearestCarStrategy());
+        PublicElevator car = new PublicElevator(50);
+        dispatcher.registerElevator(car);
+        ElevatorRequest first = new ElevatorRequest("user-001", 9, Direction.UP,
+                ElevatorRequest.ElevatorType.PUBLIC, false);
+        CompletableFuture<Elevator> served = dispatcher.callElevator(first);
+        dispatcher.processRequests();
+        assertSame(car, served.get());
+
+        ElevatorRequest late = new ElevatorRequest("user-002", 9, Direction.UP,
+                ElevatorRequest.ElevatorType.PUBLIC, false);
+        HallCallBoard.PendingCall call = dispatcher.joinHallCall(late);
+        assertTrue(call.isOwner(late), "Late press must not join the served call");
+        assertFalse(call.getFuture().isDone());
+    }
+
+    @Test
+    @DisplayName("Hall calls: Presses racing dispatch are all served")
+    void testHallCallsRacingDispatch() throws Exception {
+        ElevatorDispatcher dispatcher = dispatcher(new NearestCarStrategy());
+        dispatcher.registerElevator(new PublicElevator(50));
+        List<CompletableFuture<Elevator>> waiters = Collections.synchronizedList(new ArrayList<>());
+        Thread presser = new Thread(() -> {
+            for (int i = 0; i < 2000; i++) {
+                waiters.add(dispatcher.callElevator(new ElevatorRequest("user-" + i, 5 + i % 3, Direction.UP,
+                        ElevatorRequest.ElevatorType.PUBLIC, false)));
+            }
+        });
+        presser.start();
+        while (presser.isAlive()) {
+            dispatcher.processRequests();
+        }
+        presser.join();
+        dispatcher.processRequests();
+
+        for (CompletableFuture<Elevator> waiter : waiters) {
+            assertNotNull(waiter.get(1, TimeUnit.SECONDS), "No press may be left waiting");
+        }
+        assertEquals(0, dispatcher.getPendingHallCallCount());
+    }
+
+    // ───────────────────────────────
+    // REGISTRY TESTS
+    // ───────────────────────────────
+
+    @Test
+    @DisplayName("Registry: Fleet is partitioned by type and updated on unregister")
+    void testRegistryPartitions() {
+        ElevatorDispatcher dispatcher = dispatcher(new EtaDispatchStrategy());
+        PublicElevator publicCar = new PublicElevator(50);
+        FreightElevator freightCar = new FreightElevator(50);
+        dispatcher.registerElevator(publicCar);
+        dispatcher.registerElevator(freightCar);
+
+        assertEquals(List.of(publicCar), dispatcher.getAvailablePublicElevators());
+        assertEquals(List.of(freightCar), dispatcher.getAvailableFreightElevators());
+        assertEquals(2, dispatcher.getStats().getTotalElevators());
+
+        dispatcher.unregisterElevator(publicCar.getElevatorId());
+
+        assertTrue(dispatcher.getAvailablePublicElevators().isEmpty());
+        assertEquals(1, dispatcher.getStats().getFreightElevators());
+        assertThrows(IllegalArgumentException.class, () -> dispatcher.getElevator(publicCar.getElevatorId()));
+    }
+
+    @Test
+    @DisplayName("Registry: Listeners and index agree with the registry under racing registrations")
+    void testRacingRegistrations() throws InterruptedException {
+        ElevatorDispatcher dispatcher = dispatcher(new EtaDispatchStrategy());
+        Set<Elevator> notified = ConcurrentHashMap.newKeySet();
+        dispatcher.addFleetListener(new ElevatorDispatcher.FleetListener() {
+            @Override
+            public void onRegistered(Elevator elevator) {
+                notified.add(elevator);
+            }
+
+            @Override
+            public void onUnregistered(Elevator elevator) {
+                notified.remove(elevator);
+            }
+        });
+
+        for (int round = 0; round < 200; round++) {
+            PublicElevator car = new PublicElevator(50);
+            Thread register = new Thread(() -> dispatcher.registerElevator(car));
+            Thread unregister = new Thread(() -> dispatcher.unregisterElevator(car.getElevatorId()));
+            register.start();
+            unregister.start();
+            register.join();
+            unregister.join();
+
+            boolean registered = dispatcher.getAllElevators().contains(car);
+            assertEquals(registered, notified.contains(car), "Listener must see the last registry change");
+            if (registered) {
+                assertSame(car, dispatcher.findNearestElevator(1), "Registered car must be indexed");
+                dispatcher.unregisterElevator(car.getElevatorId());
+            }
+            assertThrows(IllegalStateException.class, () -> dispatcher.findNearestElevator(1));
+        }
+        assertTrue(notified.isEmpty());
+    }
+
+    // ───────────────────────────────
+    // LATENCY TESTS
+    // ───────────────────────────────
+
+    @Test
+    @DisplayName("Latency: Dispatched requests are recorded per stage, type and floor band")
+    void testDispatchLatency() throws InterruptedException {
+        ElevatorDispatcher dispatcher = dispatcher(new EtaDispatchStrategy());
+        dispatcher.registerElevator(new PublicElevator(50));
+        dispatcher.requestElevator(publicRequest(5));
+        dispatcher.requestElevator(publicRequest(35));
+        Thread.sleep(20);
+        dispatcher.processRequests();
+
+        DispatchLatency latency = dispatcher.getLatency();
+        assertEquals(2, latency.getCount(DispatchLatency.Stage.QUEUE_WAIT));
+        assertEquals(2, latency.getCount(DispatchLatency.Stage.DECISION));
+        assertEquals(2, latency.getCount(DispatchLatency.Stage.END_TO_END));
+        assertEquals(1, latency.get(DispatchLatency.Stage.END_TO_END, ElevatorRequest.ElevatorType.PUBLIC,
+                latency.band(35)).getCount());
+        assertTrue(latency.percentile(DispatchLatency.Stage.QUEUE_WAIT, ElevatorRequest.ElevatorType.PUBLIC, 99)
+                >= 19_000, "Queue wait covers the time spent queued");
+        assertEquals(0, latency.percentile(DispatchLatency.Stage.DECISION, ElevatorRequest.ElevatorType.FREIGHT, 99));
+        assertEquals(latency.band(1000), latency.getBands() - 1);
+        assertEquals(2, dispatcher.getRequestRate().count(RateMeter.Window.ONE_MINUTE));
+        assertEquals(2, dispatcher.getDispatchRate().count(RateMeter.Window.ONE_MINUTE));
+    }
+
+    @Test
+    @DisplayName("Latency: End-to-end covers the ride and is only recorded on arrival")
+    void testEndToEndIncludesTravel() {
+        ElevatorDispatcher dispatcher = dispatcher(new EtaDispatchStrategy());
+        PublicElevator car = new PublicElevator(50);
+        dispatcher.registerElevator(car);
+        int[] breakdownFloor = {-1};
+        // each floor takes 2 ms to travel
+        car.addStateListener(new Elevator.StateListener() {
+            @Override
+            public void onFloorChanged(Elevator elevator, int previousFloor, int newFloor) {
+                if (newFloor == breakdownFloor[0]) {
+                    assertThrows(RuntimeException.class, () -> elevator.addWeight(5000));
+                }
+                try {
+                    Thread.sleep(2L * Math.abs(newFloor - previousFloor));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            @Override
+            public void onShutdown(Elevator elevator) {
+            }
+        });
+        car.addStop(6);
+
+        dispatcher.dispatch(publicRequest(11));
+
+        DispatchLatency latency = dispatcher.getLatency();
+        assertEquals(1, latency.getCount(DispatchLatency.Stage.END_TO_END));
+        assertTrue(latency.percentile(DispatchLatency.Stage.END_TO_END, 99) >= 18_000,
+                "End-to-end should include ten floors of travel");
+
+        breakdownFloor[0] = 15;
+        car.addStop(15);
+        assertThrows(RuntimeException.class, () -> dispatcher.dispatch(publicRequest(20)));
+        assertEquals(1, latency.getCount(DispatchLatency.Stage.END_TO_END), "A car that never arrives is not counted");
+    }
+}
@@ -0,0 +1,171 @@
+package org.victor.dispatch;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.victor.Elevator;
+import org.victor.FreightElevator;
+import org.victor.PublicElevator;
+import org.victor.audit.AuditLogger;
+import org.victor.exception.InvalidFloorException;
+import org.victor.monitoring.SystemMonitor;
+import org.victor.security.UserManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the zone-sharded dispatcher
+ */
+public class ZonedDispatcherTest {
+
+    private ZonedDispatcher zoned;
+    private PublicElevator lowRise;
+    private PublicElevator highRise;
+    private FreightElevator freight;
+
+    @BeforeEach
+    void setup() {
+        zoned = new ZonedDispatcher.Builder(new AuditLogger(), new SystemMonitor(), new UserManager())
+                .zone("low-rise", 0, 20, ElevatorRequest.ElevatorType.PUBLIC)
+                .zone("high-rise", 20, 50, ElevatorRequest.ElevatorType.PUBLIC)
+                .zone("freight", 0, 50, ElevatorRequest.ElevatorType.FREIGHT)
+                .skyLobby(20)
+                .build();
+        lowRise = new PublicElevator(50);
+        highRise = new PublicElevator(50);
+        freight = new FreightElevator(50);
+        zoned.registerElevator("low-rise", lowRise);
+        zoned.registerElevator("high-rise", highRise);
+        zoned.registerElevator("freight", freight);
+        zoned.start();
+    }
+
+    @AfterEach
+    void teardown() throws InterruptedException {
+        zoned.stop(1000);
+    }
+
+    @Test
+    @DisplayName("Zoned dispatcher: Requests are served by the bank of their zone")
+    void testRequestsRoutedByZone() throws Exception {
+        Elevator low = zoned.submit(new ElevatorRequest("user-001", 12, ElevatorRequest.ElevatorType.PUBLIC, false))
+                .get(5, TimeUnit.SECONDS);
+        Elevator high = zoned.submit(new ElevatorRequest("user-002", 35, ElevatorRequest.ElevatorType.PUBLIC, false))
+                .get(5, TimeUnit.SECONDS);
+        Elevator cargo = zoned.submit(new ElevatorRequest("user-003", 35, ElevatorRequest.ElevatorType.FREIGHT, false))
+                .get(5, TimeUnit.SECONDS);
+
+        assertSame(lowRise, low);
+        assertSame(highRise, high);
+        assertSame(freight, cargo);
+    }
+
+    @Test
+    @DisplayName("Zoned dispatcher: Cross-zone trips transfer at the sky lobby")
+    void testCrossZoneTransfer() throws Exception {
+        Elevator lastLeg = zoned.submit(new ElevatorRequest("user-001", 5, 40,
+                ElevatorRequest.ElevatorType.PUBLIC, false)).get(5, TimeUnit.SECONDS);
+
+        assertSame(highRise, lastLeg, "Second leg should ride the high-rise bank");
+        assertEquals(20, lowRise.getCurrentFloor(), "First leg should end at the sky lobby");
+        assertEquals(40, highRise.getCurrentFloor());
+    }
+
+    @Test
+    @DisplayName("Zoned dispatcher: The first leg picks up at the origin and the second starts at the lobby")
+    void testCrossZoneLegsInOrder() throws Exception {
+        List<String> arrivals = Collections.synchronizedList(new ArrayList<>());
+        Elevator.StateListener recorder = new Elevator.StateListener() {
+            @Override
+            public void onFloorChanged(Elevator elevator, int previousFloor, int newFloor) {
+                arrivals.add((elevator == lowRise ? "low@" : "high@") + newFloor);
+            }
+
+            @Override
+            public void onShutdown(Elevator elevator) {
+            }
+        };
+        lowRise.addStateListener(recorder);
+        highRise.addStateListener(recorder);
+
+        zoned.submit(new ElevatorRequest("user-001", 8, 40, ElevatorRequest.ElevatorType.PUBLIC, false))
+                .get(5, TimeUnit.SECONDS);
+
+        int pickup = arrivals.indexOf("low@8");
+        int lobby = arrivals.indexOf("low@20");
+        String firstHighRiseMove = arrivals.stream().filter(a -> a.startsWith("high@")).findFirst().orElseThrow();
+        int secondLeg = arrivals.indexOf(firstHighRiseMove);
+        assertTrue(pickup >= 0, "First leg should stop at the origin floor");
+        assertTrue(pickup < lobby, "Origin should be served before the sky lobby");
+        assertTrue(lobby < secondLeg, "Second leg should start once the first car is at the lobby");
+        assertEquals("high@40", arrivals.get(arrivals.size() - 1));
+    }
+
+    @Test
+    @DisplayName("Zoned dispatcher: Starting twice is rejected")
+    void testStartTwiceRejected() {
+        assertThrows(IllegalStateException.class, () -> zoned.start());
+    }
+
+    @Test
+    @DisplayName("Zoned dispatcher: Zones of the same type may only share the sky lobby")
+    void testOverlappingZonesRejected() {
+        ZonedDispatcher.Builder overlapping = new ZonedDispatcher.Builder(new AuditLogger(), new SystemMonitor(),
+                new UserManager())
+                .zone("low-rise", 0, 25, ElevatorRequest.ElevatorType.PUBLIC)
+                .zone("high-rise", 20, 50, ElevatorRequest.ElevatorType.PUBLIC)
+                .skyLobby(20);
+        ZonedDispatcher.Builder otherType = new ZonedDispatcher.Builder(new AuditLogger(), new SystemMonitor(),
+                new UserManager())
+                .zone("public", 0, 50, ElevatorRequest.ElevatorType.PUBLIC)
+                .zone("freight", 0, 50, ElevatorRequest.ElevatorType.FREIGHT);
+
+        assertThrows(IllegalArgumentException.class, overlapping::build);
+        assertDoesNotThrow(otherType::build);
+    }
+
+    @Test
+    @DisplayName("Zoned dispatcher: Statistics are aggregated over every zone")
+    void testAggregateStats() {
+        ElevatorDispatcher.DispatcherStats stats = zoned.getStats();
+
+        assertEquals(3, stats.getTotalElevators());
+        assertEquals(2, stats.getPublicElevators());
+        assertEquals(1, stats.getFreightElevators());
+        assertEquals(3, zoned.getZoneStats().size());
+        assertThrows(InvalidFloorException.class,
+                () -> zoned.submit(new ElevatorRequest("user-001", 60, ElevatorRequest.ElevatorType.PUBLIC, false)));
+    }
+
+    @Test
+    @DisplayName("Zoned dispatcher: Elevators must match the zone type and reach all its floors")
+    void testRegistrationValidated() {
+        assertThrows(IllegalArgumentException.class, () -> zoned.registerElevator("freight", new PublicElevator(50)));
+        assertThrows(IllegalArgumentException.class, () -> zoned.registerElevator("high-rise", new PublicElevator(30)));
+        assertDoesNotThrow(() -> zoned.registerElevator("low-rise", new PublicElevator(30)));
+    }
+
+    @Test
+    @DisplayName("Zoned dispatcher: A trip without a sky lobby transfer fails its future")
+    void testNoTransferFailsFuture() {
+        ZonedDispatcher split = new ZonedDispatcher.Builder(new AuditLogger(), new SystemMonitor(), new UserManager())
+                .zone("low-rise", 0, 20, ElevatorRequest.ElevatorType.PUBLIC)
+                .zone("high-rise", 21, 50, ElevatorRequest.ElevatorType.PUBLIC)
+                .skyLobby(20)
+                .build();
+
+        CompletableFuture<Elevator> trip = split.submit(new ElevatorRequest("user-001", 5, 40,
+                ElevatorRequest.ElevatorType.PUBLIC, false));
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> trip.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, e.getCause());
+    }
+}
@@ -0,0 +1,103 @@
+package org.victor.monitoring;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.victor.FreightElevator;
+import org.victor.PublicElevator;
+import org.victor.audit.AuditLogger;
+import org.victor.dispatch.ElevatorDispatcher;
+import org.victor.exception.ElevatorOverloadException;
+import org.victor.security.UserManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the Micrometer binding of elevator, dispatcher and audit meters
+ */
+public class ElevatorMeterBinderTest {
+
+    private AuditLogger auditLogger;
+    private ElevatorDispatcher dispatcher;
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setup() {
+        auditLogger = new AuditLogger();
+        dispatcher = new ElevatorDispatcher(auditLogger, new SystemMonitor(), new UserManager());
+        registry = new SimpleMeterRegistry();
+    }
+
+    private double counter(String name, String elevatorId) {
+        return registry.get(name).tag(ElevatorMeterBinder.TAG_ELEVATOR_ID, elevatorId).functionCounter().count();
+    }
+
+    private double gauge(String name, String elevatorId) {
+        return registry.get(name).tag(ElevatorMeterBinder.TAG_ELEVATOR_ID, elevatorId).gauge().value();
+    }
+
+    // ───────────────────────────────
+    // ELEVATOR METER TESTS
+    // ───────────────────────────────
+
+    @Test
+    @DisplayName("Meters: Elevator counters and gauges track the elevator")
+    void testElevatorMeters() {
+        PublicElevator elevator = new PublicElevator(20);
+        dispatcher.registerElevator(elevator);
+        new ElevatorMeterBinder(dispatcher, auditLogger).bindTo(registry);
+
+        elevator.goToFloor(5);
+        elevator.addWeight(300);
+        elevator.removeWeight(100);
+        assertThrows(ElevatorOverloadException.class, () -> elevator.addWeight(5000));
+
+        String id = elevator.getElevatorId();
+        assertEquals(1, counter("elevator.moves", id));
+        assertEquals(300, counter("elevator.weight.added", id));
+        assertEquals(100, counter("elevator.weight.removed", id));
+        assertEquals(1, counter("elevator.overloads", id));
+        assertEquals(1, counter("elevator.shutdowns", id));
+        assertEquals(200, gauge("elevator.load", id));
+        assertEquals(0, gauge("elevator.operational", id));
+        assertEquals("public", registry.get("elevator.moves").functionCounter().getId()
+                .getTag(ElevatorMeterBinder.TAG_ELEVATOR_TYPE));
+    }
+
+    @Test
+    @DisplayName("Meters: Elevators registered or removed after binding update the registry")
+    void testFleetChanges() {
+        new ElevatorMeterBinder(dispatcher).bindTo(registry);
+        FreightElevator elevator = new FreightElevator(10);
+        dispatcher.registerElevator(elevator);
+
+        elevator.goToFloor(3);
+        assertEquals(1, counter("elevator.moves", elevator.getElevatorId()));
+        assertEquals(1, registry.get("dispatcher.elevators.operational").gauge().value());
+
+        dispatcher.unregisterElevator(elevator.getElevatorId());
+        assertNull(registry.find("elevator.moves").tag(ElevatorMeterBinder.TAG_ELEVATOR_ID,
+                elevator.getElevatorId()).functionCounter());
+        assertNull(registry.find("audit.events.recorded").functionCounter(), "No audit meters without a logger");
+    }
+
+    // ───────────────────────────────
+    // AUDIT METER TESTS
+    // ───────────────────────────────
+
+    @Test
+    @DisplayName("Meters: Audit throughput counts recorded events")
+    void testAuditMeters() {
+        new ElevatorMeterBinder(dispatcher, auditLogger).bindTo(registry);
+        PublicElevator elevator = new PublicElevator(20);
+        dispatcher.registerElevator(elevator);
+
+        elevator.goToFloor(2);
+        elevator.goToFloor(4);
+
+        assertEquals(auditLogger.getRecordedCount(), registry.get("audit.events.recorded").functionCounter().count());
+        assertTrue(registry.get("audit.events.recorded").functionCounter().count() >= 2);
+        assertEquals(0, registry.get("audit.queue.depth").gauge().value());
+    }
+}
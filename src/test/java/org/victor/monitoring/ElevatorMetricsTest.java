@@ -0,0 +1,65 @@
+package org.victor.monitoring;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for elevator metrics
+ */
+public class ElevatorMetricsTest {
+
+    // ───────────────────────────────
+    // CONCURRENCY TESTS
+    // ───────────────────────────────
+
+    @Test
+    @DisplayName("Metrics: Concurrent recording loses no updates")
+    void testConcurrentRecording() throws InterruptedException {
+        ElevatorMetrics metrics = new ElevatorMetrics("e1");
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    metrics.recordMove();
+                    metrics.recordWeightAdded(75);
+                    metrics.addPassenger();
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        ElevatorMetrics.Snapshot snapshot = metrics.snapshot();
+        assertEquals(80_000, snapshot.totalMoves());
+        assertEquals(80_000L * 75, snapshot.totalWeightAdded());
+        assertEquals(80_000, snapshot.currentPassengers());
+        assertTrue(snapshot.lastMoveTime() > 0);
+    }
+
+    // ───────────────────────────────
+    // GAUGE TESTS
+    // ───────────────────────────────
+
+    @Test
+    @DisplayName("Metrics: Passenger count never goes below zero")
+    void testPassengerFloor() {
+        ElevatorMetrics metrics = new ElevatorMetrics("e1");
+        metrics.addPassengers(3);
+        metrics.removePassengers(5);
+        assertEquals(0, metrics.getCurrentPassengers());
+
+        metrics.addPassenger();
+        metrics.removePassenger();
+        metrics.removePassenger();
+        assertEquals(0, metrics.snapshot().currentPassengers());
+        assertEquals(0, metrics.getLastMoveTime(), "No move recorded yet");
+    }
+}
@@ -0,0 +1,99 @@
+package org.victor.monitoring;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the lock-free latency histogram
+ */
+public class LatencyHistogramTest {
+
+    // ───────────────────────────────
+    // PERCENTILE TESTS
+    // ───────────────────────────────
+
+    @Test
+    @DisplayName("Histogram: Percentiles are within the bucket precision")
+    void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int value = 1; value <= 10_000; value++) {
+            histogram.record(value);
+        }
+
+        assertEquals(10_000, histogram.getCount());
+        assertEquals(5000.5, histogram.getMean(), 0.001);
+        assertEquals(10_000, histogram.getMax());
+        assertEquals(5000, histogram.percentile(50), 5000 * 0.04);
+        assertEquals(9900, histogram.percentile(99), 9900 * 0.04);
+        assertEquals(10_000, histogram.percentile(100));
+        assertEquals(1, histogram.percentile(0));
+    }
+
+    @Test
+    @DisplayName("Histogram: Small values are exact, out-of-range values are clamped")
+    void testBoundaries() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.percentile(99), "Empty histogram");
+
+        histogram.record(-5);
+        histogram.record(37);
+        histogram.record(Long.MAX_VALUE);
+
+        assertEquals(0, histogram.percentile(10));
+        assertEquals(37, histogram.percentile(50));
+        assertEquals(LatencyHistogram.MAX_VALUE, histogram.getMax());
+        assertThrows(IllegalArgumentException.class, () -> histogram.percentile(101));
+
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.percentile(50));
+    }
+
+    @Test
+    @DisplayName("Histogram: Percentiles across several histograms match a single one")
+    void testCombinedPercentile() {
+        LatencyHistogram low = new LatencyHistogram();
+        LatencyHistogram high = new LatencyHistogram();
+        LatencyHistogram all = new LatencyHistogram();
+        for (int value = 0; value < 1000; value++) {
+            (value < 500 ? low : high).record(value * 10L);
+            all.record(value * 10L);
+        }
+
+        for (double p : new double[] {1, 50, 95, 99.9}) {
+            assertEquals(all.percentile(p), LatencyHistogram.percentile(new LatencyHistogram[] {low, high}, p));
+        }
+    }
+
+    // ───────────────────────────────
+    // CONCURRENCY TESTS
+    // ───────────────────────────────
+
+    @Test
+    @DisplayName("Histogram: Concurrent recording loses no values")
+    void testConcurrentRecording() throws InterruptedException {
+        LatencyHistogram histogram = new LatencyHistogram();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    histogram.record(i % 2000);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(80_000, histogram.getCount());
+        assertEquals(1999, histogram.getMax());
+        assertEquals(1999, histogram.percentile(100));
+    }
+}
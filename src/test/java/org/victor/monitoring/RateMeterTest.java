@@ -0,0 +1,81 @@
+package org.victor.monitoring;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for sliding-window rate meters
+ */
+public class RateMeterTest {
+
+    // ───────────────────────────────
+    // WINDOW TESTS
+    // ───────────────────────────────
+
+    @Test
+    @DisplayName("Rates: Each window only counts its own recent events")
+    void testWindows() {
+        AtomicLong clock = new AtomicLong(1_000_000);
+        RateMeter meter = new RateMeter(clock::get);
+
+        // 10 events a second for two minutes
+        for (int i = 0; i < 1200; i++) {
+            meter.mark();
+            clock.addAndGet(100);
+        }
+
+        assertEquals(10, meter.count(RateMeter.Window.ONE_SECOND), 1);
+        assertEquals(10, meter.getOneSecondRate(), 1);
+        assertEquals(10, meter.getOneMinuteRate(), 0.5);
+        assertEquals(1200, meter.count(RateMeter.Window.FIVE_MINUTES));
+        assertEquals(1200, meter.getCount());
+
+        // idle for ten minutes
+        clock.addAndGet(10 * 60_000);
+        assertEquals(0, meter.getOneSecondRate());
+        assertEquals(0, meter.getOneMinuteRate());
+        assertEquals(0, meter.count(RateMeter.Window.FIVE_MINUTES));
+        assertEquals(1200, meter.count(RateMeter.Window.FIFTEEN_MINUTES));
+
+        clock.addAndGet(10 * 60_000);
+        assertEquals(0, meter.getFifteenMinuteRate());
+        assertEquals(1200, meter.getCount());
+    }
+
+    @Test
+    @DisplayName("Rates: Buckets are reused once their period has passed")
+    void testBucketReuse() {
+        AtomicLong clock = new AtomicLong();
+        RateMeter meter = new RateMeter(clock::get);
+
+        meter.mark(5);
+        clock.addAndGet(1_000);
+        meter.mark(3);
+
+        assertEquals(3, meter.count(RateMeter.Window.ONE_SECOND), "Same slot, newer second");
+        assertEquals(8, meter.count(RateMeter.Window.ONE_MINUTE));
+    }
+
+    // ───────────────────────────────
+    // ELEVATOR METRICS TESTS
+    // ───────────────────────────────
+
+    @Test
+    @DisplayName("Rates: Elevator metrics mark moves, boardings and overloads")
+    void testElevatorRates() {
+        ElevatorMetrics metrics = new ElevatorMetrics("e1");
+        metrics.recordMove();
+        metrics.recordMove();
+        metrics.addPassengers(4);
+        metrics.recordOverload();
+
+        assertEquals(2, metrics.getMoveRate().count(RateMeter.Window.ONE_SECOND));
+        assertEquals(4, metrics.getBoardingRate().count(RateMeter.Window.ONE_MINUTE));
+        assertEquals(1, metrics.getOverloadRate().count(RateMeter.Window.FIFTEEN_MINUTES));
+        assertTrue(metrics.getMoveRate().getOneSecondRate() > 0);
+    }
+}
@@ -0,0 +1,70 @@
+package org.victor.monitoring;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the system monitor and its alert store
+ */
+public class SystemMonitorTest {
+
+    private static final long FIVE_MINUTES = 5 * 60 * 1000;
+
+    // ───────────────────────────────
+    // ALERT STORE TESTS
+    // ───────────────────────────────
+
+    @Test
+    @DisplayName("Alerts: Only the latest alerts are kept but every alert is counted")
+    void testBoundedAlerts() {
+        SystemMonitor monitor = new SystemMonitor(4);
+        for (int i = 0; i < 10; i++) {
+            monitor.recordAlert("e1", SystemMonitor.AlertSeverity.WARNING, "Door sensor " + i);
+        }
+        monitor.recordAlert("e1", SystemMonitor.AlertSeverity.CRITICAL, "Overload detected");
+
+        List<SystemMonitor.HealthAlert> recent = monitor.getRecentAlerts(FIVE_MINUTES);
+        assertEquals(4, recent.size());
+        assertEquals("Door sensor 7", recent.get(0).getMessage());
+        assertEquals("Overload detected", recent.get(3).getMessage());
+        assertEquals(1, monitor.getCriticalAlerts().size());
+
+        assertEquals(10, monitor.getAlertCount(SystemMonitor.AlertSeverity.WARNING, FIVE_MINUTES));
+        assertEquals(1, monitor.getAlertCount(SystemMonitor.AlertSeverity.CRITICAL, FIVE_MINUTES));
+        assertEquals(0, monitor.getAlertCount(SystemMonitor.AlertSeverity.INFO, FIVE_MINUTES));
+        assertEquals(11, monitor.performHealthCheck().getRecentAlertsCount());
+
+        monitor.reset();
+        assertTrue(monitor.getRecentAlerts(FIVE_MINUTES).isEmpty());
+        assertEquals(0, monitor.getAlertCount(null, FIVE_MINUTES));
+        assertThrows(IllegalArgumentException.class, () -> new SystemMonitor(0));
+    }
+
+    @Test
+    @DisplayName("Alerts: Concurrent alerts are all counted")
+    void testConcurrentAlerts() throws InterruptedException {
+        SystemMonitor monitor = new SystemMonitor(64);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            String elevatorId = "e" + t;
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 100; i++) {
+                    monitor.recordAlert(elevatorId, SystemMonitor.AlertSeverity.INFO, "Tick");
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(400, monitor.getAlertCount(SystemMonitor.AlertSeverity.INFO, FIVE_MINUTES));
+        assertEquals(64, monitor.getRecentAlerts(FIVE_MINUTES).size());
+    }
+}
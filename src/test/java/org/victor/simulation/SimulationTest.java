@@ -0,0 +1,80 @@
+package org.victor.simulation;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.victor.PublicElevator;
+import org.victor.audit.AuditLogger;
+import org.victor.dispatch.DispatchStrategy;
+import org.victor.dispatch.ElevatorDispatcher;
+import org.victor.dispatch.EtaDispatchStrategy;
+import org.victor.monitoring.SystemMonitor;
+import org.victor.security.UserManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the discrete-event fleet simulator
+ */
+public class SimulationTest {
+
+    private static final long MINUTE_MS = 60_000;
+
+    private static ElevatorDispatcher fleet(DispatchStrategy strategy, int cars) {
+        ElevatorDispatcher dispatcher = new ElevatorDispatcher(new AuditLogger(), new SystemMonitor(),
+                new UserManager(), strategy);
+        for (int i = 0; i < cars; i++) {
+            dispatcher.registerElevator(new PublicElevator(20));
+        }
+        return dispatcher;
+    }
+
+    @Test
+    @DisplayName("Simulation: Passengers are delivered faster than real time")
+    void testSimulationDeliversPassengers() {
+        ElevatorDispatcher dispatcher = fleet(new EtaDispatchStrategy(), 3);
+        Simulation simulation = new Simulation.Builder(dispatcher)
+                .traffic(PoissonPassengerGenerator.upPeak(0, 20 * MINUTE_MS, 6, 20, 42))
+                .build();
+
+        SimulationReport report = simulation.run(30 * MINUTE_MS);
+
+        assertTrue(report.getGenerated() > 60, "About 120 passengers should arrive in 20 minutes");
+        assertEquals(report.getGenerated(), report.getDelivered(), "Everyone should arrive before the end");
+        assertTrue(report.getAverageWaitSeconds() > 0);
+        assertTrue(report.getAverageTravelSeconds() > 0);
+        assertTrue(report.getPeakHandlingCapacity() > 0);
+        assertTrue(report.getSpeedup() > 1, "Simulation should run faster than real time");
+    }
+
+    @Test
+    @DisplayName("Simulation: Same seed produces the same result")
+    void testSimulationIsDeterministic() {
+        SimulationReport first = new Simulation.Builder(fleet(new EtaDispatchStrategy(), 2))
+                .traffic(PoissonPassengerGenerator.interfloor(0, 10 * MINUTE_MS, 4, 20, 7))
+                .build()
+                .run(15 * MINUTE_MS);
+        SimulationReport second = new Simulation.Builder(fleet(new EtaDispatchStrategy(), 2))
+                .traffic(PoissonPassengerGenerator.interfloor(0, 10 * MINUTE_MS, 4, 20, 7))
+                .build()
+                .run(15 * MINUTE_MS);
+
+        assertEquals(first.getDelivered(), second.getDelivered());
+        assertEquals(first.getAverageWaitSeconds(), second.getAverageWaitSeconds(), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Simulation: Passengers left waiting count in the wait statistics")
+    void testUndeliveredPassengersCountInWaits() {
+        // one car cannot keep up with a heavy up-peak, and the run stops while it still arrives
+        SimulationReport report = new Simulation.Builder(fleet(new EtaDispatchStrategy(), 1))
+                .traffic(PoissonPassengerGenerator.upPeak(0, 20 * MINUTE_MS, 30, 20, 11))
+                .build()
+                .run(10 * MINUTE_MS);
+
+        assertTrue(report.getDelivered() < report.getGenerated());
+        assertTrue(report.getWaitingAtEnd() > 0, "Some passengers should still be waiting");
+        assertTrue(report.getMaxWaitSeconds() > 60, "Censored waits should reach back to early arrivals");
+        assertTrue(report.getMaxWaitSeconds() <= 10 * 60, "Censored waits end with the run");
+        assertTrue(report.toString().contains("waitingAtEnd=" + report.getWaitingAtEnd()));
+    }
+}